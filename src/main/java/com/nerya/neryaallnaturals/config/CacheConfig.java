@@ -0,0 +1,69 @@
+package com.nerya.neryaallnaturals.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nerya.neryaallnaturals.dto.ProductImageResponse;
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * ProductResponse by product ID
+     */
+    public static final String PRODUCTS = "products";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.products.max-weight:50000000}") long productsMaxWeight,
+            @Value("${app.cache.products.ttl:10m}") Duration productsTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PRODUCTS, Caffeine.newBuilder()
+                .maximumWeight(productsMaxWeight)
+                .<Object, Object>weigher((key, value) -> value instanceof ProductResponse product ? estimateSize(product) : 1)
+                .expireAfterWrite(productsTtl)
+                .recordStats() // exposed as cache.* meters on /actuator/metrics
+                .build());
+
+        // Defer puts and evictions until the surrounding transaction commits,
+        // so a rolled back write never leaves its response in the cache
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * Rough heap footprint of a cached product, in bytes
+     */
+    static int estimateSize(ProductResponse product) {
+        int size = 512
+                + length(product.getName())
+                + length(product.getShortDescription())
+                + length(product.getLongDescription())
+                + length(product.getMetaTitle())
+                + length(product.getMetaDescription());
+        if (product.getTags() != null) {
+            for (String tag : product.getTags()) {
+                size += 48 + length(tag);
+            }
+        }
+        if (product.getImages() != null) {
+            for (ProductImageResponse image : product.getImages()) {
+                size += 128 + length(image.getImageUrl()) + length(image.getAltText());
+            }
+        }
+        return size;
+    }
+
+    private static int length(String value) {
+        // Latin-1 strings take one byte per char, others two; assume the worst
+        return value == null ? 0 : value.length() * 2;
+    }
+}
@@ -0,0 +1,31 @@
+package com.nerya.neryaallnaturals.controller;
+
+import com.nerya.neryaallnaturals.dto.CatalogSnapshotInfo;
+import com.nerya.neryaallnaturals.service.CatalogSnapshotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/catalog")
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogController {
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    /**
+     * Describe the catalog snapshot this node is serving
+     * Open API - No authentication required
+     * 
+     * @return snapshot version, build time and size
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<CatalogSnapshotInfo> getSnapshotInfo() {
+        log.debug("Fetching catalog snapshot info");
+        return ResponseEntity.ok(catalogSnapshotService.getSnapshotInfo());
+    }
+}
@@ -3,13 +3,16 @@ package com.nerya.neryaallnaturals.controller;
 import com.nerya.neryaallnaturals.annotation.AdminOnly;
 import com.nerya.neryaallnaturals.dto.CategoryRequest;
 import com.nerya.neryaallnaturals.dto.CategoryResponse;
+import com.nerya.neryaallnaturals.service.CatalogSnapshotService;
 import com.nerya.neryaallnaturals.service.CategoryService;
+import com.nerya.neryaallnaturals.util.HttpCaching;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +24,7 @@ import java.util.Optional;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogSnapshotService catalogSnapshotService;
 
     /**
      * Fetch all active categories
@@ -29,10 +33,18 @@ public class CategoryController {
      * @return list of all active categories
      */
     @GetMapping
-    public ResponseEntity<List<CategoryResponse>> getAllCategories() {
+    public ResponseEntity<List<CategoryResponse>> getAllCategories(WebRequest webRequest) {
         log.info("Fetching all active categories");
-        List<CategoryResponse> categories = categoryService.getAllActiveCategories();
-        return ResponseEntity.ok(categories);
+        
+        Optional<HttpCaching.Validators> validators = catalogSnapshotService.getCategoryListValidators();
+        if (validators.isPresent() && validators.get().notModified(webRequest)) {
+            return notModified();
+        }
+        
+        List<CategoryResponse> categories = catalogSnapshotService.getAllActiveCategories();
+        return ResponseEntity.ok()
+                .cacheControl(HttpCaching.PUBLIC_CATALOG)
+                .body(categories);
     }
 
     /**
@@ -43,16 +55,22 @@ public class CategoryController {
      * @return category details
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<?> getCategoryById(@PathVariable Long id, WebRequest webRequest) {
         log.info("Fetching category with ID: {}", id);
-        Optional<CategoryResponse> category = categoryService.getCategoryById(id);
+        Optional<CategoryResponse> category = catalogSnapshotService.getCategoryById(id);
         
         if (category.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("Category not found with ID: " + id);
         }
         
-        return ResponseEntity.ok(category.get());
+        if (HttpCaching.Validators.ofEntity("c", id, category.get().getUpdatedAt()).notModified(webRequest)) {
+            return notModified();
+        }
+        
+        return ResponseEntity.ok()
+                .cacheControl(HttpCaching.PUBLIC_CATALOG)
+                .body(category.get());
     }
 
     /**
@@ -62,10 +80,18 @@ public class CategoryController {
      * @return list of parent categories
      */
     @GetMapping("/parents")
-    public ResponseEntity<List<CategoryResponse>> getParentCategories() {
+    public ResponseEntity<List<CategoryResponse>> getParentCategories(WebRequest webRequest) {
         log.info("Fetching all parent categories");
-        List<CategoryResponse> categories = categoryService.getParentCategories();
-        return ResponseEntity.ok(categories);
+        
+        Optional<HttpCaching.Validators> validators = catalogSnapshotService.getCategoryListValidators();
+        if (validators.isPresent() && validators.get().notModified(webRequest)) {
+            return notModified();
+        }
+        
+        List<CategoryResponse> categories = catalogSnapshotService.getParentCategories();
+        return ResponseEntity.ok()
+                .cacheControl(HttpCaching.PUBLIC_CATALOG)
+                .body(categories);
     }
 
     /**
@@ -89,5 +115,13 @@ public class CategoryController {
                     .body(e.getMessage());
         }
     }
-}
 
+    /**
+     * 304 response; ETag and Last-Modified were already set by the validator check
+     */
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(HttpCaching.PUBLIC_CATALOG)
+                .build();
+    }
+}
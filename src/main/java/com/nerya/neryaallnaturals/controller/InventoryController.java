@@ -1,17 +1,41 @@
 package com.nerya.neryaallnaturals.controller;
 
 import com.nerya.neryaallnaturals.annotation.AdminOnly;
+import com.nerya.neryaallnaturals.dto.BatchLookupRequest;
+import com.nerya.neryaallnaturals.dto.CursorPage;
+import com.nerya.neryaallnaturals.dto.HotStockResponse;
 import com.nerya.neryaallnaturals.dto.InventoryRequest;
+import com.nerya.neryaallnaturals.dto.InventoryMovementResponse;
 import com.nerya.neryaallnaturals.dto.InventoryResponse;
+import com.nerya.neryaallnaturals.dto.LowStockPageResponse;
+import com.nerya.neryaallnaturals.dto.StockAsOfResponse;
+import com.nerya.neryaallnaturals.dto.StockOperation;
+import com.nerya.neryaallnaturals.dto.StockOperationRequest;
+import com.nerya.neryaallnaturals.dto.StockOperationResponse;
+import com.nerya.neryaallnaturals.entity.InventoryMovementReason;
+import com.nerya.neryaallnaturals.service.HotStockService;
+import com.nerya.neryaallnaturals.service.InventoryMovementService;
 import com.nerya.neryaallnaturals.service.InventoryService;
+import com.nerya.neryaallnaturals.service.LowStockService;
+import com.nerya.neryaallnaturals.util.HttpCaching;
+import com.nerya.neryaallnaturals.util.JsonStreaming;
+import com.nerya.neryaallnaturals.util.WireFormat;
+import com.nerya.neryaallnaturals.util.WireFormatMappers;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @RestController
@@ -21,19 +45,59 @@ import java.util.Optional;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final HotStockService hotStockService;
+    private final LowStockService lowStockService;
+    private final InventoryMovementService inventoryMovementService;
+    private final WireFormatMappers wireFormatMappers;
 
     /**
-     * Admin only - Get all inventory records
+     * Admin only - Get all inventory records, streamed from a database cursor
      * Admin API - Requires authentication
      * 
-     * @return list of all inventory records
+     * @param accept JSON by default; application/x-jackson-smile or application/cbor for a binary array
+     * @return array of all inventory records
      */
     @GetMapping("/admin/all")
     @AdminOnly
-    public ResponseEntity<List<InventoryResponse>> getAllInventories() {
+    public ResponseEntity<StreamingResponseBody> getAllInventories(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest) {
         log.info("Admin: Fetching all inventory records");
-        List<InventoryResponse> inventories = inventoryService.getAllInventories();
-        return ResponseEntity.ok(inventories);
+        
+        if (inventoryService.getInventoryListValidators().notModified(webRequest)) {
+            return notModified();
+        }
+        
+        WireFormat format = WireFormat.negotiate(accept);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .cacheControl(HttpCaching.PRIVATE_REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(JsonStreaming.array(wireFormatMappers.forFormat(format), inventoryService::streamAllInventories));
+    }
+
+    /**
+     * Admin only - Get the products at or below their minimum stock level, served from memory
+     * Admin API - Requires authentication
+     * 
+     * @param page zero-based page number
+     * @param size page size, capped at {@value com.nerya.neryaallnaturals.service.ProductService#MAX_PAGE_SIZE}
+     * @return page of low-stock products, largest shortfall first
+     */
+    @GetMapping("/admin/low-stock")
+    @AdminOnly
+    public ResponseEntity<?> getLowStock(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        log.info("Admin: Fetching low-stock products");
+
+        try {
+            LowStockPageResponse lowStock = lowStockService.getLowStock(page, size);
+            return ResponseEntity.ok(lowStock);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
     }
 
     /**
@@ -45,8 +109,14 @@ public class InventoryController {
      */
     @GetMapping("/admin/{id}")
     @AdminOnly
-    public ResponseEntity<?> getInventoryById(@PathVariable Long id) {
+    public ResponseEntity<?> getInventoryById(@PathVariable Long id, WebRequest webRequest) {
         log.info("Admin: Fetching inventory with ID: {}", id);
+        
+        Optional<HttpCaching.Validators> validators = inventoryService.getInventoryValidators(id);
+        if (validators.isPresent() && validators.get().notModified(webRequest)) {
+            return notModified();
+        }
+        
         Optional<InventoryResponse> inventory = inventoryService.getInventoryById(id);
         
         if (inventory.isEmpty()) {
@@ -54,7 +124,9 @@ public class InventoryController {
                     .body("Inventory not found with ID: " + id);
         }
         
-        return ResponseEntity.ok(inventory.get());
+        return ResponseEntity.ok()
+                .cacheControl(HttpCaching.PRIVATE_REVALIDATE)
+                .body(inventory.get());
     }
 
     /**
@@ -66,8 +138,14 @@ public class InventoryController {
      */
     @GetMapping("/admin/product/{productId}")
     @AdminOnly
-    public ResponseEntity<?> getInventoryByProductId(@PathVariable Long productId) {
+    public ResponseEntity<?> getInventoryByProductId(@PathVariable Long productId, WebRequest webRequest) {
         log.info("Admin: Fetching inventory for product ID: {}", productId);
+        
+        Optional<HttpCaching.Validators> validators = inventoryService.getInventoryValidatorsByProductId(productId);
+        if (validators.isPresent() && validators.get().notModified(webRequest)) {
+            return notModified();
+        }
+        
         Optional<InventoryResponse> inventory = inventoryService.getInventoryByProductId(productId);
         
         if (inventory.isEmpty()) {
@@ -75,7 +153,93 @@ public class InventoryController {
                     .body("Inventory not found for product ID: " + productId);
         }
         
-        return ResponseEntity.ok(inventory.get());
+        return ResponseEntity.ok()
+                .cacheControl(HttpCaching.PRIVATE_REVALIDATE)
+                .body(inventory.get());
+    }
+
+    /**
+     * Admin only - Get a product's stock counters at a point in time, rebuilt from the
+     * movement journal
+     * Admin API - Requires authentication
+     * 
+     * @param productId product ID
+     * @param at point in time (ISO date-time), now when omitted
+     * @return on hand, reserved and sold as of then
+     */
+    @GetMapping("/admin/product/{productId}/as-of")
+    @AdminOnly
+    public ResponseEntity<?> getStockAsOf(
+            @PathVariable Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        LocalDateTime asOf = at != null ? at : LocalDateTime.now();
+        log.info("Admin: Fetching stock of product ID: {} as of {}", productId, asOf);
+
+        Optional<StockAsOfResponse> stock = inventoryMovementService.getStockAsOf(productId, asOf);
+        if (stock.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("No inventory movements for product ID: " + productId + " up to " + asOf);
+        }
+        return ResponseEntity.ok(stock.get());
+    }
+
+    /**
+     * Admin only - List inventory movements in time order, one keyset page at a time
+     * Admin API - Requires authentication
+     * 
+     * @param productId only this product's movements (optional)
+     * @param reason only movements with this reason (optional)
+     * @param from inclusive start (ISO date-time, optional)
+     * @param to exclusive end (ISO date-time, optional)
+     * @param cursor continuation token from the previous page, omit for the first page
+     * @param size page size, capped at {@value com.nerya.neryaallnaturals.service.ProductService#MAX_PAGE_SIZE}
+     * @return page of movements, oldest first
+     */
+    @GetMapping("/admin/movements")
+    @AdminOnly
+    public ResponseEntity<?> getMovements(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) String reason,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("Admin: Fetching inventory movements");
+
+        InventoryMovementReason movementReason = null;
+        if (reason != null) {
+            try {
+                movementReason = InventoryMovementReason.valueOf(reason.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body("Unknown movement reason: " + reason);
+            }
+        }
+
+        try {
+            CursorPage<InventoryMovementResponse> movements = inventoryMovementService.getMovements(
+                    productId, movementReason, from, to, cursor, size);
+            return ResponseEntity.ok(movements);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
+
+    /**
+     * Admin only - Get the inventory of several products in one request
+     * Admin API - Requires authentication
+     * 
+     * @param request product IDs, at most {@value BatchLookupRequest#MAX_IDS}
+     * @return inventory records in request order and the product IDs without one
+     */
+    @PostMapping("/admin/batch")
+    @AdminOnly
+    public ResponseEntity<?> getInventoriesByProductIds(@Valid @RequestBody BatchLookupRequest request) {
+        log.info("Admin: Fetching inventory for {} products", request.getIds().size());
+        return ResponseEntity.ok()
+                .cacheControl(HttpCaching.PRIVATE_REVALIDATE)
+                .body(inventoryService.getInventoriesByProductIds(request.getIds()));
     }
 
     /**
@@ -105,7 +269,8 @@ public class InventoryController {
      * Admin API - Requires authentication
      * 
      * @param id inventory ID
-     * @param inventoryRequest updated inventory details
+     * @param inventoryRequest updated inventory details; include the version that was read to
+     *                         reject the edit (409) if the record changed since
      * @return updated inventory
      */
     @PutMapping("/admin/{id}")
@@ -116,6 +281,7 @@ public class InventoryController {
         log.info("Admin: Updating inventory with ID: {}", id);
         
         try {
+            inventoryService.leaveHotStockMode(id);
             Optional<InventoryResponse> updatedInventory = inventoryService.updateInventory(id, inventoryRequest);
             
             if (updatedInventory.isEmpty()) {
@@ -125,12 +291,98 @@ public class InventoryController {
             
             return ResponseEntity.ok(updatedInventory.get());
             
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Inventory was modified concurrently, reload it and retry: " + id);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(e.getMessage());
         }
     }
 
+    /**
+     * Admin only - Atomically reserve, release, commit or restock a product's stock
+     * Admin API - Requires authentication
+     * 
+     * @param operation reserve, release, commit or restock
+     * @param request product ID and quantity
+     * @return the outcome; 409 when there is not enough available (or reserved) stock
+     */
+    @PostMapping("/admin/stock/{operation}")
+    @AdminOnly
+    public ResponseEntity<?> applyStockOperation(
+            @PathVariable String operation,
+            @Valid @RequestBody StockOperationRequest request) {
+        StockOperation stockOperation;
+        try {
+            stockOperation = StockOperation.valueOf(operation.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Unknown stock operation: " + operation);
+        }
+        log.info("Admin: {} {} of product ID: {}", stockOperation, request.getQuantity(), request.getProductId());
+
+        StockOperationResponse response = inventoryService.applyStockOperation(
+                stockOperation, request.getProductId(), request.getQuantity());
+        return switch (response.getStatus()) {
+            case APPLIED -> ResponseEntity.ok(response);
+            case INSUFFICIENT_STOCK -> ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            case NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Inventory not found for product ID: " + request.getProductId());
+        };
+    }
+
+    /**
+     * Admin only - List the products in hot stock (flash-sale) mode
+     * Admin API - Requires authentication
+     * 
+     * @return hot products with their leased and reserved units, most reserved first
+     */
+    @GetMapping("/admin/stock/hot")
+    @AdminOnly
+    public ResponseEntity<List<HotStockResponse>> getHotProducts() {
+        log.info("Admin: Fetching hot stock products");
+        return ResponseEntity.ok(hotStockService.getHotProducts());
+    }
+
+    /**
+     * Admin only - Put a product in hot stock mode until it is turned off again
+     * Admin API - Requires authentication
+     * 
+     * @param productId product ID
+     * @return success message
+     */
+    @PostMapping("/admin/stock/hot/{productId}")
+    @AdminOnly
+    public ResponseEntity<?> enableHotStock(@PathVariable Long productId) {
+        log.info("Admin: Enabling hot stock mode for product ID: {}", productId);
+
+        if (!hotStockService.heat(productId, true)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Inventory not found for product ID: " + productId);
+        }
+        return ResponseEntity.ok("Hot stock mode enabled for product ID: " + productId);
+    }
+
+    /**
+     * Admin only - Take a product out of hot stock mode, applying its pending reservations
+     * Admin API - Requires authentication
+     * 
+     * @param productId product ID
+     * @return success message
+     */
+    @DeleteMapping("/admin/stock/hot/{productId}")
+    @AdminOnly
+    public ResponseEntity<?> disableHotStock(@PathVariable Long productId) {
+        log.info("Admin: Disabling hot stock mode for product ID: {}", productId);
+
+        if (!hotStockService.cool(productId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body("Product is not in hot stock mode: " + productId);
+        }
+        return ResponseEntity.ok("Hot stock mode disabled for product ID: " + productId);
+    }
+
     /**
      * Admin only - Delete inventory
      * Admin API - Requires authentication
@@ -143,6 +395,7 @@ public class InventoryController {
     public ResponseEntity<?> deleteInventory(@PathVariable Long id) {
         log.info("Admin: Deleting inventory with ID: {}", id);
         
+        inventoryService.leaveHotStockMode(id);
         boolean deleted = inventoryService.deleteInventory(id);
         
         if (!deleted) {
@@ -152,4 +405,13 @@ public class InventoryController {
         
         return ResponseEntity.ok("Inventory deleted successfully");
     }
+
+    /**
+     * 304 response; ETag and Last-Modified were already set by the validator check
+     */
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(HttpCaching.PRIVATE_REVALIDATE)
+                .build();
+    }
 }
@@ -1,16 +1,49 @@
 package com.nerya.neryaallnaturals.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.nerya.neryaallnaturals.annotation.AdminOnly;
+import com.nerya.neryaallnaturals.dto.BatchLookupRequest;
+import com.nerya.neryaallnaturals.dto.BatchLookupResponse;
+import com.nerya.neryaallnaturals.dto.BulkProductUpdateRequest;
+import com.nerya.neryaallnaturals.dto.CursorPage;
+import com.nerya.neryaallnaturals.dto.ProductFilterRequest;
+import com.nerya.neryaallnaturals.dto.ProductFilterResponse;
 import com.nerya.neryaallnaturals.dto.ProductRequest;
 import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.dto.ProductSearchResponse;
+import com.nerya.neryaallnaturals.dto.ProductSort;
+import com.nerya.neryaallnaturals.dto.ProductView;
+import com.nerya.neryaallnaturals.dto.SuggestionResponse;
+import com.nerya.neryaallnaturals.dto.TagMatch;
+import com.nerya.neryaallnaturals.dto.TaggedProductsResponse;
+import com.nerya.neryaallnaturals.service.CatalogSnapshotService;
+import com.nerya.neryaallnaturals.service.ProductBulkService;
+import com.nerya.neryaallnaturals.service.ProductFacetService;
+import com.nerya.neryaallnaturals.service.ProductImportService;
+import com.nerya.neryaallnaturals.service.ProductSearchService;
 import com.nerya.neryaallnaturals.service.ProductService;
+import com.nerya.neryaallnaturals.service.ProductSuggestService;
+import com.nerya.neryaallnaturals.service.ProductTagService;
+import com.nerya.neryaallnaturals.util.HttpCaching;
+import com.nerya.neryaallnaturals.util.JsonMergePatch;
+import com.nerya.neryaallnaturals.util.JsonStreaming;
+import com.nerya.neryaallnaturals.util.SparseFields;
+import com.nerya.neryaallnaturals.util.WireFormat;
+import com.nerya.neryaallnaturals.util.WireFormatMappers;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,33 +54,230 @@ import java.util.Optional;
 public class ProductController {
 
     private final ProductService productService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ProductSearchService productSearchService;
+    private final ProductSuggestService productSuggestService;
+    private final ProductFacetService productFacetService;
+    private final ProductTagService productTagService;
+    private final ProductImportService productImportService;
+    private final ProductBulkService productBulkService;
+    private final WireFormatMappers wireFormatMappers;
 
     /**
-     * Fetch all active products
+     * Fetch one page of active products
      * Open API - No authentication required
      * 
-     * @return list of all active products
+     * @param cursor continuation token from the previous page, omit for the first page
+     * @param size page size, capped at {@value ProductService#MAX_PAGE_SIZE}
+     * @param sort sort order
+     * @param view FULL products or compact CARD projections
+     * @param fields optional comma-separated product properties to return
+     * @return page of active products
      */
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        log.info("Fetching all active products");
-        List<ProductResponse> products = productService.getAllActiveProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "NEWEST") ProductSort sort,
+            @RequestParam(defaultValue = "FULL") ProductView view,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
+        log.info("Fetching active products page");
+        
+        Optional<HttpCaching.Validators> validators = catalogSnapshotService.getProductListValidators();
+        if (validators.isPresent() && validators.get().notModified(webRequest)) {
+            return notModified();
+        }
+        
+        try {
+            CursorPage<?> products = view == ProductView.CARD
+                    ? catalogSnapshotService.getActiveProductCards(cursor, size, sort)
+                    : catalogSnapshotService.getActiveProducts(cursor, size, sort);
+            return ResponseEntity.ok()
+                    .cacheControl(HttpCaching.PUBLIC_CATALOG)
+                    .body(SparseFields.select(products, fields));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
     }
 
     /**
-     * Fetch products by category
+     * Fetch one page of products in a category
      * Open API - No authentication required
      * 
      * @param categoryId category ID
-     * @return list of products in the specified category
+     * @param cursor continuation token from the previous page, omit for the first page
+     * @param size page size, capped at {@value ProductService#MAX_PAGE_SIZE}
+     * @param sort sort order
+     * @param view FULL products or compact CARD projections
+     * @param fields optional comma-separated product properties to return
+     * @return page of products in the specified category
      */
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<ProductResponse>> getProductsByCategory(
-            @PathVariable Long categoryId) {
+    public ResponseEntity<?> getProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "NEWEST") ProductSort sort,
+            @RequestParam(defaultValue = "FULL") ProductView view,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
         log.info("Fetching products for category ID: {}", categoryId);
-        List<ProductResponse> products = productService.getProductsByCategory(categoryId);
-        return ResponseEntity.ok(products);
+        
+        Optional<HttpCaching.Validators> validators = catalogSnapshotService.getProductListValidators();
+        if (validators.isPresent() && validators.get().notModified(webRequest)) {
+            return notModified();
+        }
+        
+        try {
+            CursorPage<?> products = view == ProductView.CARD
+                    ? catalogSnapshotService.getProductCardsByCategory(categoryId, cursor, size, sort)
+                    : catalogSnapshotService.getProductsByCategory(categoryId, cursor, size, sort);
+            return ResponseEntity.ok()
+                    .cacheControl(HttpCaching.PUBLIC_CATALOG)
+                    .body(SparseFields.select(products, fields));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
+
+    /**
+     * Search active products by relevance
+     * Open API - No authentication required
+     * 
+     * @param q search text; every word must match the name, brand, tags, SKU or descriptions
+     * @param categoryId optional category filter
+     * @param page zero-based page number
+     * @param size page size, capped at {@value ProductService#MAX_PAGE_SIZE}
+     * @param fields optional comma-separated product properties to return
+     * @return page of matching products, best match first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        log.info("Searching products for: {}", q);
+        return search(q, categoryId, true, page, size, fields);
+    }
+
+    /**
+     * Filter active products by facets, with the number of products for every facet value
+     * Open API - No authentication required
+     * 
+     * @param filter facet selection: repeatable categoryId, brand and tag, plus minPrice,
+     *               maxPrice, minDiscount, minRating, inStock and featured
+     * @param sort sort order
+     * @param page zero-based page number
+     * @param size page size, capped at {@value ProductService#MAX_PAGE_SIZE}
+     * @param fields optional comma-separated product properties to return
+     * @return page of matching products and the facet counts
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterProducts(
+            @ModelAttribute ProductFilterRequest filter,
+            @RequestParam(defaultValue = "NEWEST") ProductSort sort,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        log.info("Filtering products: {}", filter);
+        
+        try {
+            ProductFilterResponse results = productFacetService.filter(filter, sort, page, size);
+            return ResponseEntity.ok()
+                    .cacheControl(HttpCaching.PUBLIC_CATALOG)
+                    .body(SparseFields.select(results, fields));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(e.getMessage());
+        }
+    }
+
+    /**
+     * Fetch every tag in use with its number of active products
+     * Open API - No authentication required
+     * 
+     * @return tags, most used first
+     */
+    @GetMapping("/tags")
+    public ResponseEntity<?> getTags() {
+        log.info("Fetching product tags");
+        
+        try {
+            return ResponseEntity.ok()
+                    .cacheControl(HttpCaching.PUBLIC_CATALOG)
+                    .body(productTagService.getTags());
+            
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(e.getMessage());
+        }
+    }
+
+    /**
+     * Fetch one page of active products carrying the given tags
+     * Open API - No authentication required
+     * 
+     * @param tags one tag, or several separated by commas
+     * @param match ALL for products carrying every tag, ANY for at least one
+     * @param sort sort order
+     * @param page zero-based page number
+     * @param size page size, capped at {@value ProductService#MAX_PAGE_SIZE}
+     * @param fields optional comma-separated product properties to return
+     * @return page of tagged products
+     */
+    @GetMapping("/tags/{tags}")
+    public ResponseEntity<?> getProductsByTags(
+            @PathVariable List<String> tags,
+            @RequestParam(defaultValue = "ALL") TagMatch match,
+            @RequestParam(defaultValue = "NEWEST") ProductSort sort,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        log.info("Fetching products tagged: {}", tags);
+        
+        try {
+            TaggedProductsResponse products = productTagService.getProductsByTags(tags, match, sort, page, size);
+            return ResponseEntity.ok()
+                    .cacheControl(HttpCaching.PUBLIC_CATALOG)
+                    .body(SparseFields.select(products, fields));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(e.getMessage());
+        }
+    }
+
+    /**
+     * Typeahead completions for product names, brands, tags and SKUs
+     * Open API - No authentication required
+     * 
+     * @param q text typed so far
+     * @param limit number of completions (default {@value ProductSuggestService#DEFAULT_LIMIT}, max 20)
+     * @return completions, most popular first
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggestProducts(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("Suggesting completions for: {}", q);
+        List<SuggestionResponse> suggestions = productSuggestService.suggest(q, limit);
+        return ResponseEntity.ok()
+                .cacheControl(HttpCaching.PUBLIC_CATALOG)
+                .body(suggestions);
     }
 
     /**
@@ -55,33 +285,170 @@ public class ProductController {
      * Open API - No authentication required
      * 
      * @param id product ID
+     * @param fields optional comma-separated product properties to return
      * @return product details
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getProductById(@PathVariable Long id) {
+    public ResponseEntity<?> getProductById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            WebRequest webRequest) {
         log.info("Fetching product with ID: {}", id);
-        Optional<ProductResponse> product = productService.getProductById(id);
+        Optional<ProductResponse> product = catalogSnapshotService.getProductById(id);
         
         if (product.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body("Product not found with ID: " + id);
         }
         
-        return ResponseEntity.ok(product.get());
+        Optional<HttpCaching.Validators> validators = catalogSnapshotService.getProductValidators(product.get());
+        if (validators.isPresent() && validators.get().notModified(webRequest)) {
+            return notModified();
+        }
+        
+        return ResponseEntity.ok()
+                .cacheControl(HttpCaching.PUBLIC_CATALOG)
+                .body(SparseFields.select(product.get(), fields));
+    }
+
+    /**
+     * Fetch several products by ID in one request
+     * Open API - No authentication required
+     * 
+     * @param request product IDs, at most {@value BatchLookupRequest#MAX_IDS}
+     * @param fields optional comma-separated product properties to return
+     * @return found products in request order and the IDs that matched no product
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getProductsByIds(
+            @Valid @RequestBody BatchLookupRequest request,
+            @RequestParam(required = false) String fields) {
+        log.info("Fetching {} products by ID", request.getIds().size());
+        BatchLookupResponse<ProductResponse> products = catalogSnapshotService.getProductsByIds(request.getIds());
+        return ResponseEntity.ok(SparseFields.select(products, fields));
     }
 
     /**
-     * Admin only - Get all products including inactive
+     * Admin only - Get one page of all products including inactive
      * Admin API - Requires authentication
      * 
-     * @return list of all products
+     * @param cursor continuation token from the previous page, omit for the first page
+     * @param size page size, capped at {@value ProductService#MAX_PAGE_SIZE}
+     * @param sort sort order
+     * @param view FULL products or compact CARD projections
+     * @param fields optional comma-separated product properties to return
+     * @return page of all products
      */
     @GetMapping("/admin/all")
     @AdminOnly
-    public ResponseEntity<List<ProductResponse>> getAllProductsAdmin() {
-        log.info("Admin: Fetching all products");
-        List<ProductResponse> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> getAllProductsAdmin(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "NEWEST") ProductSort sort,
+            @RequestParam(defaultValue = "FULL") ProductView view,
+            @RequestParam(required = false) String fields) {
+        log.info("Admin: Fetching all products page");
+        
+        try {
+            CursorPage<?> products = view == ProductView.CARD
+                    ? productService.getAllProductCards(cursor, size, sort)
+                    : productService.getAllProducts(cursor, size, sort);
+            return ResponseEntity.ok(SparseFields.select(products, fields));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
+
+    /**
+     * Admin only - Search all products by relevance, including inactive
+     * Admin API - Requires authentication
+     * 
+     * @param q search text
+     * @param categoryId optional category filter
+     * @param active optional active status filter, both when omitted
+     * @param page zero-based page number
+     * @param size page size, capped at {@value ProductService#MAX_PAGE_SIZE}
+     * @param fields optional comma-separated product properties to return
+     * @return page of matching products, best match first
+     */
+    @GetMapping("/admin/search")
+    @AdminOnly
+    public ResponseEntity<?> searchProductsAdmin(
+            @RequestParam String q,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fields) {
+        log.info("Admin: Searching products for: {}", q);
+        return search(q, categoryId, active, page, size, fields);
+    }
+
+    /**
+     * Admin only - Get search result cache statistics
+     * Admin API - Requires authentication
+     * 
+     * @param limit number of queries to list, at most {@value ProductSearchService#MAX_STATS_QUERIES}
+     * @return overall hit rate and the most requested normalized queries with their hit rates
+     */
+    @GetMapping("/admin/search/stats")
+    @AdminOnly
+    public ResponseEntity<?> getSearchCacheStats(@RequestParam(defaultValue = "20") int limit) {
+        log.info("Admin: Fetching search cache stats");
+        try {
+            return ResponseEntity.ok(productSearchService.getCacheStats(limit));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
+
+    /**
+     * Admin only - Export all products including inactive, read in keyset chunks of
+     * {@link com.nerya.neryaallnaturals.repository.ProductReadRepository#forEach} and streamed out
+     * Admin API - Requires authentication
+     * 
+     * @param accept JSON by default; application/x-jackson-smile or application/cbor for a binary array
+     * @return array of all products in ID order
+     */
+    @GetMapping("/admin/export")
+    @AdminOnly
+    public ResponseEntity<StreamingResponseBody> exportAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.info("Admin: Exporting all products");
+        WireFormat format = WireFormat.negotiate(accept);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(JsonStreaming.array(wireFormatMappers.forFormat(format), productService::streamAllProducts));
+    }
+
+    /**
+     * Admin only - Bulk import products from CSV or newline-delimited JSON
+     * Admin API - Requires authentication
+     * 
+     * Rows are inserted in batches as the body is read; invalid rows are reported and skipped.
+     * 
+     * @param contentType text/csv (header row of product field names) or application/x-ndjson
+     * @return array of row errors and progress entries, ending with the import summary
+     */
+    @PostMapping(value = "/admin/import",
+            consumes = {ProductImportService.TEXT_CSV, ProductImportService.APPLICATION_NDJSON})
+    @AdminOnly
+    public ResponseEntity<StreamingResponseBody> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request) throws IOException {
+        ProductImportService.Format format = ProductImportService.Format.fromContentType(contentType);
+        log.info("Admin: Importing products from {}", format);
+        // Read by the streaming task after this method returns
+        InputStream body = request.getInputStream();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonStreaming.array(wireFormatMappers.forFormat(WireFormat.JSON),
+                        sink -> productImportService.importProducts(body, format, sink)));
     }
 
     /**
@@ -137,6 +504,61 @@ public class ProductController {
         }
     }
 
+    /**
+     * Admin only - Partially update a product with a JSON Merge Patch (RFC 7396)
+     * Admin API - Requires authentication
+     * 
+     * Only the members present in the patch change; null clears an optional field. Sending
+     * imageUrls keeps images whose URL is unchanged and only adds, removes or reorders the rest.
+     * 
+     * @param id product ID
+     * @param patch members to change, e.g. {"sellingPrice": 449.00, "tags": ["honey", "raw"]}
+     * @return updated product
+     */
+    @PatchMapping(value = "/admin/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @AdminOnly
+    public ResponseEntity<?> patchProduct(
+            @PathVariable Long id,
+            @RequestBody JsonNode patch) {
+        log.info("Admin: Patching product with ID: {}", id);
+
+        try {
+            Optional<ProductResponse> updatedProduct = productService.patchProduct(id, patch);
+
+            if (updatedProduct.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("Product not found with ID: " + id);
+            }
+
+            return ResponseEntity.ok(updatedProduct.get());
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
+
+    /**
+     * Admin only - Apply one change to every product matching a filter
+     * Admin API - Requires authentication
+     * 
+     * @param request action (ADJUST_SELLING_PRICE with percent, ACTIVATE, DEACTIVATE, FEATURE,
+     *                UNFEATURE), optional categoryId/brand/isActive/isFeatured filter and dryRun
+     * @return number of products matched and updated
+     */
+    @PostMapping("/admin/bulk")
+    @AdminOnly
+    public ResponseEntity<?> bulkUpdateProducts(@Valid @RequestBody BulkProductUpdateRequest request) {
+        log.info("Admin: Bulk product update: {}", request);
+
+        try {
+            return ResponseEntity.ok(productBulkService.update(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        }
+    }
+
     /**
      * Admin only - Delete product
      * Admin API - Requires authentication
@@ -158,5 +580,28 @@ public class ProductController {
         
         return ResponseEntity.ok("Product deleted successfully");
     }
-}
 
+    private ResponseEntity<?> search(String q, Long categoryId, Boolean active, Integer page, Integer size,
+                                     String fields) {
+        try {
+            ProductSearchResponse results = productSearchService.search(q, categoryId, active, page, size);
+            return ResponseEntity.ok(SparseFields.select(results, fields));
+            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(e.getMessage());
+        }
+    }
+
+    /**
+     * 304 response; ETag and Last-Modified were already set by the validator check
+     */
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .cacheControl(HttpCaching.PUBLIC_CATALOG)
+                .build();
+    }
+}
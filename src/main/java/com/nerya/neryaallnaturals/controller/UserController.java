@@ -1,23 +1,26 @@
 package com.nerya.neryaallnaturals.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nerya.neryaallnaturals.annotation.AdminOnly;
 import com.nerya.neryaallnaturals.annotation.AdminOrUser;
 import com.nerya.neryaallnaturals.dto.UserRequest;
 import com.nerya.neryaallnaturals.dto.UserResponse;
 import com.nerya.neryaallnaturals.entity.User;
 import com.nerya.neryaallnaturals.repository.UserRepository;
+import com.nerya.neryaallnaturals.service.UserService;
+import com.nerya.neryaallnaturals.util.JsonStreaming;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashSet;
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
@@ -27,6 +30,8 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Create a new user
@@ -73,19 +78,18 @@ public class UserController {
     }
 
     /**
-     * Get all users
+     * Get all users, streamed from a database cursor
      * Only ADMIN can view all users
      *
-     * @return list of all users
+     * @return JSON array of all users
      */
     @GetMapping
     @AdminOnly
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
+    public ResponseEntity<StreamingResponseBody> getAllUsers() {
         log.info("Fetching all users");
-        List<UserResponse> users = userRepository.findAll().stream()
-                .map(UserResponse::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(users);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonStreaming.array(objectMapper, userService::streamAllUsers));
     }
 
     /**
@@ -0,0 +1,44 @@
+package com.nerya.neryaallnaturals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a multi-get: the found items in request order plus the IDs that matched nothing
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchLookupResponse<T> {
+
+    private List<T> items;
+    private List<Long> missingIds;
+
+    /**
+     * Arrange the found items in the order of the requested IDs, each ID once
+     */
+    public static <T> BatchLookupResponse<T> ordered(List<Long> ids, Map<Long, T> found) {
+        List<T> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            T item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return BatchLookupResponse.<T>builder()
+                .items(items)
+                .missingIds(missingIds)
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.nerya.neryaallnaturals.dto;
+
+/**
+ * Set-based change applied to every product matching a bulk update filter
+ */
+public enum BulkProductAction {
+    /**
+     * Multiply the selling price by (1 + percent / 100), rounded to two decimals
+     */
+    ADJUST_SELLING_PRICE,
+    ACTIVATE,
+    DEACTIVATE,
+    FEATURE,
+    UNFEATURE
+}
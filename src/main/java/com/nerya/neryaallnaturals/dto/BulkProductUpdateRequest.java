@@ -0,0 +1,45 @@
+package com.nerya.neryaallnaturals.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Filter plus action of a bulk product update. Unset filter fields do not restrict, so an
+ * empty filter targets every product.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkProductUpdateRequest {
+
+    @NotNull(message = "Action is required")
+    private BulkProductAction action;
+
+    /**
+     * Price change for {@link BulkProductAction#ADJUST_SELLING_PRICE}, e.g. 5 or -10
+     */
+    @DecimalMin(value = "-99")
+    @DecimalMax(value = "1000")
+    private BigDecimal percent;
+
+    private Long categoryId;
+
+    private String brand;
+
+    private Boolean isActive;
+
+    private Boolean isFeatured;
+
+    /**
+     * Only count the products that would change
+     */
+    private boolean dryRun;
+}
@@ -0,0 +1,28 @@
+package com.nerya.neryaallnaturals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkProductUpdateResponse {
+
+    private BulkProductAction action;
+    private boolean dryRun;
+
+    /**
+     * Products matching the filter that the action would change
+     */
+    private long matched;
+
+    /**
+     * Products actually updated; 0 for a dry run
+     */
+    private long updated;
+
+    private long durationMs;
+}
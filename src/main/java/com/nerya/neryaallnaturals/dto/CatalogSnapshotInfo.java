@@ -0,0 +1,21 @@
+package com.nerya.neryaallnaturals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogSnapshotInfo {
+
+    private boolean ready;
+    private Long version;
+    private LocalDateTime builtAt;
+    private Integer productCount;
+    private Integer categoryCount;
+}
@@ -1,6 +1,7 @@
 package com.nerya.neryaallnaturals.dto;
 
 import com.nerya.neryaallnaturals.entity.Category;
+import com.nerya.neryaallnaturals.repository.CategoryRow;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -41,5 +42,19 @@ public class CategoryResponse {
 
         return builder.build();
     }
+
+    public static CategoryResponse fromRow(CategoryRow row) {
+        return CategoryResponse.builder()
+                .id(row.id())
+                .name(row.name())
+                .description(row.description())
+                .imageUrl(row.imageUrl())
+                .isActive(row.isActive())
+                .parentId(row.parentId())
+                .parentName(row.parentName())
+                .createdAt(row.createdAt())
+                .updatedAt(row.updatedAt())
+                .build();
+    }
 }
 
@@ -0,0 +1,26 @@
+package com.nerya.neryaallnaturals.dto;
+
+import com.nerya.neryaallnaturals.search.FacetIndex;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetValueCount {
+
+    private String value; // what to pass back as a filter parameter
+    private String label;
+    private int count;
+
+    public static FacetValueCount fromValueCount(FacetIndex.ValueCount valueCount) {
+        return FacetValueCount.builder()
+                .value(valueCount.value())
+                .label(valueCount.label())
+                .count(valueCount.count())
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.nerya.neryaallnaturals.dto;
+
+import com.nerya.neryaallnaturals.stock.HotStockCounter;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HotStockResponse {
+
+    private Long productId;
+
+    /**
+     * Leased units not yet reserved
+     */
+    private Long leasedAvailable;
+
+    /**
+     * Units reserved through the counter since it was created
+     */
+    private Long reserved;
+
+    /**
+     * Turned on by an admin rather than by observed contention; never cooled automatically
+     */
+    private Boolean pinned;
+
+    private Instant since;
+
+    public static HotStockResponse fromCounter(HotStockCounter counter) {
+        return HotStockResponse.builder()
+                .productId(counter.getProductId())
+                .leasedAvailable(counter.available())
+                .reserved(counter.getTaken())
+                .pinned(counter.isPinned())
+                .since(counter.getSince())
+                .build();
+    }
+}
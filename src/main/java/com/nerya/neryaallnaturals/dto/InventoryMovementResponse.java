@@ -0,0 +1,39 @@
+package com.nerya.neryaallnaturals.dto;
+
+import com.nerya.neryaallnaturals.entity.InventoryMovement;
+import com.nerya.neryaallnaturals.entity.InventoryMovementReason;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryMovementResponse {
+
+    private Long id;
+    private Long productId;
+    private InventoryMovementReason reason;
+    private String actor;
+    private Integer deltaOnHand;
+    private Integer deltaReserved;
+    private Integer deltaSold;
+    private LocalDateTime occurredAt;
+
+    public static InventoryMovementResponse fromEntity(InventoryMovement movement) {
+        return InventoryMovementResponse.builder()
+                .id(movement.getId())
+                .productId(movement.getProductId())
+                .reason(movement.getReason())
+                .actor(movement.getActor())
+                .deltaOnHand(movement.getDeltaOnHand())
+                .deltaReserved(movement.getDeltaReserved())
+                .deltaSold(movement.getDeltaSold())
+                .occurredAt(movement.getOccurredAt())
+                .build();
+    }
+}
@@ -35,4 +35,9 @@ public class InventoryRequest {
     private Integer reorderQuantity = 50;
 
     private String lastUpdatedBy;
+
+    /**
+     * Version of the record the edit is based on; a mismatch rejects the update
+     */
+    private Long version;
 }
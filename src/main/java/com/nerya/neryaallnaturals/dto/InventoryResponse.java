@@ -1,6 +1,8 @@
 package com.nerya.neryaallnaturals.dto;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.nerya.neryaallnaturals.entity.Inventory;
+import com.nerya.neryaallnaturals.repository.InventoryRow;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,6 +14,9 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonPropertyOrder({"id", "productId", "productName", "productSku", "quantityOnHand",
+        "quantityReserved", "quantitySold", "availableQuantity", "minStockLevel", "maxStockLevel",
+        "reorderQuantity", "isLowStock", "lastUpdatedBy", "version", "createdAt", "updatedAt"})
 public class InventoryResponse {
 
     private Long id;
@@ -27,6 +32,7 @@ public class InventoryResponse {
     private Integer reorderQuantity;
     private Boolean isLowStock;
     private String lastUpdatedBy;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -42,6 +48,7 @@ public class InventoryResponse {
                 .reorderQuantity(inventory.getReorderQuantity())
                 .isLowStock(inventory.isLowStock())
                 .lastUpdatedBy(inventory.getLastUpdatedBy())
+                .version(inventory.getVersion())
                 .createdAt(inventory.getCreatedAt())
                 .updatedAt(inventory.getUpdatedAt());
 
@@ -54,4 +61,25 @@ public class InventoryResponse {
 
         return builder.build();
     }
+
+    public static InventoryResponse fromRow(InventoryRow row) {
+        return InventoryResponse.builder()
+                .id(row.id())
+                .productId(row.productId())
+                .productName(row.productName())
+                .productSku(row.productSku())
+                .quantityOnHand(row.quantityOnHand())
+                .quantityReserved(row.quantityReserved())
+                .quantitySold(row.quantitySold())
+                .availableQuantity(row.availableQuantity())
+                .minStockLevel(row.minStockLevel())
+                .maxStockLevel(row.maxStockLevel())
+                .reorderQuantity(row.reorderQuantity())
+                .isLowStock(row.isLowStock())
+                .lastUpdatedBy(row.lastUpdatedBy())
+                .version(row.version())
+                .createdAt(row.createdAt())
+                .updatedAt(row.updatedAt())
+                .build();
+    }
 }
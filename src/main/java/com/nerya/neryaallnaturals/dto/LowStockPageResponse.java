@@ -0,0 +1,24 @@
+package com.nerya.neryaallnaturals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the low-stock products, largest shortfall first
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LowStockPageResponse {
+
+    private List<LowStockResponse> items;
+    private int page;
+    private int size;
+    private long total;
+    private boolean hasMore;
+}
@@ -0,0 +1,43 @@
+package com.nerya.neryaallnaturals.dto;
+
+import com.nerya.neryaallnaturals.repository.InventoryRow;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Inventory record whose quantity on hand is at or below its minimum stock level
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LowStockResponse {
+
+    private Long id;
+    private Long productId;
+    private String productName;
+    private String productSku;
+    private Integer quantityOnHand;
+    private Integer minStockLevel;
+    private Integer reorderQuantity;
+
+    /**
+     * Units missing to reach the minimum stock level; 0 when exactly at it
+     */
+    private Integer shortfall;
+
+    public static LowStockResponse fromRow(InventoryRow row) {
+        return LowStockResponse.builder()
+                .id(row.id())
+                .productId(row.productId())
+                .productName(row.productName())
+                .productSku(row.productSku())
+                .quantityOnHand(row.quantityOnHand())
+                .minStockLevel(row.minStockLevel())
+                .reorderQuantity(row.reorderQuantity())
+                .shortfall(row.minStockLevel() - row.quantityOnHand())
+                .build();
+    }
+}
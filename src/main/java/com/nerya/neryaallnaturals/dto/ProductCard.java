@@ -0,0 +1,56 @@
+package com.nerya.neryaallnaturals.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.nerya.neryaallnaturals.util.SparseFields;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Compact product representation for listing pages: what a product tile shows and nothing
+ * else. The database path selects it directly with a constructor expression (see
+ * {@code ProductRepositoryCustom#findCardPage}), so no entity, image or tag is loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonFilter(SparseFields.FILTER_ID)
+@JsonPropertyOrder({"id", "name", "brand", "price", "sellingPrice", "discountPercentage",
+        "averageRating", "totalReviews", "inStock", "primaryImageUrl", "createdAt"})
+public class ProductCard {
+
+    // Field order is the constructor order used by the JPQL projection
+    private Long id;
+    private String name;
+    private String brand;
+    private BigDecimal price;
+    private BigDecimal sellingPrice;
+    private Integer discountPercentage;
+    private BigDecimal averageRating;
+    private Integer totalReviews;
+    private Boolean inStock;
+    private String primaryImageUrl;
+    private LocalDateTime createdAt;
+
+    public static ProductCard fromResponse(ProductResponse product) {
+        return ProductCard.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .brand(product.getBrand())
+                .price(product.getPrice())
+                .sellingPrice(product.getSellingPrice())
+                .discountPercentage(product.getDiscountPercentage())
+                .averageRating(product.getAverageRating())
+                .totalReviews(product.getTotalReviews())
+                .inStock(product.getInStock())
+                .primaryImageUrl(product.getPrimaryImageUrl())
+                .createdAt(product.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.nerya.neryaallnaturals.dto;
+
+import com.nerya.neryaallnaturals.search.FacetIndex;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Facet selection bound from query parameters. Repeated values of one facet are ORed,
+ * different facets are ANDed; unset facets do not restrict.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFilterRequest {
+
+    private List<Long> categoryId;
+    private List<String> brand;
+    private List<String> tag;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer minDiscount;
+    private BigDecimal minRating;
+    private Boolean inStock;
+    private Boolean featured;
+
+    public FacetIndex.Filter toFilter() {
+        return new FacetIndex.Filter(categoryId, brand, tag, minPrice, maxPrice, minDiscount, minRating,
+                inStock, featured);
+    }
+}
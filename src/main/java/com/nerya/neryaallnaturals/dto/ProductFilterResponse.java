@@ -0,0 +1,26 @@
+package com.nerya.neryaallnaturals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of filtered products with the counts of every facet value
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFilterResponse {
+
+    private List<ProductResponse> items;
+    private int page;
+    private int size;
+    private long totalHits;
+    private boolean hasMore;
+    private Map<String, List<FacetValueCount>> facets;
+}
@@ -1,6 +1,8 @@
 package com.nerya.neryaallnaturals.dto;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.nerya.neryaallnaturals.entity.ProductImage;
+import com.nerya.neryaallnaturals.repository.ProductImageRow;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,6 +14,8 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonPropertyOrder({"id", "imageUrl", "altText", "isPrimary", "displayOrder", "createdAt",
+        "updatedAt"})
 public class ProductImageResponse {
 
     private Long id;
@@ -33,5 +37,17 @@ public class ProductImageResponse {
                 .updatedAt(image.getUpdatedAt())
                 .build();
     }
+
+    public static ProductImageResponse fromRow(ProductImageRow row) {
+        return ProductImageResponse.builder()
+                .id(row.id())
+                .imageUrl(row.imageUrl())
+                .altText(row.altText())
+                .isPrimary(row.isPrimary())
+                .displayOrder(row.displayOrder())
+                .createdAt(row.createdAt())
+                .updatedAt(row.updatedAt())
+                .build();
+    }
 }
 
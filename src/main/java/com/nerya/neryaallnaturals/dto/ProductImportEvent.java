@@ -0,0 +1,57 @@
+package com.nerya.neryaallnaturals.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of the streamed bulk import report: a rejected row, the running totals after
+ * a committed batch, or the final totals
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductImportEvent {
+
+    public enum Type {
+        ERROR,
+        PROGRESS,
+        SUMMARY
+    }
+
+    private Type type;
+
+    // ERROR: where the row starts in the input and why it was rejected
+    private Long line;
+    private String sku;
+    private String message;
+
+    // PROGRESS and SUMMARY: running totals
+    private Long processed;
+    private Long imported;
+    private Long failed;
+    private Long durationMs;
+
+    public static ProductImportEvent error(long line, String sku, String message) {
+        return ProductImportEvent.builder()
+                .type(Type.ERROR)
+                .line(line)
+                .sku(sku)
+                .message(message)
+                .build();
+    }
+
+    public static ProductImportEvent totals(Type type, long processed, long imported, long failed, long durationMs) {
+        return ProductImportEvent.builder()
+                .type(type)
+                .processed(processed)
+                .imported(imported)
+                .failed(failed)
+                .durationMs(durationMs)
+                .build();
+    }
+}
@@ -1,5 +1,7 @@
 package com.nerya.neryaallnaturals.dto;
 
+import com.nerya.neryaallnaturals.entity.Product;
+import com.nerya.neryaallnaturals.entity.ProductImage;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,6 +9,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -24,6 +28,7 @@ public class ProductRequest {
     @Size(max = 100)
     private String sku;
 
+    @Size(max = 2000)
     private String shortDescription;
 
     private String longDescription;
@@ -40,10 +45,16 @@ public class ProductRequest {
     @Max(100)
     private Integer discountPercentage;
 
+    @Size(max = 100)
     private String brand;
 
+    @Size(max = 50)
     private String weight;
 
+    /**
+     * Stock fields seed a new product; once it has an inventory record they are derived
+     * from inventory and ignored on update
+     */
     private Boolean inStock = true;
 
     @Min(0)
@@ -59,14 +70,46 @@ public class ProductRequest {
     @NotNull(message = "Category ID is required")
     private Long categoryId;
 
-    private Set<String> tags;
+    private Set<@Size(max = 255) String> tags;
 
+    @Size(max = 255)
     private String metaTitle;
 
     private String metaDescription;
 
-    private List<String> imageUrls;
+    private List<@NotBlank @Size(max = 500) String> imageUrls;
 
     private Boolean isPrimaryImage;
-}
 
+    /**
+     * Current state of a product as a request, the base a merge patch is applied to
+     */
+    public static ProductRequest fromEntity(Product product) {
+        List<ProductImage> images = product.getImages().stream()
+                .sorted(Comparator.comparing(ProductImage::getDisplayOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(ProductImage::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        return ProductRequest.builder()
+                .name(product.getName())
+                .sku(product.getSku())
+                .shortDescription(product.getShortDescription())
+                .longDescription(product.getLongDescription())
+                .price(product.getPrice())
+                .sellingPrice(product.getSellingPrice())
+                .discountPercentage(product.getDiscountPercentage())
+                .brand(product.getBrand())
+                .weight(product.getWeight())
+                .inStock(product.getInStock())
+                .quantity(product.getQuantity())
+                .minQuantity(product.getMinQuantity())
+                .isActive(product.getIsActive())
+                .isFeatured(product.getIsFeatured())
+                .categoryId(product.getCategory().getId())
+                .tags(product.getTags() != null ? new HashSet<>(product.getTags()) : null)
+                .metaTitle(product.getMetaTitle())
+                .metaDescription(product.getMetaDescription())
+                .imageUrls(images.isEmpty() ? null : images.stream().map(ProductImage::getImageUrl).toList())
+                .isPrimaryImage(images.isEmpty() ? null : Boolean.TRUE.equals(images.get(0).getIsPrimary()))
+                .build();
+    }
+}
@@ -1,7 +1,12 @@
 package com.nerya.neryaallnaturals.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.nerya.neryaallnaturals.entity.Product;
 import com.nerya.neryaallnaturals.entity.ProductImage;
+import com.nerya.neryaallnaturals.repository.ProductImageRow;
+import com.nerya.neryaallnaturals.repository.ProductRow;
+import com.nerya.neryaallnaturals.util.SparseFields;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,6 +14,7 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -16,7 +22,13 @@ import java.util.stream.Collectors;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
+@JsonFilter(SparseFields.FILTER_ID)
+@JsonPropertyOrder({"id", "name", "sku", "shortDescription", "longDescription", "price",
+        "sellingPrice", "discountPercentage", "brand", "weight", "inStock", "quantity",
+        "minQuantity", "isActive", "isFeatured", "averageRating", "totalReviews", "tags",
+        "metaTitle", "metaDescription", "createdAt", "updatedAt", "categoryId", "categoryName",
+        "images", "primaryImageUrl"})
 public class ProductResponse {
 
     private Long id;
@@ -69,7 +81,7 @@ public class ProductResponse {
                 .isFeatured(product.getIsFeatured())
                 .averageRating(product.getAverageRating())
                 .totalReviews(product.getTotalReviews())
-                .tags(product.getTags())
+                .tags(product.getTags() != null ? new HashSet<>(product.getTags()) : null)
                 .metaTitle(product.getMetaTitle())
                 .metaDescription(product.getMetaDescription())
                 .createdAt(product.getCreatedAt())
@@ -99,5 +111,48 @@ public class ProductResponse {
 
         return builder.build();
     }
+
+    public static ProductResponse fromRow(ProductRow row) {
+        ProductResponse.ProductResponseBuilder builder = ProductResponse.builder()
+                .id(row.id())
+                .name(row.name())
+                .sku(row.sku())
+                .shortDescription(row.shortDescription())
+                .longDescription(row.longDescription())
+                .price(row.price())
+                .sellingPrice(row.sellingPrice())
+                .discountPercentage(row.discountPercentage())
+                .brand(row.brand())
+                .weight(row.weight())
+                .inStock(row.inStock())
+                .quantity(row.quantity())
+                .minQuantity(row.minQuantity())
+                .isActive(row.isActive())
+                .isFeatured(row.isFeatured())
+                .averageRating(row.averageRating())
+                .totalReviews(row.totalReviews())
+                .tags(new HashSet<>(row.tags()))
+                .metaTitle(row.metaTitle())
+                .metaDescription(row.metaDescription())
+                .createdAt(row.createdAt())
+                .updatedAt(row.updatedAt())
+                .categoryId(row.categoryId())
+                .categoryName(row.categoryName());
+
+        if (!row.images().isEmpty()) {
+            builder.images(row.images().stream()
+                    .map(ProductImageResponse::fromRow)
+                    .collect(Collectors.toList()));
+
+            String primaryUrl = row.images().stream()
+                    .filter(image -> Boolean.TRUE.equals(image.isPrimary()))
+                    .findFirst()
+                    .map(ProductImageRow::imageUrl)
+                    .orElse(row.images().get(0).imageUrl());
+            builder.primaryImageUrl(primaryUrl);
+        }
+
+        return builder.build();
+    }
 }
 
@@ -0,0 +1,140 @@
+package com.nerya.neryaallnaturals.dto;
+
+import java.math.BigDecimal;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Sort orders supported by the paginated product listings.
+ * Every order is made total by using the product ID as tie-breaker,
+ * which is what allows keyset (cursor) pagination over it.
+ */
+public enum ProductSort {
+
+    NEWEST("createdAt", false),
+    NAME("name", true),
+    PRICE_LOW_TO_HIGH("sellingPrice", true),
+    PRICE_HIGH_TO_LOW("sellingPrice", false);
+
+    /**
+     * Name order of the database collation (utf8mb4_0900_ai_ci): Unicode collation at
+     * primary strength, so case and accents are ignored. In-memory pages and database
+     * pages must order names identically, or a cursor issued by one would skip or repeat
+     * rows on the other.
+     *
+     * One collator per thread, since {@code Collator.compare} is synchronized and sorts and
+     * cursor searches run on many threads at once.
+     */
+    private static final ThreadLocal<Collator> NAME_COLLATOR = ThreadLocal.withInitial(ProductSort::nameCollator);
+
+    private final String property;
+    private final boolean ascending;
+
+    ProductSort(String property, boolean ascending) {
+        this.property = property;
+        this.ascending = ascending;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Extract the sort key of this order from a product response
+     */
+    public Object keyOf(ProductResponse product) {
+        return switch (this) {
+            case NEWEST -> product.getCreatedAt();
+            case NAME -> product.getName();
+            case PRICE_LOW_TO_HIGH, PRICE_HIGH_TO_LOW -> product.getSellingPrice();
+        };
+    }
+
+    /**
+     * Extract the sort key of this order from a product card
+     */
+    public Object keyOf(ProductCard product) {
+        return switch (this) {
+            case NEWEST -> product.getCreatedAt();
+            case NAME -> product.getName();
+            case PRICE_LOW_TO_HIGH, PRICE_HIGH_TO_LOW -> product.getSellingPrice();
+        };
+    }
+
+    /**
+     * Collation key of a name in the {@link #NAME} order. Keys compare bytewise without a
+     * collator, so callers that compare a name many times compute its key once.
+     */
+    public static CollationKey nameKey(String name) {
+        return NAME_COLLATOR.get().getCollationKey(name);
+    }
+
+    /**
+     * Compare two (sort key, id) positions in the direction of this order.
+     * Names compare like the database collation, ignoring case and accents; name keys may
+     * be given as strings or as {@link #nameKey collation keys}.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public int compare(Object leftKey, Long leftId, Object rightKey, Long rightId) {
+        int result = this == NAME
+                ? compareNames(leftKey, rightKey)
+                : ((Comparable) leftKey).compareTo(rightKey);
+        if (result == 0) {
+            result = leftId.compareTo(rightId);
+        }
+        return ascending ? result : -result;
+    }
+
+    /**
+     * Total order over product responses, matching the database ordering of this sort
+     */
+    public Comparator<ProductResponse> comparator() {
+        return (left, right) -> compare(keyOf(left), left.getId(), keyOf(right), right.getId());
+    }
+
+    /**
+     * Render a sort key as text for use inside a cursor
+     */
+    public String formatKey(Object key) {
+        if (key instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return key.toString();
+    }
+
+    /**
+     * Parse a sort key previously rendered with {@link #formatKey(Object)}
+     */
+    public Object parseKey(String raw) {
+        return switch (this) {
+            case NEWEST -> LocalDateTime.parse(raw);
+            case NAME -> raw;
+            case PRICE_LOW_TO_HIGH, PRICE_HIGH_TO_LOW -> new BigDecimal(raw);
+        };
+    }
+
+    private static int compareNames(Object left, Object right) {
+        if (left instanceof CollationKey leftKey && right instanceof CollationKey rightKey) {
+            return leftKey.compareTo(rightKey);
+        }
+        return NAME_COLLATOR.get().compare(nameOf(left), nameOf(right));
+    }
+
+    private static String nameOf(Object key) {
+        return key instanceof CollationKey collationKey ? collationKey.getSourceString() : (String) key;
+    }
+
+    private static Collator nameCollator() {
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.PRIMARY);
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        return collator;
+    }
+}
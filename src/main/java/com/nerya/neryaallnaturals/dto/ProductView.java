@@ -0,0 +1,15 @@
+package com.nerya.neryaallnaturals.dto;
+
+/**
+ * Representation returned by the product listings
+ */
+public enum ProductView {
+    /**
+     * Every product field, images and tags included
+     */
+    FULL,
+    /**
+     * {@link ProductCard}: name, prices, rating, stock flag and primary image only
+     */
+    CARD
+}
@@ -0,0 +1,26 @@
+package com.nerya.neryaallnaturals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * State of the search result cache: overall counters and the busiest queries
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchCacheStatsResponse {
+
+    private long resultsVersion;
+    private long entries;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long evictions;
+    private List<SearchQueryStats> topQueries;
+}
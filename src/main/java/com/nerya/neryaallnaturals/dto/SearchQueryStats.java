@@ -0,0 +1,31 @@
+package com.nerya.neryaallnaturals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result cache hits and misses of one normalized search query
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SearchQueryStats {
+
+    private String query;
+    private long hits;
+    private long misses;
+    private double hitRate;
+
+    public static SearchQueryStats of(String query, long hits, long misses) {
+        long requests = hits + misses;
+        return SearchQueryStats.builder()
+                .query(query)
+                .hits(hits)
+                .misses(misses)
+                .hitRate(requests == 0 ? 0 : (double) hits / requests)
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.nerya.neryaallnaturals.dto;
+
+import com.nerya.neryaallnaturals.repository.InventoryMovementRepository;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product's stock counters at a point in time, reconstructed from the movement journal
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAsOfResponse {
+
+    private Long productId;
+    private LocalDateTime asOf;
+    private Long quantityOnHand;
+    private Long quantityReserved;
+    private Long quantitySold;
+
+    /**
+     * Time of the snapshot the counters were built on, null when summed from the first movement
+     */
+    private LocalDateTime snapshotAt;
+
+    /**
+     * Movements added on top of the snapshot
+     */
+    private Long movementsApplied;
+
+    public static StockAsOfResponse of(Long productId, LocalDateTime asOf, InventoryMovementRepository.Totals totals,
+                                       LocalDateTime snapshotAt, long movementsApplied) {
+        return StockAsOfResponse.builder()
+                .productId(productId)
+                .asOf(asOf)
+                .quantityOnHand(totals.quantityOnHand())
+                .quantityReserved(totals.quantityReserved())
+                .quantitySold(totals.quantitySold())
+                .snapshotAt(snapshotAt)
+                .movementsApplied(movementsApplied)
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.nerya.neryaallnaturals.dto;
+
+/**
+ * Stock movements applied atomically by {@code InventoryService}
+ */
+public enum StockOperation {
+    /**
+     * Hold available stock for a cart or pending order
+     */
+    RESERVE,
+    /**
+     * Return reserved stock to available
+     */
+    RELEASE,
+    /**
+     * Turn reserved stock into a sale: on hand and reserved go down, sold goes up
+     */
+    COMMIT,
+    /**
+     * Add received stock to on hand
+     */
+    RESTOCK
+}
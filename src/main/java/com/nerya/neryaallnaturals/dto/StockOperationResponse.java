@@ -0,0 +1,38 @@
+package com.nerya.neryaallnaturals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockOperationResponse {
+
+    public enum Status {
+        APPLIED,
+        /**
+         * Not enough available (or reserved) stock; nothing was changed
+         */
+        INSUFFICIENT_STOCK,
+        /**
+         * The product has no inventory record
+         */
+        NOT_FOUND
+    }
+
+    private Long productId;
+    private StockOperation operation;
+    private Integer quantity;
+    private Status status;
+
+    public static StockOperationResponse of(StockOperation operation, Long productId, int quantity, Status status) {
+        return new StockOperationResponse(productId, operation, quantity, status);
+    }
+
+    public boolean isApplied() {
+        return status == Status.APPLIED;
+    }
+}
@@ -0,0 +1,27 @@
+package com.nerya.neryaallnaturals.dto;
+
+import com.nerya.neryaallnaturals.search.Suggestion;
+import com.nerya.neryaallnaturals.search.SuggestionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SuggestionResponse {
+
+    private String text;
+    private SuggestionType type;
+    private Long productId; // set for PRODUCT and SKU suggestions
+
+    public static SuggestionResponse fromSuggestion(Suggestion suggestion) {
+        return SuggestionResponse.builder()
+                .text(suggestion.text())
+                .type(suggestion.type())
+                .productId(suggestion.productId())
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.nerya.neryaallnaturals.dto;
+
+import com.nerya.neryaallnaturals.search.TagIndex;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TagCountResponse {
+
+    private String tag;
+    private int productCount;
+
+    public static TagCountResponse fromTagCount(TagIndex.TagCount tagCount) {
+        return TagCountResponse.builder()
+                .tag(tagCount.tag())
+                .productCount(tagCount.count())
+                .build();
+    }
+}
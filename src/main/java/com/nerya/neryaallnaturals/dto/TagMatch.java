@@ -0,0 +1,15 @@
+package com.nerya.neryaallnaturals.dto;
+
+/**
+ * How several requested tags combine
+ */
+public enum TagMatch {
+    /**
+     * Products carrying every tag
+     */
+    ALL,
+    /**
+     * Products carrying at least one of the tags
+     */
+    ANY
+}
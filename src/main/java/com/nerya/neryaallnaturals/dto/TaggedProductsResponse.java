@@ -0,0 +1,26 @@
+package com.nerya.neryaallnaturals.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the products carrying the requested tags
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaggedProductsResponse {
+
+    private List<String> tags;
+    private TagMatch match;
+    private List<ProductResponse> items;
+    private int page;
+    private int size;
+    private long totalHits;
+    private boolean hasMore;
+}
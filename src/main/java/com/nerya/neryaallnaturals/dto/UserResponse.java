@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.Set;
 
 @Data
@@ -39,7 +40,7 @@ public class UserResponse {
                 .isActive(user.getIsActive())
                 .isEmailVerified(user.getIsEmailVerified())
                 .lastLogin(user.getLastLogin())
-                .roles(user.getRoles())
+                .roles(user.getRoles() != null ? new HashSet<>(user.getRoles()) : null)
                 .createdAt(user.getCreatedAt())
                 .updatedAt(user.getUpdatedAt())
                 .build();
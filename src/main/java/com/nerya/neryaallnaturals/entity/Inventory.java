@@ -37,6 +37,18 @@ public class Inventory extends BaseEntity {
     @Column(name = "last_updated_by")
     private String lastUpdatedBy; // User or admin who last updated
 
+    // Units handed to the in-memory counter of a product in hot stock mode and not available to
+    // database reservations. Only written by HotStockRepository, never through the entity.
+    @Column(name = "quantity_leased", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "INT NOT NULL DEFAULT 0")
+    @Builder.Default
+    private Integer quantityLeased = 0;
+
+    // Bumped by every write, including the conditional stock updates in InventoryRepository
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
     public Integer getAvailableQuantity() {
         return quantityOnHand - quantityReserved;
     }
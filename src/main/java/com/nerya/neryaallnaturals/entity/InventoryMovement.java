@@ -0,0 +1,50 @@
+package com.nerya.neryaallnaturals.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One change of a product's stock counters. Rows are only ever appended, in the transaction
+ * of the change, by {@code InventoryMovementService}; the entity only defines the table.
+ */
+@Entity
+@Table(name = "inventory_movements", indexes = {
+    // Range queries: per product, and across all products, in time order
+    @Index(name = "idx_inventory_movements_product_time", columnList = "product_id, occurred_at, id"),
+    @Index(name = "idx_inventory_movements_time", columnList = "occurred_at, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reason", nullable = false, length = 32)
+    private InventoryMovementReason reason;
+
+    @Column(name = "actor", nullable = false, length = 100)
+    private String actor;
+
+    @Column(name = "delta_on_hand", nullable = false)
+    private Integer deltaOnHand;
+
+    @Column(name = "delta_reserved", nullable = false)
+    private Integer deltaReserved;
+
+    @Column(name = "delta_sold", nullable = false)
+    private Integer deltaSold;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
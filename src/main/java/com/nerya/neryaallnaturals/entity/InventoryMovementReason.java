@@ -0,0 +1,25 @@
+package com.nerya.neryaallnaturals.entity;
+
+/**
+ * Why an inventory movement happened
+ */
+public enum InventoryMovementReason {
+    /**
+     * Counters of a record that existed before movements were journaled
+     */
+    OPENING_BALANCE,
+    CREATE,
+    /**
+     * Admin edit of the counters
+     */
+    ADJUST,
+    DELETE,
+    RESERVE,
+    RELEASE,
+    COMMIT,
+    RESTOCK,
+    /**
+     * Reservations of a product in hot stock mode, folded in from the stock journal
+     */
+    HOT_RESERVE
+}
@@ -0,0 +1,44 @@
+package com.nerya.neryaallnaturals.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product's stock counters as the sum of all its movements up to {@code takenAt}.
+ * Written periodically by {@code InventoryMovementService} so that stock at a point in
+ * time is a snapshot plus the movements after it, never a replay from the start.
+ */
+@Entity
+@Table(name = "inventory_snapshots", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_inventory_snapshots_product_taken", columnNames = {"product_id", "taken_at"})
+}, indexes = {
+    @Index(name = "idx_inventory_snapshots_taken", columnList = "taken_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventorySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity_on_hand", nullable = false)
+    private Long quantityOnHand;
+
+    @Column(name = "quantity_reserved", nullable = false)
+    private Long quantityReserved;
+
+    @Column(name = "quantity_sold", nullable = false)
+    private Long quantitySold;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
@@ -3,6 +3,8 @@ package com.nerya.neryaallnaturals.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -11,7 +13,16 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    // Keyset pagination: (filter columns, sort key, id) for every ProductSort order
+    @Index(name = "idx_products_active_created", columnList = "is_active, created_at, id"),
+    @Index(name = "idx_products_active_name", columnList = "is_active, name, id"),
+    @Index(name = "idx_products_active_price", columnList = "is_active, selling_price, id"),
+    @Index(name = "idx_products_category_active_created", columnList = "category_id, is_active, created_at, id")
+})
+@NamedEntityGraph(name = Product.GRAPH_SUMMARY, attributeNodes = @NamedAttributeNode("category"))
+// Admin edits change a few columns at a time; write only those
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,6 +30,8 @@ import java.util.Set;
 @Builder
 public class Product extends BaseEntity {
 
+    public static final String GRAPH_SUMMARY = "Product.summary";
+
     @NotBlank(message = "Product name is required")
     @Size(max = 200)
     @Column(name = "name", nullable = false)
@@ -91,7 +104,10 @@ public class Product extends BaseEntity {
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
 
+    // Batch size matches ProductService.MAX_PAGE_SIZE so a whole page loads in one query
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
+    @OrderBy("displayOrder ASC, id ASC")
     @Builder.Default
     private List<ProductImage> images = new ArrayList<>();
 
@@ -99,9 +115,10 @@ public class Product extends BaseEntity {
     @Builder.Default
     private List<ProductReview> reviews = new ArrayList<>();
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection
     @CollectionTable(name = "product_tags", joinColumns = @JoinColumn(name = "product_id"))
     @Column(name = "tag")
+    @BatchSize(size = 100)
     @Builder.Default
     private Set<String> tags = new HashSet<>();
 
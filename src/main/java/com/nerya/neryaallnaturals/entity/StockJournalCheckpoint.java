@@ -0,0 +1,27 @@
+package com.nerya.neryaallnaturals.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Sequence of the last hot stock journal record folded into the inventory table. Written
+ * in the same transaction as the fold, so a replay after a crash skips exactly the records
+ * already applied.
+ */
+@Entity
+@Table(name = "stock_journal_checkpoint")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockJournalCheckpoint {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+}
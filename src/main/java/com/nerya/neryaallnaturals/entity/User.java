@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -15,6 +16,8 @@ import java.util.Set;
     @UniqueConstraint(columnNames = "email"),
     @UniqueConstraint(columnNames = "username")
 })
+// Bare user rows for bulk reads: roles stay lazy and are batch-fetched
+@NamedEntityGraph(name = User.GRAPH_LISTING)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,6 +25,8 @@ import java.util.Set;
 @Builder
 public class User extends BaseEntity {
 
+    public static final String GRAPH_LISTING = "User.listing";
+
     @NotBlank(message = "Username is required")
     @Size(min = 3, max = 50)
     @Column(name = "username", nullable = false, unique = true)
@@ -64,6 +69,7 @@ public class User extends BaseEntity {
     private LocalDateTime lastLogin;
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
     @Enumerated(EnumType.STRING)
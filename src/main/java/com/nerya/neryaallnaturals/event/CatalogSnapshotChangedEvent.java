@@ -0,0 +1,20 @@
+package com.nerya.neryaallnaturals.event;
+
+import java.util.Set;
+
+/**
+ * Published by the catalog snapshot service after a new snapshot was swapped in.
+ *
+ * @param version version of the new snapshot
+ * @param productIds products that changed, or an empty set after a full rebuild
+ *                   (where anything may have changed)
+ * @param stockOnly the new snapshot only replaced the products with copies whose
+ *                  quantity, minimum quantity and update time changed; their order, the
+ *                  in-stock flags and every other field are as they were
+ */
+public record CatalogSnapshotChangedEvent(long version, Set<Long> productIds, boolean stockOnly) {
+
+    public boolean isFullRebuild() {
+        return productIds.isEmpty();
+    }
+}
@@ -0,0 +1,9 @@
+package com.nerya.neryaallnaturals.event;
+
+/**
+ * Published by write paths after a category was created, changed or deleted.
+ *
+ * @param categoryId ID of the affected category
+ */
+public record CategoryChangedEvent(Long categoryId) {
+}
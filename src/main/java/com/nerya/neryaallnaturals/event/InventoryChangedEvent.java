@@ -0,0 +1,22 @@
+package com.nerya.neryaallnaturals.event;
+
+import java.util.Set;
+
+/**
+ * Published by write paths after inventory records were created, changed or deleted.
+ * Listeners should react after the publishing transaction commits.
+ *
+ * @param productIds    products whose inventory changed
+ * @param onHandChanged false when only reservations moved (reserve, release, hot stock
+ *                      folds), which leaves quantity on hand and the stock levels as they are
+ */
+public record InventoryChangedEvent(Set<Long> productIds, boolean onHandChanged) {
+
+    public static InventoryChangedEvent of(Long productId) {
+        return new InventoryChangedEvent(Set.of(productId), true);
+    }
+
+    public static InventoryChangedEvent reservations(Set<Long> productIds) {
+        return new InventoryChangedEvent(productIds, false);
+    }
+}
@@ -0,0 +1,15 @@
+package com.nerya.neryaallnaturals.event;
+
+/**
+ * Published by the low-stock index when a product's quantity on hand crosses its minimum
+ * stock level, in either direction. Not published for the records found low at startup.
+ *
+ * @param productId      product whose stock crossed the level
+ * @param lowStock       true when the product became low on stock, false when it recovered
+ *                       or its inventory record was deleted
+ * @param quantityOnHand quantity on hand after the change, null once the record is deleted
+ * @param minStockLevel  minimum stock level after the change, null once the record is deleted
+ */
+public record LowStockCrossedEvent(Long productId, boolean lowStock, Integer quantityOnHand,
+                                   Integer minStockLevel) {
+}
@@ -0,0 +1,17 @@
+package com.nerya.neryaallnaturals.event;
+
+import java.util.Set;
+
+/**
+ * Published by write paths after products were created, updated or deleted.
+ * Listeners that keep derived read models (snapshot, caches, indexes) in sync
+ * should react after the publishing transaction commits.
+ *
+ * @param productIds IDs of the affected products
+ */
+public record ProductChangedEvent(Set<Long> productIds) {
+
+    public static ProductChangedEvent of(Long productId) {
+        return new ProductChangedEvent(Set.of(productId));
+    }
+}
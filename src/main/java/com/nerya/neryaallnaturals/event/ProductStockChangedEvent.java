@@ -0,0 +1,17 @@
+package com.nerya.neryaallnaturals.event;
+
+import com.nerya.neryaallnaturals.repository.ProductStockRow;
+
+import java.util.List;
+
+/**
+ * Published by the product stock sync after it changed only the quantities of products,
+ * not whether they are in stock. Nothing but the stock fields changed, so listeners can
+ * patch copies of the products from these rows instead of reloading them as for a
+ * {@link ProductChangedEvent}. Listeners should react after the publishing transaction
+ * commits.
+ *
+ * @param products new stock columns of the affected products
+ */
+public record ProductStockChangedEvent(List<ProductStockRow> products) {
+}
@@ -0,0 +1,240 @@
+package com.nerya.neryaallnaturals.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nerya.neryaallnaturals.event.CatalogSnapshotChangedEvent;
+import com.nerya.neryaallnaturals.service.CatalogSnapshot;
+import com.nerya.neryaallnaturals.service.CatalogSnapshotService;
+import com.nerya.neryaallnaturals.util.WireFormat;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the serialized bodies of the public catalog reads, together with a gzip variant
+ * compressed once at store time. Hits are written straight to the servlet output stream,
+ * skipping the controller, DTO mapping, Jackson and per-request compression.
+ *
+ * Only responses rendered from a catalog snapshot are cached, and only if the snapshot did
+ * not change while the response was rendered. When a new snapshot is swapped in, product
+ * list entries and the detail entries of the changed products are evicted; a full rebuild
+ * evicts everything. A stock patch only evicts the detail entries of its products.
+ *
+ * The validators and Cache-Control set by the controller are stored with the body, so
+ * conditional requests that hit the cache are answered with 304 here as well. Entries are
+ * keyed by the negotiated {@link WireFormat} too, so Smile and CBOR bodies are cached next to
+ * the JSON ones.
+ */
+@Component
+@Slf4j
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final Pattern PRODUCT_DETAIL = Pattern.compile("/api/products/(\\d+)");
+    private static final Pattern PRODUCT_LIST = Pattern.compile("/api/products(/category/\\d+)?");
+    private static final Pattern CATEGORY = Pattern.compile("/api/categories(/\\d+|/parents)?");
+
+    private static final String CACHE_STATUS_HEADER = "X-Catalog-Cache";
+    private static final String GZIP = "gzip";
+
+    private enum Kind {
+        PRODUCT_LIST,
+        PRODUCT_DETAIL,
+        CATEGORY
+    }
+
+    private record CachedResponse(Kind kind, Long productId, String contentType, String eTag, long lastModified,
+                                  String cacheControl, byte[] identity, byte[] gzip) {
+
+        int weight() {
+            return 128 + identity.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final Cache<String, CachedResponse> cache;
+
+    public CatalogResponseCacheFilter(CatalogSnapshotService catalogSnapshotService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.cache.responses.max-weight:67108864}") long maxWeight) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .<String, CachedResponse>weigher((key, value) -> key.length() * 2 + value.weight())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "catalogResponses");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || classify(pathOf(request)) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+        if (snapshot == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String path = pathOf(request);
+        WireFormat format = WireFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT));
+        String key = format + ":" + (request.getQueryString() == null ? path : path + "?" + request.getQueryString());
+
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            response.setHeader(CACHE_STATUS_HEADER, "HIT");
+            if (cached.cacheControl() != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, cached.cacheControl());
+            }
+            // Sets ETag / Last-Modified, and the 304 status when the client copy is current
+            if (new ServletWebRequest(request, response).checkNotModified(cached.eTag(), cached.lastModified())) {
+                return;
+            }
+            write(cached, request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        wrapper.setHeader(CACHE_STATUS_HEADER, "MISS");
+        filterChain.doFilter(request, wrapper);
+
+        // A snapshot swap while rendering could have left us with a body older than the eviction
+        boolean cacheable = wrapper.getStatus() == HttpStatus.OK.value()
+                && catalogSnapshotService.getSnapshot() == snapshot
+                && WireFormat.isWireFormat(wrapper.getContentType());
+        if (!cacheable) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        Kind kind = classify(path);
+        Matcher detail = PRODUCT_DETAIL.matcher(path);
+        Long productId = kind == Kind.PRODUCT_DETAIL && detail.matches() ? Long.valueOf(detail.group(1)) : null;
+        byte[] body = wrapper.getContentAsByteArray();
+        byte[] gzip = gzip(body);
+
+        CachedResponse entry = new CachedResponse(kind, productId, wrapper.getContentType(),
+                wrapper.getHeader(HttpHeaders.ETAG), parseDate(wrapper.getHeader(HttpHeaders.LAST_MODIFIED)),
+                wrapper.getHeader(HttpHeaders.CACHE_CONTROL), body, gzip.length < body.length ? gzip : null);
+        cache.put(key, entry);
+        // Headers already went through to the real response; serve the body from the new entry
+        write(entry, request, response);
+    }
+
+    @EventListener
+    public void onSnapshotChanged(CatalogSnapshotChangedEvent event) {
+        if (event.isFullRebuild()) {
+            cache.invalidateAll();
+            return;
+        }
+        cache.asMap().values().removeIf(entry -> entry.kind() == Kind.PRODUCT_LIST
+                || (entry.kind() == Kind.PRODUCT_DETAIL && event.productIds().contains(entry.productId())));
+    }
+
+    private void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        byte[] body = cached.identity();
+        if (cached.gzip() != null && acceptsGzip(request)) {
+            body = cached.gzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(cached.contentType());
+        if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+            // Already set by the controller advice when the body was just rendered
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static Kind classify(String path) {
+        if (PRODUCT_DETAIL.matcher(path).matches()) {
+            return Kind.PRODUCT_DETAIL;
+        }
+        if (PRODUCT_LIST.matcher(path).matches()) {
+            return Kind.PRODUCT_LIST;
+        }
+        if (CATEGORY.matcher(path).matches()) {
+            return Kind.CATEGORY;
+        }
+        return null;
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static long parseDate(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Whether the client accepts gzip, honouring an explicit q=0
+     */
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        for (String part : header.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim();
+            if (coding.equalsIgnoreCase(GZIP) || coding.equals("*")) {
+                return tokens.length < 2 || !tokens[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4 + 64);
+        // Compressed once per cache fill, so spend the CPU on the best ratio
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,63 @@
+package com.nerya.neryaallnaturals.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only category queries over plain JDBC, mapped straight into {@link CategoryRow}
+ * records with the parent name joined in, so no entities are loaded
+ */
+@Repository
+@RequiredArgsConstructor
+public class CategoryReadRepository {
+
+    private static final String CATEGORY_SELECT = "SELECT c.id, c.name, c.description, c.image_url, "
+            + "c.is_active, c.parent_id, parent.name AS parent_name, c.created_at, c.updated_at "
+            + "FROM categories c LEFT JOIN categories parent ON parent.id = c.parent_id";
+
+    private final JdbcClient jdbcClient;
+
+    public List<CategoryRow> findAll() {
+        return jdbcClient.sql(CATEGORY_SELECT + " ORDER BY c.id")
+                .query(CategoryReadRepository::mapCategory)
+                .list();
+    }
+
+    public List<CategoryRow> findActive() {
+        return jdbcClient.sql(CATEGORY_SELECT + " WHERE c.is_active = true ORDER BY c.id")
+                .query(CategoryReadRepository::mapCategory)
+                .list();
+    }
+
+    public List<CategoryRow> findParents() {
+        return jdbcClient.sql(CATEGORY_SELECT + " WHERE c.parent_id IS NULL ORDER BY c.id")
+                .query(CategoryReadRepository::mapCategory)
+                .list();
+    }
+
+    public Optional<CategoryRow> findById(Long id) {
+        return jdbcClient.sql(CATEGORY_SELECT + " WHERE c.id = :id")
+                .param("id", id)
+                .query(CategoryReadRepository::mapCategory)
+                .optional();
+    }
+
+    private static CategoryRow mapCategory(ResultSet rs, int rowNum) throws SQLException {
+        return new CategoryRow(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getString("image_url"),
+                JdbcRows.getBoolean(rs, "is_active"),
+                JdbcRows.getLong(rs, "parent_id"),
+                rs.getString("parent_name"),
+                JdbcRows.getDateTime(rs, "created_at"),
+                JdbcRows.getDateTime(rs, "updated_at"));
+    }
+}
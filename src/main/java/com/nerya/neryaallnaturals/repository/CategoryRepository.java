@@ -2,8 +2,10 @@ package com.nerya.neryaallnaturals.repository;
 
 import com.nerya.neryaallnaturals.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,5 +19,7 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findByParentCategoryIsNull();
     
     List<Category> findByParentCategory(Category parentCategory);
+    
+    @Query("SELECT MAX(c.updatedAt) FROM Category c")
+    LocalDateTime findLatestUpdate();
 }
-
@@ -0,0 +1,18 @@
+package com.nerya.neryaallnaturals.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Category as read by {@link CategoryReadRepository}, with the name of its parent
+ */
+public record CategoryRow(
+        Long id,
+        String name,
+        String description,
+        String imageUrl,
+        Boolean isActive,
+        Long parentId,
+        String parentName,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
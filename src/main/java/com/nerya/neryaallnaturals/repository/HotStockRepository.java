@@ -0,0 +1,107 @@
+package com.nerya.neryaallnaturals.repository;
+
+import com.nerya.neryaallnaturals.entity.StockJournalCheckpoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Inventory writes of the hot stock mode over plain JDBC: stock leases and the folding of
+ * journaled reservations. Every method must run inside the caller's transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HotStockRepository {
+
+    private static final String APPLY_RESERVATIONS = "UPDATE inventory SET "
+            + "quantity_reserved = COALESCE(quantity_reserved, 0) + ?, quantity_leased = quantity_leased - ?, "
+            + "version = version + 1, updated_at = ? WHERE product_id = ?";
+
+    private final JdbcClient jdbcClient;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Lease all of a product's available stock: lock the row and move everything not on
+     * hold into {@code quantity_leased}
+     *
+     * @return units leased, or empty when the product has no inventory record
+     */
+    public Optional<Long> leaseAvailable(long productId) {
+        Optional<Long> available = jdbcClient.sql("SELECT quantity_on_hand - COALESCE(quantity_reserved, 0) "
+                        + "- quantity_leased FROM inventory WHERE product_id = :productId FOR UPDATE")
+                .param("productId", productId)
+                .query(Long.class)
+                .optional();
+        available.filter(units -> units > 0).ifPresent(units -> jdbcClient
+                .sql("UPDATE inventory SET quantity_leased = quantity_leased + :units, version = version + 1, "
+                        + "updated_at = :now WHERE product_id = :productId")
+                .param("units", units)
+                .param("now", LocalDateTime.now())
+                .param("productId", productId)
+                .update());
+        return available.map(units -> Math.max(0, units));
+    }
+
+    /**
+     * Hand a product's whole remaining lease back to the database
+     */
+    public void returnLease(long productId) {
+        jdbcClient.sql("UPDATE inventory SET quantity_leased = 0, version = version + 1, updated_at = :now "
+                        + "WHERE product_id = :productId AND quantity_leased <> 0")
+                .param("now", LocalDateTime.now())
+                .param("productId", productId)
+                .update();
+    }
+
+    /**
+     * Return every lease; after a restart no counter holds any
+     *
+     * @return number of inventory records that had a lease
+     */
+    public int returnAllLeases() {
+        return jdbcClient.sql("UPDATE inventory SET quantity_leased = 0, version = version + 1, "
+                        + "updated_at = :now WHERE quantity_leased <> 0")
+                .param("now", LocalDateTime.now())
+                .update();
+    }
+
+    /**
+     * Move journaled reservations from the leased to the reserved column and advance the
+     * checkpoint to the last of them
+     *
+     * @param quantities units reserved per product
+     */
+    public void applyReservations(Map<Long, Long> quantities, long lastSequence) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> args = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, units) -> args.add(new Object[] {units, units, now, productId}));
+        jdbcTemplate.batchUpdate(APPLY_RESERVATIONS, args);
+        saveCheckpoint(lastSequence);
+    }
+
+    /**
+     * Sequence of the last applied journal record, 0 before the first
+     */
+    public long findCheckpoint() {
+        return jdbcClient.sql("SELECT last_sequence FROM stock_journal_checkpoint WHERE id = :id")
+                .param("id", StockJournalCheckpoint.ID)
+                .query(Long.class)
+                .optional()
+                .orElse(0L);
+    }
+
+    private void saveCheckpoint(long lastSequence) {
+        jdbcClient.sql("INSERT INTO stock_journal_checkpoint (id, last_sequence) VALUES (:id, :sequence) "
+                        + "ON DUPLICATE KEY UPDATE last_sequence = VALUES(last_sequence)")
+                .param("id", StockJournalCheckpoint.ID)
+                .param("sequence", lastSequence)
+                .update();
+    }
+}
@@ -0,0 +1,246 @@
+package com.nerya.neryaallnaturals.repository;
+
+import com.nerya.neryaallnaturals.entity.InventoryMovement;
+import com.nerya.neryaallnaturals.entity.InventoryMovementReason;
+import com.nerya.neryaallnaturals.entity.InventorySnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Inventory movement journal and stock snapshots over plain JDBC.
+ *
+ * Every query is bounded by the {@code (product_id, occurred_at, id)} or
+ * {@code (occurred_at, id)} index, so reads cost the size of the requested range rather than
+ * the size of the journal.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryMovementRepository {
+
+    private static final String INSERT_MOVEMENT = "INSERT INTO inventory_movements "
+            + "(product_id, reason, actor, delta_on_hand, delta_reserved, delta_sold, occurred_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SNAPSHOT = "INSERT INTO inventory_snapshots "
+            + "(product_id, quantity_on_hand, quantity_reserved, quantity_sold, taken_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String MOVEMENT_SELECT = "SELECT m.id, m.product_id, m.reason, m.actor, m.delta_on_hand, "
+            + "m.delta_reserved, m.delta_sold, m.occurred_at FROM inventory_movements m";
+
+    private static final String SNAPSHOT_SELECT = "SELECT s.id, s.product_id, s.quantity_on_hand, "
+            + "s.quantity_reserved, s.quantity_sold, s.taken_at FROM inventory_snapshots s";
+
+    private static final String TOTALS = "SUM(m.delta_on_hand) AS on_hand, SUM(m.delta_reserved) AS reserved, "
+            + "SUM(m.delta_sold) AS sold, COUNT(*) AS movements";
+
+    private final JdbcClient jdbcClient;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Summed deltas of a run of movements
+     */
+    public record Totals(long quantityOnHand, long quantityReserved, long quantitySold, long movements) {
+
+        public static final Totals ZERO = new Totals(0, 0, 0, 0);
+
+        public Totals plus(Totals other) {
+            return new Totals(quantityOnHand + other.quantityOnHand, quantityReserved + other.quantityReserved,
+                    quantitySold + other.quantitySold, movements + other.movements);
+        }
+    }
+
+    /**
+     * Filter of a movement listing; null fields do not filter
+     */
+    public record Filter(Long productId, InventoryMovementReason reason, LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Append movements with one batched INSERT
+     */
+    public void insert(List<InventoryMovement> movements) {
+        List<Object[]> args = new ArrayList<>(movements.size());
+        for (InventoryMovement movement : movements) {
+            args.add(new Object[] {movement.getProductId(), movement.getReason().name(), movement.getActor(),
+                    movement.getDeltaOnHand(), movement.getDeltaReserved(), movement.getDeltaSold(),
+                    movement.getOccurredAt()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT, args);
+    }
+
+    /**
+     * Journal the current counters of every inventory record that has no movement yet
+     *
+     * @return number of opening balances written
+     */
+    public int insertOpeningBalances(String actor, LocalDateTime now) {
+        return jdbcClient.sql("INSERT INTO inventory_movements "
+                        + "(product_id, reason, actor, delta_on_hand, delta_reserved, delta_sold, occurred_at) "
+                        + "SELECT i.product_id, :reason, :actor, i.quantity_on_hand, COALESCE(i.quantity_reserved, 0), "
+                        + "COALESCE(i.quantity_sold, 0), :now FROM inventory i WHERE NOT EXISTS "
+                        + "(SELECT 1 FROM inventory_movements m WHERE m.product_id = i.product_id)")
+                .param("reason", InventoryMovementReason.OPENING_BALANCE.name())
+                .param("actor", actor)
+                .param("now", now)
+                .update();
+    }
+
+    /**
+     * Movements matching the filter in (occurred_at, id) order, starting after the given
+     * position
+     *
+     * @param afterTime time of the last movement of the previous page, null for the first page
+     * @param afterId   ID of the last movement of the previous page
+     */
+    public List<InventoryMovement> findPage(Filter filter, LocalDateTime afterTime, Long afterId, int limit) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+        if (filter.productId() != null) {
+            conditions.add("m.product_id = :productId");
+            params.put("productId", filter.productId());
+        }
+        if (filter.from() != null) {
+            conditions.add("m.occurred_at >= :from");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            conditions.add("m.occurred_at < :to");
+            params.put("to", filter.to());
+        }
+        if (filter.reason() != null) {
+            conditions.add("m.reason = :reason");
+            params.put("reason", filter.reason().name());
+        }
+        if (afterTime != null) {
+            conditions.add("(m.occurred_at > :afterTime OR (m.occurred_at = :afterTime AND m.id > :afterId))");
+            params.put("afterTime", afterTime);
+            params.put("afterId", afterId);
+        }
+        params.put("limit", limit);
+
+        String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+        return jdbcClient.sql(MOVEMENT_SELECT + where + " ORDER BY m.occurred_at, m.id LIMIT :limit")
+                .params(params)
+                .query(InventoryMovementRepository::mapMovement)
+                .list();
+    }
+
+    /**
+     * Summed movements of a product in {@code (after, until]}
+     *
+     * @param after exclusive start, null to start at the first movement
+     */
+    public Totals sum(Long productId, LocalDateTime after, LocalDateTime until) {
+        return jdbcClient.sql("SELECT " + TOTALS + " FROM inventory_movements m WHERE m.product_id = :productId "
+                        + "AND m.occurred_at > :after AND m.occurred_at <= :until")
+                .param("productId", productId)
+                .param("after", after != null ? after : LocalDateTime.of(1970, 1, 1, 0, 0))
+                .param("until", until)
+                .query(InventoryMovementRepository::mapTotals)
+                .single();
+    }
+
+    /**
+     * Summed movements of every product that moved in {@code (after, until]}
+     *
+     * @param after exclusive start, null to start at the first movement
+     */
+    public Map<Long, Totals> sumByProduct(LocalDateTime after, LocalDateTime until) {
+        Map<Long, Totals> totals = new HashMap<>();
+        jdbcClient.sql("SELECT m.product_id, " + TOTALS + " FROM inventory_movements m "
+                        + "WHERE m.occurred_at > :after AND m.occurred_at <= :until GROUP BY m.product_id")
+                .param("after", after != null ? after : LocalDateTime.of(1970, 1, 1, 0, 0))
+                .param("until", until)
+                .query(rs -> {
+                    totals.put(rs.getLong("product_id"), mapTotals(rs, 0));
+                });
+        return totals;
+    }
+
+    /**
+     * The latest snapshot of a product taken at or before the given time
+     */
+    public Optional<InventorySnapshot> findLatestSnapshot(Long productId, LocalDateTime atOrBefore) {
+        return jdbcClient.sql(SNAPSHOT_SELECT + " WHERE s.product_id = :productId AND s.taken_at <= :at "
+                        + "ORDER BY s.taken_at DESC LIMIT 1")
+                .param("productId", productId)
+                .param("at", atOrBefore)
+                .query(InventoryMovementRepository::mapSnapshot)
+                .optional();
+    }
+
+    /**
+     * The latest snapshot of each of the given products that has one
+     */
+    public List<InventorySnapshot> findLatestSnapshots(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcClient.sql(SNAPSHOT_SELECT + " JOIN (SELECT product_id, MAX(taken_at) AS taken_at "
+                        + "FROM inventory_snapshots WHERE product_id IN (:productIds) GROUP BY product_id) latest "
+                        + "ON latest.product_id = s.product_id AND latest.taken_at = s.taken_at")
+                .param("productIds", productIds)
+                .query(InventoryMovementRepository::mapSnapshot)
+                .list();
+    }
+
+    /**
+     * Time of the most recent snapshot run
+     */
+    public Optional<LocalDateTime> findLastSnapshotTime() {
+        return jdbcClient.sql("SELECT MAX(taken_at) FROM inventory_snapshots")
+                .query(LocalDateTime.class)
+                .optional();
+    }
+
+    public void insertSnapshots(List<InventorySnapshot> snapshots) {
+        List<Object[]> args = new ArrayList<>(snapshots.size());
+        for (InventorySnapshot snapshot : snapshots) {
+            args.add(new Object[] {snapshot.getProductId(), snapshot.getQuantityOnHand(),
+                    snapshot.getQuantityReserved(), snapshot.getQuantitySold(), snapshot.getTakenAt()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SNAPSHOT, args);
+    }
+
+    private static InventoryMovement mapMovement(ResultSet rs, int rowNum) throws SQLException {
+        return InventoryMovement.builder()
+                .id(rs.getLong("id"))
+                .productId(rs.getLong("product_id"))
+                .reason(InventoryMovementReason.valueOf(rs.getString("reason")))
+                .actor(rs.getString("actor"))
+                .deltaOnHand(rs.getInt("delta_on_hand"))
+                .deltaReserved(rs.getInt("delta_reserved"))
+                .deltaSold(rs.getInt("delta_sold"))
+                .occurredAt(JdbcRows.getDateTime(rs, "occurred_at"))
+                .build();
+    }
+
+    private static InventorySnapshot mapSnapshot(ResultSet rs, int rowNum) throws SQLException {
+        return InventorySnapshot.builder()
+                .id(rs.getLong("id"))
+                .productId(rs.getLong("product_id"))
+                .quantityOnHand(rs.getLong("quantity_on_hand"))
+                .quantityReserved(rs.getLong("quantity_reserved"))
+                .quantitySold(rs.getLong("quantity_sold"))
+                .takenAt(JdbcRows.getDateTime(rs, "taken_at"))
+                .build();
+    }
+
+    private static Totals mapTotals(ResultSet rs, int rowNum) throws SQLException {
+        // SUM over no rows is NULL, which getLong reads as 0
+        return new Totals(rs.getLong("on_hand"), rs.getLong("reserved"), rs.getLong("sold"),
+                rs.getLong("movements"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.nerya.neryaallnaturals.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Read-only inventory queries over plain JDBC, mapped straight into {@link InventoryRow}
+ * records with the product name and SKU joined in, so no entities are loaded
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryReadRepository {
+
+    /**
+     * Records loaded per round trip by {@link #forEach}
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String INVENTORY_SELECT = "SELECT i.id, i.product_id, p.name AS product_name, "
+            + "p.sku AS product_sku, i.quantity_on_hand, i.quantity_reserved, i.quantity_sold, "
+            + "i.min_stock_level, i.max_stock_level, i.reorder_quantity, i.last_updated_by, i.version, "
+            + "i.created_at, i.updated_at FROM inventory i JOIN products p ON p.id = i.product_id";
+
+    private final JdbcClient jdbcClient;
+
+    public Optional<InventoryRow> findById(Long id) {
+        return jdbcClient.sql(INVENTORY_SELECT + " WHERE i.id = :id")
+                .param("id", id)
+                .query(InventoryReadRepository::mapInventory)
+                .optional();
+    }
+
+    public Optional<InventoryRow> findByProductId(Long productId) {
+        return jdbcClient.sql(INVENTORY_SELECT + " WHERE i.product_id = :productId")
+                .param("productId", productId)
+                .query(InventoryReadRepository::mapInventory)
+                .optional();
+    }
+
+    /**
+     * Inventory records of the given products, in no particular order
+     */
+    public List<InventoryRow> findByProductIds(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcClient.sql(INVENTORY_SELECT + " WHERE i.product_id IN (:productIds)")
+                .param("productIds", productIds)
+                .query(InventoryReadRepository::mapInventory)
+                .list();
+    }
+
+    /**
+     * Hand every inventory record to the sink in ID order, reading keyset chunks so memory
+     * use is bounded by one chunk; run it inside a read-only transaction for a consistent view
+     *
+     * @return number of records read
+     */
+    public long forEach(Consumer<InventoryRow> sink) {
+        return forEach("TRUE", sink);
+    }
+
+    /**
+     * Same as {@link #forEach(Consumer)}, for the records at or below their minimum stock level
+     */
+    public long forEachLowStock(Consumer<InventoryRow> sink) {
+        return forEach("i.quantity_on_hand <= i.min_stock_level", sink);
+    }
+
+    private long forEach(String condition, Consumer<InventoryRow> sink) {
+        long count = 0;
+        long afterId = 0;
+        while (true) {
+            List<InventoryRow> chunk = jdbcClient
+                    .sql(INVENTORY_SELECT + " WHERE " + condition + " AND i.id > :afterId ORDER BY i.id LIMIT :limit")
+                    .param("afterId", afterId)
+                    .param("limit", CHUNK_SIZE)
+                    .query(InventoryReadRepository::mapInventory)
+                    .list();
+            chunk.forEach(sink);
+            count += chunk.size();
+            if (chunk.size() < CHUNK_SIZE) {
+                return count;
+            }
+            afterId = chunk.get(chunk.size() - 1).id();
+        }
+    }
+
+    private static InventoryRow mapInventory(ResultSet rs, int rowNum) throws SQLException {
+        return new InventoryRow(
+                rs.getLong("id"),
+                rs.getLong("product_id"),
+                rs.getString("product_name"),
+                rs.getString("product_sku"),
+                JdbcRows.getInteger(rs, "quantity_on_hand"),
+                JdbcRows.getInteger(rs, "quantity_reserved"),
+                JdbcRows.getInteger(rs, "quantity_sold"),
+                JdbcRows.getInteger(rs, "min_stock_level"),
+                JdbcRows.getInteger(rs, "max_stock_level"),
+                JdbcRows.getInteger(rs, "reorder_quantity"),
+                rs.getString("last_updated_by"),
+                JdbcRows.getLong(rs, "version"),
+                JdbcRows.getDateTime(rs, "created_at"),
+                JdbcRows.getDateTime(rs, "updated_at"));
+    }
+}
@@ -2,13 +2,67 @@ package com.nerya.neryaallnaturals.repository;
 
 import com.nerya.neryaallnaturals.entity.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     
     Optional<Inventory> findByProductId(Long productId);
+    
+    @Query("SELECT MAX(i.updatedAt) FROM Inventory i")
+    LocalDateTime findLatestUpdate();
+    
+    @Query("SELECT i.updatedAt FROM Inventory i WHERE i.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+    
+    @Query("SELECT i.updatedAt FROM Inventory i WHERE i.product.id = :productId")
+    Optional<LocalDateTime> findUpdatedAtByProductId(@Param("productId") Long productId);
+    
+    boolean existsByProductId(Long productId);
+    
+    /*
+     * Conditional stock updates: each is one UPDATE whose WHERE clause carries the stock
+     * check, so concurrent callers serialize on the row lock and none can oversell. They
+     * return the number of rows changed, 0 when the product has no inventory or too little
+     * stock. The version is bumped so that stale admin edits fail their optimistic check.
+     * Each runs in its own transaction unless the caller already has one.
+     */
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Inventory i SET i.quantityReserved = COALESCE(i.quantityReserved, 0) + :quantity, "
+            + "i.version = i.version + 1, i.updatedAt = :now "
+            + "WHERE i.product.id = :productId "
+            + "AND i.quantityOnHand - COALESCE(i.quantityReserved, 0) - i.quantityLeased >= :quantity")
+    int reserve(@Param("productId") Long productId, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Inventory i SET i.quantityReserved = i.quantityReserved - :quantity, "
+            + "i.version = i.version + 1, i.updatedAt = :now "
+            + "WHERE i.product.id = :productId AND i.quantityReserved >= :quantity")
+    int release(@Param("productId") Long productId, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Inventory i SET i.quantityOnHand = i.quantityOnHand - :quantity, "
+            + "i.quantityReserved = i.quantityReserved - :quantity, "
+            + "i.quantitySold = COALESCE(i.quantitySold, 0) + :quantity, "
+            + "i.version = i.version + 1, i.updatedAt = :now "
+            + "WHERE i.product.id = :productId AND i.quantityReserved >= :quantity AND i.quantityOnHand >= :quantity")
+    int commit(@Param("productId") Long productId, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Inventory i SET i.quantityOnHand = i.quantityOnHand + :quantity, "
+            + "i.version = i.version + 1, i.updatedAt = :now "
+            + "WHERE i.product.id = :productId")
+    int restock(@Param("productId") Long productId, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
 }
-
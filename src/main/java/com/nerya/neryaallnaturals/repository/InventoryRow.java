@@ -0,0 +1,37 @@
+package com.nerya.neryaallnaturals.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Inventory record as read by {@link InventoryReadRepository}, with the name and SKU of its product
+ */
+public record InventoryRow(
+        Long id,
+        Long productId,
+        String productName,
+        String productSku,
+        Integer quantityOnHand,
+        Integer quantityReserved,
+        Integer quantitySold,
+        Integer minStockLevel,
+        Integer maxStockLevel,
+        Integer reorderQuantity,
+        String lastUpdatedBy,
+        Long version,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    /**
+     * Same as {@code Inventory.getAvailableQuantity()}
+     */
+    public Integer availableQuantity() {
+        return quantityOnHand - quantityReserved;
+    }
+
+    /**
+     * Same as {@code Inventory.isLowStock()}
+     */
+    public Boolean isLowStock() {
+        return quantityOnHand <= minStockLevel;
+    }
+}
@@ -0,0 +1,31 @@
+package com.nerya.neryaallnaturals.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Null-preserving column getters for the JDBC read repositories; the primitive
+ * {@link ResultSet} getters would turn SQL NULL into 0 or false.
+ */
+final class JdbcRows {
+
+    private JdbcRows() {
+    }
+
+    static Long getLong(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, Long.class);
+    }
+
+    static Integer getInteger(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, Integer.class);
+    }
+
+    static Boolean getBoolean(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, Boolean.class);
+    }
+
+    static LocalDateTime getDateTime(ResultSet rs, String column) throws SQLException {
+        return rs.getObject(column, LocalDateTime.class);
+    }
+}
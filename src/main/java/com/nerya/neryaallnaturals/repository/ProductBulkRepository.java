@@ -0,0 +1,132 @@
+package com.nerya.neryaallnaturals.repository;
+
+import com.nerya.neryaallnaturals.dto.BulkProductUpdateRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based product updates over plain JDBC.
+ *
+ * A bulk update is driven by the filter of a {@link BulkProductUpdateRequest} narrowed to
+ * the products its action would actually change, so deactivating already inactive products
+ * matches nothing. Callers walk the matching IDs in keyset chunks with {@link #findIds} and
+ * apply the action to one chunk per {@link #update}; the filter is repeated in the UPDATE
+ * so rows changed concurrently in between are left alone.
+ *
+ * Selling price adjustments never raise the selling price above the list price and keep
+ * {@code discount_percentage} in step with the new selling price.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductBulkRepository {
+
+    private final JdbcClient jdbcClient;
+
+    private record Where(String sql, Map<String, Object> params) {
+    }
+
+    /**
+     * Number of products the request would change
+     */
+    public long count(BulkProductUpdateRequest request) {
+        Where where = where(request);
+        return jdbcClient.sql("SELECT COUNT(*) FROM products p WHERE " + where.sql())
+                .params(where.params())
+                .query(Long.class)
+                .single();
+    }
+
+    /**
+     * Next IDs, in ascending order, of the products the request would change
+     */
+    public List<Long> findIds(BulkProductUpdateRequest request, long afterId, int limit) {
+        Where where = where(request);
+        Map<String, Object> params = new HashMap<>(where.params());
+        params.put("afterId", afterId);
+        params.put("limit", limit);
+        return jdbcClient.sql("SELECT p.id FROM products p WHERE " + where.sql()
+                        + " AND p.id > :afterId ORDER BY p.id LIMIT :limit")
+                .params(params)
+                .query(Long.class)
+                .list();
+    }
+
+    /**
+     * Apply the action to those of the given products that still match the request
+     *
+     * @return number of products updated
+     */
+    public int update(BulkProductUpdateRequest request, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Where where = where(request);
+        Map<String, Object> params = new HashMap<>(where.params());
+        params.put("ids", ids);
+        params.put("now", LocalDateTime.now());
+        String assignment = switch (request.getAction()) {
+            case ADJUST_SELLING_PRICE -> {
+                params.put("factor", priceFactor(request.getPercent()));
+                // MySQL assigns single-table SET clauses left to right, so the discount is
+                // computed from the new selling price
+                yield "p.selling_price = LEAST(ROUND(p.selling_price * :factor, 2), p.price), "
+                        + "p.discount_percentage = CASE WHEN p.price > 0 "
+                        + "THEN GREATEST(0, ROUND((p.price - p.selling_price) * 100 / p.price)) ELSE 0 END";
+            }
+            case ACTIVATE -> "p.is_active = true";
+            case DEACTIVATE -> "p.is_active = false";
+            case FEATURE -> "p.is_featured = true";
+            case UNFEATURE -> "p.is_featured = false";
+        };
+        return jdbcClient.sql("UPDATE products p SET " + assignment + ", p.updated_at = :now WHERE "
+                        + where.sql() + " AND p.id IN (:ids)")
+                .params(params)
+                .update();
+    }
+
+    private static BigDecimal priceFactor(BigDecimal percent) {
+        return BigDecimal.ONE.add(percent.divide(BigDecimal.valueOf(100), MathContext.DECIMAL64));
+    }
+
+    private static Where where(BulkProductUpdateRequest request) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+        if (request.getCategoryId() != null) {
+            conditions.add("p.category_id = :categoryId");
+            params.put("categoryId", request.getCategoryId());
+        }
+        if (request.getBrand() != null) {
+            conditions.add("p.brand = :brand");
+            params.put("brand", request.getBrand().trim());
+        }
+        if (request.getIsActive() != null) {
+            conditions.add("p.is_active = :isActive");
+            params.put("isActive", request.getIsActive());
+        }
+        if (request.getIsFeatured() != null) {
+            conditions.add("p.is_featured = :isFeatured");
+            params.put("isFeatured", request.getIsFeatured());
+        }
+
+        // Skip rows the action would leave as they are
+        conditions.add(switch (request.getAction()) {
+            case ADJUST_SELLING_PRICE -> request.getPercent().signum() > 0
+                    ? "p.selling_price > 0 AND p.selling_price < p.price"
+                    : "p.selling_price > 0";
+            case ACTIVATE -> "(p.is_active = false OR p.is_active IS NULL)";
+            case DEACTIVATE -> "(p.is_active = true OR p.is_active IS NULL)";
+            case FEATURE -> "(p.is_featured = false OR p.is_featured IS NULL)";
+            case UNFEATURE -> "(p.is_featured = true OR p.is_featured IS NULL)";
+        });
+        return new Where(String.join(" AND ", conditions), params);
+    }
+}
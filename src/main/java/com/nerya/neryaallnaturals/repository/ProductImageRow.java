@@ -0,0 +1,17 @@
+package com.nerya.neryaallnaturals.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Product image as read by {@link ProductReadRepository}
+ */
+public record ProductImageRow(
+        Long id,
+        Long productId,
+        String imageUrl,
+        String altText,
+        Boolean isPrimary,
+        Integer displayOrder,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
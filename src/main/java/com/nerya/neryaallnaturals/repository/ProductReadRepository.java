@@ -0,0 +1,225 @@
+package com.nerya.neryaallnaturals.repository;
+
+import com.nerya.neryaallnaturals.dto.ProductSort;
+import com.nerya.neryaallnaturals.util.CursorCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Read-only product queries over plain JDBC.
+ *
+ * Rows are mapped straight into immutable {@link ProductRow} records, so product reads skip
+ * entity hydration, dirty-checking snapshots and the persistence context entirely. A set of
+ * products costs a fixed three queries: the products joined with their category, then the
+ * images and the tags of all of them at once.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductReadRepository {
+
+    /**
+     * Products loaded per round trip by {@link #forEach}
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String PRODUCT_SELECT = "SELECT p.id, p.name, p.sku, p.short_description, "
+            + "p.long_description, p.price, p.selling_price, p.discount_percentage, p.brand, p.weight, "
+            + "p.in_stock, p.quantity, p.min_quantity, p.is_active, p.is_featured, p.rating, p.total_reviews, "
+            + "p.meta_title, p.meta_description, p.category_id, c.name AS category_name, p.created_at, "
+            + "p.updated_at FROM products p JOIN categories c ON c.id = p.category_id";
+
+    private static final String IMAGE_SELECT = "SELECT i.id, i.product_id, i.image_url, i.alt_text, "
+            + "i.is_primary, i.display_order, i.created_at, i.updated_at FROM product_images i "
+            + "WHERE i.product_id IN (:productIds) ORDER BY i.product_id, i.display_order, i.id";
+
+    private static final String TAG_SELECT = "SELECT t.product_id, t.tag FROM product_tags t "
+            + "WHERE t.product_id IN (:productIds)";
+
+    private final JdbcClient jdbcClient;
+
+    /**
+     * Keyset-paginated product listing with the same filtering, ordering and cursor
+     * semantics as {@link ProductRepositoryCustom#findCardPage}
+     *
+     * @param categoryId restrict to this category, or null for all categories
+     * @param activeOnly only return active products
+     * @param sort sort order
+     * @param after position of the last row of the previous page, or null for the first page
+     * @param limit maximum number of rows to return
+     * @return products of the page in sort order
+     */
+    public List<ProductRow> findPage(Long categoryId, boolean activeOnly, ProductSort sort, CursorCodec.Cursor after,
+                                     int limit) {
+        // Column names come from ProductSort, never from user input
+        String key = sortColumn(sort);
+        String comparison = sort.isAscending() ? " > " : " < ";
+        String direction = sort.isAscending() ? " ASC" : " DESC";
+
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+        if (activeOnly) {
+            conditions.add("p.is_active = true");
+        }
+        if (categoryId != null) {
+            conditions.add("p.category_id = :categoryId");
+            params.put("categoryId", categoryId);
+        }
+        if (after != null) {
+            conditions.add("(" + key + comparison + ":afterKey OR (" + key + " = :afterKey AND p.id" + comparison + ":afterId))");
+            params.put("afterKey", after.key());
+            params.put("afterId", after.id());
+        }
+
+        StringBuilder sql = new StringBuilder(PRODUCT_SELECT);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ").append(key).append(direction).append(", p.id").append(direction)
+                .append(" LIMIT :limit");
+        params.put("limit", limit);
+
+        return withCollections(jdbcClient.sql(sql.toString())
+                .params(params)
+                .query(ProductReadRepository::mapProduct)
+                .list());
+    }
+
+    public Optional<ProductRow> findById(Long id) {
+        return findByIds(List.of(id)).stream().findFirst();
+    }
+
+    /**
+     * Products with the given IDs, in no particular order; unknown IDs are skipped
+     */
+    public List<ProductRow> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return withCollections(jdbcClient.sql(PRODUCT_SELECT + " WHERE p.id IN (:ids)")
+                .param("ids", ids)
+                .query(ProductReadRepository::mapProduct)
+                .list());
+    }
+
+    /**
+     * Hand every product, including inactive ones, to the sink in ID order. Products are
+     * read in keyset chunks, so memory use is bounded by one chunk; run it inside a
+     * read-only transaction for a consistent view.
+     *
+     * @return number of products read
+     */
+    public long forEach(Consumer<ProductRow> sink) {
+        long count = 0;
+        long afterId = 0;
+        while (true) {
+            List<ProductRow> chunk = withCollections(jdbcClient
+                    .sql(PRODUCT_SELECT + " WHERE p.id > :afterId ORDER BY p.id LIMIT :limit")
+                    .param("afterId", afterId)
+                    .param("limit", CHUNK_SIZE)
+                    .query(ProductReadRepository::mapProduct)
+                    .list());
+            chunk.forEach(sink);
+            count += chunk.size();
+            if (chunk.size() < CHUNK_SIZE) {
+                return count;
+            }
+            afterId = chunk.get(chunk.size() - 1).id();
+        }
+    }
+
+    private static String sortColumn(ProductSort sort) {
+        return switch (sort) {
+            case NEWEST -> "p.created_at";
+            case NAME -> "p.name";
+            case PRICE_LOW_TO_HIGH, PRICE_HIGH_TO_LOW -> "p.selling_price";
+        };
+    }
+
+    /**
+     * Attach the tags and images of the given products, loaded with one query each
+     */
+    private List<ProductRow> withCollections(List<ProductRow> products) {
+        if (products.isEmpty()) {
+            return products;
+        }
+        List<Long> productIds = products.stream().map(ProductRow::id).toList();
+
+        Map<Long, List<ProductImageRow>> images = new HashMap<>();
+        jdbcClient.sql(IMAGE_SELECT)
+                .param("productIds", productIds)
+                .query((RowCallbackHandler) rs -> {
+                    ProductImageRow image = mapImage(rs);
+                    images.computeIfAbsent(image.productId(), id -> new ArrayList<>()).add(image);
+                });
+
+        Map<Long, Set<String>> tags = new HashMap<>();
+        jdbcClient.sql(TAG_SELECT)
+                .param("productIds", productIds)
+                .query((RowCallbackHandler) rs -> tags
+                        .computeIfAbsent(rs.getLong("product_id"), id -> new HashSet<>())
+                        .add(rs.getString("tag")));
+
+        List<ProductRow> result = new ArrayList<>(products.size());
+        for (ProductRow product : products) {
+            result.add(product.withCollections(
+                    tags.getOrDefault(product.id(), Set.of()),
+                    images.getOrDefault(product.id(), List.of())));
+        }
+        return result;
+    }
+
+    private static ProductRow mapProduct(ResultSet rs, int rowNum) throws SQLException {
+        return new ProductRow(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("sku"),
+                rs.getString("short_description"),
+                rs.getString("long_description"),
+                rs.getBigDecimal("price"),
+                rs.getBigDecimal("selling_price"),
+                JdbcRows.getInteger(rs, "discount_percentage"),
+                rs.getString("brand"),
+                rs.getString("weight"),
+                JdbcRows.getBoolean(rs, "in_stock"),
+                JdbcRows.getInteger(rs, "quantity"),
+                JdbcRows.getInteger(rs, "min_quantity"),
+                JdbcRows.getBoolean(rs, "is_active"),
+                JdbcRows.getBoolean(rs, "is_featured"),
+                rs.getBigDecimal("rating"),
+                JdbcRows.getInteger(rs, "total_reviews"),
+                rs.getString("meta_title"),
+                rs.getString("meta_description"),
+                JdbcRows.getLong(rs, "category_id"),
+                rs.getString("category_name"),
+                JdbcRows.getDateTime(rs, "created_at"),
+                JdbcRows.getDateTime(rs, "updated_at"),
+                Set.of(),
+                List.of());
+    }
+
+    private static ProductImageRow mapImage(ResultSet rs) throws SQLException {
+        return new ProductImageRow(
+                rs.getLong("id"),
+                rs.getLong("product_id"),
+                rs.getString("image_url"),
+                rs.getString("alt_text"),
+                JdbcRows.getBoolean(rs, "is_primary"),
+                JdbcRows.getInteger(rs, "display_order"),
+                JdbcRows.getDateTime(rs, "created_at"),
+                JdbcRows.getDateTime(rs, "updated_at"));
+    }
+}
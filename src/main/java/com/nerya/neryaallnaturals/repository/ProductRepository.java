@@ -2,20 +2,39 @@ package com.nerya.neryaallnaturals.repository;
 
 import com.nerya.neryaallnaturals.entity.Category;
 import com.nerya.neryaallnaturals.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     
     Optional<Product> findBySku(String sku);
     
-    List<Product> findByIsActiveTrue();
+    @EntityGraph(Product.GRAPH_SUMMARY)
+    List<Product> findByIdIn(Collection<Long> ids);
+    
+    /**
+     * Forward-only cursor over all products including inactive;
+     * must be consumed inside a transaction and closed
+     */
+    @EntityGraph(Product.GRAPH_SUMMARY)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingReads.FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAll();
     
     List<Product> findByCategoryAndIsActiveTrue(Category category);
     
@@ -25,10 +44,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     List<Product> findByInStockTrueAndIsActiveTrue();
     
-    @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.isActive = true")
-    List<Product> findByCategoryIdAndActive(@Param("categoryId") Long categoryId);
-    
-    @Query("SELECT p FROM Product p WHERE p.name LIKE CONCAT('%', :keyword, '%') OR p.shortDescription LIKE CONCAT('%', :keyword, '%') OR p.longDescription LIKE CONCAT('%', :keyword, '%')")
-    List<Product> searchProducts(@Param("keyword") String keyword);
+    @Query("SELECT MAX(p.updatedAt) FROM Product p")
+    LocalDateTime findLatestUpdate();
 }
-
@@ -0,0 +1,27 @@
+package com.nerya.neryaallnaturals.repository;
+
+import com.nerya.neryaallnaturals.dto.ProductCard;
+import com.nerya.neryaallnaturals.dto.ProductSort;
+import com.nerya.neryaallnaturals.util.CursorCodec;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Keyset-paginated listing of {@link ProductCard} projections.
+     * Rows are ordered by the sort key with the ID as tie-breaker, and the page starts
+     * strictly after the given cursor, so concurrent inserts or deletes never shift
+     * rows between pages the way OFFSET pagination does. Selects the card columns and the
+     * primary image URL in one query, without loading entities.
+     *
+     * @param categoryId restrict to this category, or null for all categories
+     * @param activeOnly only return active products
+     * @param sort sort order
+     * @param after position of the last row of the previous page, or null for the first page
+     * @param limit maximum number of rows to return
+     * @return cards of the page in sort order
+     */
+    List<ProductCard> findCardPage(Long categoryId, boolean activeOnly, ProductSort sort, CursorCodec.Cursor after,
+                                   int limit);
+}
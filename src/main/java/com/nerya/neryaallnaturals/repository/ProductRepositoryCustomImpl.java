@@ -0,0 +1,72 @@
+package com.nerya.neryaallnaturals.repository;
+
+import com.nerya.neryaallnaturals.dto.ProductCard;
+import com.nerya.neryaallnaturals.dto.ProductSort;
+import com.nerya.neryaallnaturals.util.CursorCodec;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Card columns in {@link ProductCard} constructor order. The image is the first primary
+     * image in display order, else the first image, matching
+     * {@code ProductResponse.primaryImageUrl}.
+     */
+    private static final String CARD_SELECT = "SELECT new com.nerya.neryaallnaturals.dto.ProductCard("
+            + "p.id, p.name, p.brand, p.price, p.sellingPrice, p.discountPercentage, p.averageRating, "
+            + "p.totalReviews, p.inStock, "
+            + "(SELECT i.imageUrl FROM ProductImage i WHERE i.product = p "
+            + "ORDER BY i.isPrimary DESC, i.displayOrder, i.id LIMIT 1), "
+            + "p.createdAt) FROM Product p";
+
+    @Override
+    public List<ProductCard> findCardPage(Long categoryId, boolean activeOnly, ProductSort sort,
+                                          CursorCodec.Cursor after, int limit) {
+        return createPageQuery(CARD_SELECT, ProductCard.class, categoryId, activeOnly, sort, after, limit)
+                .getResultList();
+    }
+
+    private <T> TypedQuery<T> createPageQuery(String select, Class<T> resultType, Long categoryId, boolean activeOnly,
+                                              ProductSort sort, CursorCodec.Cursor after, int limit) {
+        // Property names come from ProductSort, never from user input
+        String key = "p." + sort.getProperty();
+        String comparison = sort.isAscending() ? " > " : " < ";
+        String direction = sort.isAscending() ? " ASC" : " DESC";
+
+        List<String> conditions = new ArrayList<>();
+        if (activeOnly) {
+            conditions.add("p.isActive = true");
+        }
+        if (categoryId != null) {
+            conditions.add("p.category.id = :categoryId");
+        }
+        if (after != null) {
+            conditions.add("(" + key + comparison + ":afterKey OR (" + key + " = :afterKey AND p.id" + comparison + ":afterId))");
+        }
+
+        StringBuilder jpql = new StringBuilder(select);
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        jpql.append(" ORDER BY ").append(key).append(direction).append(", p.id").append(direction);
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), resultType)
+                .setMaxResults(limit);
+        if (categoryId != null) {
+            query.setParameter("categoryId", categoryId);
+        }
+        if (after != null) {
+            query.setParameter("afterKey", after.key());
+            query.setParameter("afterId", after.id());
+        }
+        return query;
+    }
+}
@@ -0,0 +1,48 @@
+package com.nerya.neryaallnaturals.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Product as read by {@link ProductReadRepository}: the product columns, its category name,
+ * its tags and its images in display order
+ */
+public record ProductRow(
+        Long id,
+        String name,
+        String sku,
+        String shortDescription,
+        String longDescription,
+        BigDecimal price,
+        BigDecimal sellingPrice,
+        Integer discountPercentage,
+        String brand,
+        String weight,
+        Boolean inStock,
+        Integer quantity,
+        Integer minQuantity,
+        Boolean isActive,
+        Boolean isFeatured,
+        BigDecimal averageRating,
+        Integer totalReviews,
+        String metaTitle,
+        String metaDescription,
+        Long categoryId,
+        String categoryName,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Set<String> tags,
+        List<ProductImageRow> images) {
+
+    /**
+     * Copy of this row with the given tags and images
+     */
+    public ProductRow withCollections(Set<String> tags, List<ProductImageRow> images) {
+        return new ProductRow(id, name, sku, shortDescription, longDescription, price, sellingPrice,
+                discountPercentage, brand, weight, inStock, quantity, minQuantity, isActive, isFeatured,
+                averageRating, totalReviews, metaTitle, metaDescription, categoryId, categoryName,
+                createdAt, updatedAt, tags, images);
+    }
+}
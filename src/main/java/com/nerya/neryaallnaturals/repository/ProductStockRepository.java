@@ -0,0 +1,109 @@
+package com.nerya.neryaallnaturals.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stock columns of the products table derived from the inventory table.
+ *
+ * For every product with an inventory record, {@code products.quantity} is the available
+ * quantity (on hand less reserved, never negative), {@code products.in_stock} is whether any
+ * is available and {@code products.min_quantity} is the minimum stock level. Both queries
+ * compare the stored values with the derived ones, so only divergent rows are returned or
+ * written.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductStockRepository {
+
+    private static final String AVAILABLE = "GREATEST(i.quantity_on_hand - COALESCE(i.quantity_reserved, 0), 0)";
+
+    private static final String DIVERGENT = "NOT (p.quantity <=> " + AVAILABLE + " AND p.in_stock <=> ("
+            + AVAILABLE + " > 0) AND p.min_quantity <=> i.min_stock_level)";
+
+    private final JdbcClient jdbcClient;
+
+    /**
+     * IDs of products whose stock columns differ from their inventory record, in ID order,
+     * starting after the given ID
+     */
+    public List<Long> findDivergentIds(long afterId, int limit) {
+        return jdbcClient.sql("SELECT p.id FROM products p JOIN inventory i ON i.product_id = p.id "
+                        + "WHERE p.id > :afterId AND " + DIVERGENT + " ORDER BY p.id LIMIT :limit")
+                .param("afterId", afterId)
+                .param("limit", limit)
+                .query(Long.class)
+                .list();
+    }
+
+    /**
+     * Of the given products, the IDs of those whose stock columns differ from their
+     * inventory record
+     */
+    public List<Long> findDivergentIds(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcClient.sql("SELECT p.id FROM products p JOIN inventory i ON i.product_id = p.id "
+                        + "WHERE p.id IN (:productIds) AND " + DIVERGENT)
+                .param("productIds", productIds)
+                .query(Long.class)
+                .list();
+    }
+
+    /**
+     * Of the given products, the IDs of those whose {@code in_stock} flag differs from their
+     * inventory record
+     */
+    public List<Long> findInStockChangedIds(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcClient.sql("SELECT p.id FROM products p JOIN inventory i ON i.product_id = p.id "
+                        + "WHERE p.id IN (:productIds) AND NOT (p.in_stock <=> (" + AVAILABLE + " > 0))")
+                .param("productIds", productIds)
+                .query(Long.class)
+                .list();
+    }
+
+    /**
+     * Current stock columns of the given products
+     */
+    public List<ProductStockRow> findStock(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcClient.sql("SELECT p.id, p.in_stock, p.quantity, p.min_quantity, p.updated_at FROM products p "
+                        + "WHERE p.id IN (:productIds)")
+                .param("productIds", productIds)
+                .query((rs, rowNum) -> new ProductStockRow(
+                        rs.getLong("id"),
+                        JdbcRows.getBoolean(rs, "in_stock"),
+                        JdbcRows.getInteger(rs, "quantity"),
+                        JdbcRows.getInteger(rs, "min_quantity"),
+                        JdbcRows.getDateTime(rs, "updated_at")))
+                .list();
+    }
+
+    /**
+     * Copy the derived stock values into the divergent rows among the given products
+     *
+     * @return number of products updated
+     */
+    public int sync(Collection<Long> productIds, LocalDateTime now) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcClient.sql("UPDATE products p JOIN inventory i ON i.product_id = p.id SET p.quantity = "
+                        + AVAILABLE + ", p.in_stock = (" + AVAILABLE + " > 0), p.min_quantity = i.min_stock_level, "
+                        + "p.updated_at = :now WHERE p.id IN (:productIds) AND " + DIVERGENT)
+                .param("productIds", productIds)
+                .param("now", now)
+                .update();
+    }
+}
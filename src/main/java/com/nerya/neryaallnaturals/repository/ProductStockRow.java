@@ -0,0 +1,14 @@
+package com.nerya.neryaallnaturals.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock columns of a product as read by {@link ProductStockRepository}
+ */
+public record ProductStockRow(
+        Long productId,
+        Boolean inStock,
+        Integer quantity,
+        Integer minQuantity,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,64 @@
+package com.nerya.neryaallnaturals.repository;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Support for reading whole tables through a forward-only cursor in constant memory.
+ *
+ * MySQL only keeps a server-side cursor when the connection has {@code useCursorFetch=true}
+ * and the statement sets a positive fetch size; unlike a fully streamed result set, that
+ * lets the batch fetches of lazy collections run on the same connection mid-stream.
+ */
+public final class StreamingReads {
+
+    /**
+     * Rows fetched per cursor round trip
+     */
+    public static final String FETCH_SIZE = "500";
+
+    /**
+     * Entities mapped between two persistence context clears; matches the {@code @BatchSize}
+     * of the lazy collections so each chunk costs one query per collection
+     */
+    public static final int CHUNK_SIZE = 100;
+
+    private StreamingReads() {
+    }
+
+    /**
+     * Map the rows in chunks, hand each result to the sink and clear the persistence
+     * context after every chunk so managed entities never accumulate.
+     *
+     * @return number of rows read
+     */
+    public static <E, R> long forEachChunk(Stream<E> rows, EntityManager entityManager,
+                                           Function<E, R> mapper, Consumer<R> sink) {
+        List<E> chunk = new ArrayList<>(CHUNK_SIZE);
+        long[] count = {0};
+        rows.forEach(row -> {
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                count[0] += flush(chunk, entityManager, mapper, sink);
+            }
+        });
+        count[0] += flush(chunk, entityManager, mapper, sink);
+        return count[0];
+    }
+
+    private static <E, R> int flush(List<E> chunk, EntityManager entityManager,
+                                    Function<E, R> mapper, Consumer<R> sink) {
+        int size = chunk.size();
+        for (E row : chunk) {
+            sink.accept(mapper.apply(row));
+        }
+        chunk.clear();
+        entityManager.clear();
+        return size;
+    }
+}
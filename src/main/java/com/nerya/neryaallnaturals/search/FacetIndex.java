@@ -0,0 +1,477 @@
+package com.nerya.neryaallnaturals.search;
+
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.dto.ProductSort;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable facet index over the active products of one catalog snapshot.
+ *
+ * Every product gets a dense ordinal in newest-first order. Term facets (category, brand,
+ * tag, stock and featured flags) keep one compressed bitmap per value; price, discount and
+ * rating keep their values sorted next to the owning ordinals, so a range becomes a bitmap
+ * from one slice of the array. A filter ORs the selected values within a facet and ANDs the
+ * facets together.
+ *
+ * Facet counts are disjunctive: the counts of a facet ignore that facet's own selection, so
+ * picking one brand still shows how many products every other brand would add.
+ */
+public final class FacetIndex {
+
+    /**
+     * Facet values returned for the brand and tag facets, most frequent first
+     */
+    public static final int MAX_TERM_VALUES = 50;
+
+    private static final int[] DISCOUNT_THRESHOLDS = {10, 20, 30, 40, 50};
+    private static final int[] RATING_THRESHOLDS = {4, 3, 2, 1};
+    private static final long MISSING = Long.MIN_VALUE;
+
+    /**
+     * Facets in the order their filters are combined
+     */
+    public enum Facet {
+        CATEGORY("category"),
+        BRAND("brand"),
+        TAG("tag"),
+        PRICE("price"),
+        DISCOUNT("discount"),
+        RATING("rating"),
+        IN_STOCK("inStock"),
+        FEATURED("featured");
+
+        private final String key;
+
+        Facet(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Selection over the facets; null or empty parts do not restrict
+     */
+    public record Filter(Collection<Long> categoryIds, Collection<String> brands, Collection<String> tags,
+                         BigDecimal minPrice, BigDecimal maxPrice, Integer minDiscount, BigDecimal minRating,
+                         Boolean inStock, Boolean featured) {
+    }
+
+    /**
+     * Number of matching products for one facet value
+     */
+    public record ValueCount(String value, String label, int count) {
+    }
+
+    /**
+     * One page of matching products, the total and the counts of every facet
+     */
+    public record Result(int totalHits, List<ProductResponse> items, Map<String, List<ValueCount>> facets) {
+    }
+
+    /**
+     * Bitmap per distinct value of a term facet
+     */
+    private static final class TermFacet {
+
+        private final Map<String, RoaringBitmap> bitmaps = new HashMap<>();
+        private final Map<String, String> labels = new HashMap<>();
+        // Raw value -> key, so each distinct spelling is folded only once per build
+        private final Map<String, String> keys = new HashMap<>();
+
+        void add(String value, String label, int ordinal) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            String key = keys.computeIfAbsent(value, TermFacet::normalize);
+            bitmaps.computeIfAbsent(key, ignored -> new RoaringBitmap()).add(ordinal);
+            labels.putIfAbsent(key, label != null ? label : value.trim());
+        }
+
+        void optimize() {
+            bitmaps.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        /**
+         * Products having any of the values, or null if no value was selected
+         */
+        RoaringBitmap select(Collection<String> values) {
+            if (values == null || values.isEmpty()) {
+                return null;
+            }
+            RoaringBitmap selected = new RoaringBitmap();
+            for (String value : values) {
+                RoaringBitmap bitmap = value != null ? bitmaps.get(normalize(value)) : null;
+                if (bitmap != null) {
+                    selected.or(bitmap);
+                }
+            }
+            return selected;
+        }
+
+        List<ValueCount> counts(RoaringBitmap base, int limit) {
+            List<ValueCount> counts = new ArrayList<>();
+            bitmaps.forEach((key, bitmap) -> {
+                int count = RoaringBitmap.andCardinality(base, bitmap);
+                if (count > 0) {
+                    counts.add(new ValueCount(key, labels.get(key), count));
+                }
+            });
+            counts.sort(Comparator.comparingInt(ValueCount::count).reversed()
+                    .thenComparing(ValueCount::label, String.CASE_INSENSITIVE_ORDER));
+            return counts.size() > limit ? counts.subList(0, limit) : counts;
+        }
+
+        private static String normalize(String value) {
+            return ProductTextAnalyzer.fold(value.trim());
+        }
+    }
+
+    private record Bucket(String value, String label, RoaringBitmap bitmap) {
+    }
+
+    /**
+     * Values of a numeric facet sorted ascending, each next to the ordinal it belongs to,
+     * plus the bitmaps of the predefined buckets used for counting
+     */
+    private static final class RangeFacet {
+
+        private final long[] values;
+        private final int[] ordinals;
+        private final List<Bucket> buckets = new ArrayList<>();
+
+        RangeFacet(long[] valuesByOrdinal) {
+            this.values = Arrays.stream(valuesByOrdinal).filter(value -> value != MISSING).sorted().toArray();
+            this.ordinals = new int[values.length];
+            // Place every ordinal after the ordinals already placed for an equal value
+            int[] placed = new int[values.length];
+            for (int ordinal = 0; ordinal < valuesByOrdinal.length; ordinal++) {
+                if (valuesByOrdinal[ordinal] != MISSING) {
+                    int first = lowerBound(valuesByOrdinal[ordinal]);
+                    ordinals[first + placed[first]++] = ordinal;
+                }
+            }
+        }
+
+        void addBucket(String value, String label, Long min, Long max) {
+            RoaringBitmap bitmap = between(min, max);
+            bitmap.runOptimize();
+            buckets.add(new Bucket(value, label, bitmap));
+        }
+
+        /**
+         * Products with a value in [min, max]; either bound may be null
+         */
+        RoaringBitmap between(Long min, Long max) {
+            int from = min == null ? 0 : lowerBound(min);
+            int to = max == null ? values.length : lowerBound(max == Long.MAX_VALUE ? max : max + 1);
+            if (from >= to) {
+                return new RoaringBitmap();
+            }
+            int[] slice = Arrays.copyOfRange(ordinals, from, to);
+            Arrays.sort(slice);
+            return RoaringBitmap.bitmapOf(slice);
+        }
+
+        List<ValueCount> counts(RoaringBitmap base) {
+            List<ValueCount> counts = new ArrayList<>(buckets.size());
+            for (Bucket bucket : buckets) {
+                int count = RoaringBitmap.andCardinality(base, bucket.bitmap());
+                if (count > 0) {
+                    counts.add(new ValueCount(bucket.value(), bucket.label(), count));
+                }
+            }
+            return counts;
+        }
+
+        private int lowerBound(long value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    private final ProductResponse[] products;
+    private final RoaringBitmap all;
+    private final Map<ProductSort, int[]> ordinalsBySort;
+    private final Map<ProductSort, int[]> ranksBySort;
+    private final TermFacet categories;
+    private final TermFacet brands;
+    private final TermFacet tags;
+    private final TermFacet inStock;
+    private final TermFacet featured;
+    private final RangeFacet prices;
+    private final RangeFacet discounts;
+    private final RangeFacet ratings;
+
+    /**
+     * Build the index
+     *
+     * @param productsBySort every active product, listed once per sort order
+     * @param priceBucketEdges ascending price bucket boundaries for the price facet counts
+     */
+    public static FacetIndex build(Map<ProductSort, List<ProductResponse>> productsBySort,
+                                   List<BigDecimal> priceBucketEdges) {
+        return new FacetIndex(productsBySort, priceBucketEdges);
+    }
+
+    private FacetIndex(Map<ProductSort, List<ProductResponse>> productsBySort, List<BigDecimal> priceBucketEdges) {
+        List<ProductResponse> newest = productsBySort.getOrDefault(ProductSort.NEWEST, List.of());
+        this.products = newest.toArray(new ProductResponse[0]);
+        this.all = new RoaringBitmap();
+        all.add(0L, (long) products.length);
+        this.ordinalsBySort = new EnumMap<>(ProductSort.class);
+        this.ranksBySort = new EnumMap<>(ProductSort.class);
+        this.categories = new TermFacet();
+        this.brands = new TermFacet();
+        this.tags = new TermFacet();
+        this.inStock = new TermFacet();
+        this.featured = new TermFacet();
+
+        long[] priceValues = new long[products.length];
+        long[] discountValues = new long[products.length];
+        long[] ratingValues = new long[products.length];
+        Map<Long, Integer> ordinalsById = new HashMap<>();
+        for (int ordinal = 0; ordinal < products.length; ordinal++) {
+            ProductResponse product = products[ordinal];
+            ordinalsById.put(product.getId(), ordinal);
+            if (product.getCategoryId() != null) {
+                categories.add(product.getCategoryId().toString(), product.getCategoryName(), ordinal);
+            }
+            brands.add(product.getBrand(), null, ordinal);
+            if (product.getTags() != null) {
+                for (String tag : product.getTags()) {
+                    tags.add(tag, null, ordinal);
+                }
+            }
+            inStock.add(String.valueOf(Boolean.TRUE.equals(product.getInStock())), null, ordinal);
+            featured.add(String.valueOf(Boolean.TRUE.equals(product.getIsFeatured())), null, ordinal);
+            priceValues[ordinal] = hundredths(product.getSellingPrice());
+            discountValues[ordinal] = product.getDiscountPercentage() != null ? product.getDiscountPercentage() : 0;
+            ratingValues[ordinal] = hundredths(product.getAverageRating());
+        }
+        for (TermFacet facet : List.of(categories, brands, tags, inStock, featured)) {
+            facet.optimize();
+        }
+
+        this.prices = new RangeFacet(priceValues);
+        for (int i = 0; i < priceBucketEdges.size(); i++) {
+            BigDecimal from = priceBucketEdges.get(i);
+            BigDecimal to = i + 1 < priceBucketEdges.size() ? priceBucketEdges.get(i + 1) : null;
+            String value = from.toPlainString() + "-" + (to != null ? to.toPlainString() : "");
+            String label = to != null ? from.toPlainString() + " - " + to.toPlainString() : from.toPlainString() + " and above";
+            prices.addBucket(value, label, hundredths(from), to != null ? hundredths(to) - 1 : null);
+        }
+        this.discounts = new RangeFacet(discountValues);
+        for (int threshold : DISCOUNT_THRESHOLDS) {
+            discounts.addBucket(String.valueOf(threshold), threshold + "% off or more", (long) threshold, null);
+        }
+        this.ratings = new RangeFacet(ratingValues);
+        for (int threshold : RATING_THRESHOLDS) {
+            ratings.addBucket(String.valueOf(threshold), threshold + " stars and up", threshold * 100L, null);
+        }
+
+        // NEWEST is the ordinal order itself; the other orders keep ordinals and ranks
+        productsBySort.forEach((sort, list) -> {
+            if (sort == ProductSort.NEWEST) {
+                return;
+            }
+            int[] sortedOrdinals = new int[list.size()];
+            int[] ranks = new int[products.length];
+            for (int rank = 0; rank < sortedOrdinals.length; rank++) {
+                int ordinal = ordinalsById.get(list.get(rank).getId());
+                sortedOrdinals[rank] = ordinal;
+                ranks[ordinal] = rank;
+            }
+            ordinalsBySort.put(sort, sortedOrdinals);
+            ranksBySort.put(sort, ranks);
+        });
+    }
+
+    /**
+     * Same bitmaps and orders over a new product array; see {@link #withProducts}
+     */
+    private FacetIndex(FacetIndex source, ProductResponse[] products) {
+        this.products = products;
+        this.all = source.all;
+        this.ordinalsBySort = source.ordinalsBySort;
+        this.ranksBySort = source.ranksBySort;
+        this.categories = source.categories;
+        this.brands = source.brands;
+        this.tags = source.tags;
+        this.inStock = source.inStock;
+        this.featured = source.featured;
+        this.prices = source.prices;
+        this.discounts = source.discounts;
+        this.ratings = source.ratings;
+    }
+
+    /**
+     * A copy of this index that returns the given products in place of those with the same
+     * IDs. The replacements must agree with the replaced products on every facet value and
+     * sort key, as a stock patch does; the bitmaps and orders are shared, not rebuilt.
+     */
+    public FacetIndex withProducts(Collection<ProductResponse> replacements) {
+        Map<Long, ProductResponse> byId = new HashMap<>();
+        replacements.forEach(product -> byId.put(product.getId(), product));
+        ProductResponse[] replaced = products.clone();
+        for (int ordinal = 0; ordinal < replaced.length; ordinal++) {
+            ProductResponse replacement = byId.get(replaced[ordinal].getId());
+            if (replacement != null) {
+                replaced[ordinal] = replacement;
+            }
+        }
+        return new FacetIndex(this, replaced);
+    }
+
+    public int size() {
+        return products.length;
+    }
+
+    /**
+     * Products matching the filter in the given order, with the facet counts
+     *
+     * @param filter facet selection
+     * @param sort result order
+     * @param offset number of matches to skip
+     * @param limit page size
+     */
+    public Result filter(Filter filter, ProductSort sort, int offset, int limit) {
+        Facet[] facets = Facet.values();
+        RoaringBitmap[] clauses = new RoaringBitmap[facets.length];
+        clauses[Facet.CATEGORY.ordinal()] = categories.select(filter.categoryIds() == null ? null
+                : filter.categoryIds().stream().map(String::valueOf).toList());
+        clauses[Facet.BRAND.ordinal()] = brands.select(filter.brands());
+        clauses[Facet.TAG.ordinal()] = tags.select(filter.tags());
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            clauses[Facet.PRICE.ordinal()] = prices.between(
+                    filter.minPrice() != null ? hundredths(filter.minPrice()) : null,
+                    filter.maxPrice() != null ? hundredths(filter.maxPrice()) : null);
+        }
+        if (filter.minDiscount() != null) {
+            clauses[Facet.DISCOUNT.ordinal()] = discounts.between(filter.minDiscount().longValue(), null);
+        }
+        if (filter.minRating() != null) {
+            clauses[Facet.RATING.ordinal()] = ratings.between(hundredths(filter.minRating()), null);
+        }
+        if (filter.inStock() != null) {
+            clauses[Facet.IN_STOCK.ordinal()] = inStock.select(List.of(filter.inStock().toString()));
+        }
+        if (filter.featured() != null) {
+            clauses[Facet.FEATURED.ordinal()] = featured.select(List.of(filter.featured().toString()));
+        }
+
+        // prefix[i] = all clauses before i, suffix[i] = all clauses after i; their AND is
+        // the base a facet's counts are taken against, without that facet's own clause
+        RoaringBitmap[] prefix = new RoaringBitmap[facets.length + 1];
+        prefix[0] = all;
+        for (int i = 0; i < facets.length; i++) {
+            prefix[i + 1] = clauses[i] == null ? prefix[i] : RoaringBitmap.and(prefix[i], clauses[i]);
+        }
+        RoaringBitmap matched = prefix[facets.length];
+        RoaringBitmap[] suffix = new RoaringBitmap[facets.length + 1];
+        suffix[facets.length] = null;
+        for (int i = facets.length - 1; i >= 0; i--) {
+            RoaringBitmap after = suffix[i + 1];
+            suffix[i] = clauses[i] == null ? after : after == null ? clauses[i] : RoaringBitmap.and(after, clauses[i]);
+        }
+
+        Map<String, List<ValueCount>> counts = new LinkedHashMap<>();
+        for (int i = 0; i < facets.length; i++) {
+            RoaringBitmap base;
+            if (clauses[i] == null) {
+                base = matched;
+            } else {
+                base = suffix[i + 1] == null ? prefix[i] : RoaringBitmap.and(prefix[i], suffix[i + 1]);
+            }
+            counts.put(facets[i].getKey(), counts(facets[i], base));
+        }
+
+        return new Result(matched.getCardinality(), page(matched, sort, offset, limit), counts);
+    }
+
+    private List<ValueCount> counts(Facet facet, RoaringBitmap base) {
+        return switch (facet) {
+            case CATEGORY -> categories.counts(base, Integer.MAX_VALUE);
+            case BRAND -> brands.counts(base, MAX_TERM_VALUES);
+            case TAG -> tags.counts(base, MAX_TERM_VALUES);
+            case PRICE -> prices.counts(base);
+            case DISCOUNT -> discounts.counts(base);
+            case RATING -> ratings.counts(base);
+            case IN_STOCK -> inStock.counts(base, 2);
+            case FEATURED -> featured.counts(base, 2);
+        };
+    }
+
+    /**
+     * The requested window of the matches in sort order. Newest-first is ordinal order;
+     * small result sets are sorted by rank, large ones found by walking the presorted ordinals.
+     */
+    private List<ProductResponse> page(RoaringBitmap matched, ProductSort sort, int offset, int limit) {
+        int total = matched.getCardinality();
+        if (offset >= total || limit <= 0) {
+            return List.of();
+        }
+        List<ProductResponse> items = new ArrayList<>(Math.min(limit, total - offset));
+        int[] sortedOrdinals = ordinalsBySort.get(sort);
+        if (sortedOrdinals == null) {
+            IntIterator iterator = matched.getIntIterator();
+            for (int skipped = 0; iterator.hasNext() && items.size() < limit; ) {
+                int ordinal = iterator.next();
+                if (skipped++ >= offset) {
+                    items.add(products[ordinal]);
+                }
+            }
+        } else if ((long) total * 8 < products.length) {
+            int[] ranks = ranksBySort.get(sort);
+            long[] rankedOrdinals = new long[total];
+            IntIterator iterator = matched.getIntIterator();
+            for (int i = 0; iterator.hasNext(); i++) {
+                int ordinal = iterator.next();
+                rankedOrdinals[i] = ((long) ranks[ordinal] << 32) | ordinal;
+            }
+            Arrays.sort(rankedOrdinals);
+            for (int i = offset; i < total && items.size() < limit; i++) {
+                items.add(products[(int) rankedOrdinals[i]]);
+            }
+        } else {
+            int skipped = 0;
+            for (int i = 0; i < sortedOrdinals.length && items.size() < limit; i++) {
+                if (matched.contains(sortedOrdinals[i]) && skipped++ >= offset) {
+                    items.add(products[sortedOrdinals[i]]);
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Decimal scaled to an exact integer in hundredths, rounding down
+     */
+    private static long hundredths(BigDecimal value) {
+        return value == null ? MISSING : value.setScale(2, RoundingMode.FLOOR).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,266 @@
+package com.nerya.neryaallnaturals.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable dictionary of the words in product names and brands, for correcting misspelled
+ * query words ("tumeric" -> "turmeric").
+ *
+ * Every word is indexed under its character trigrams, padded with a boundary marker so that
+ * "chai" yields "$ch", "cha", "hai" and "ai$". One edit changes at most three trigrams (four
+ * for swapped neighbours), so a dictionary word sharing too few trigrams with the misspelling
+ * cannot be within the edit budget and is skipped without computing a distance. Of the rest, only the
+ * {@value #MAX_CANDIDATES} sharing the most trigrams are verified with a bounded edit
+ * distance, which keeps a lookup cheap however large the dictionary grows.
+ */
+public final class FuzzyTermIndex {
+
+    public static final FuzzyTermIndex EMPTY = new FuzzyTermIndex(Map.of());
+
+    /**
+     * Shorter words are neither indexed nor corrected; one edit changes them too much
+     */
+    public static final int MIN_WORD_LENGTH = 4;
+
+    private static final int MAX_CANDIDATES = 64;
+    private static final int MAX_TRIGRAMS_PER_EDIT = 4;
+    private static final char BOUNDARY = '$';
+
+    /**
+     * A dictionary word close to the looked up one, with the number of products using it
+     */
+    public record Correction(String word, int distance, int frequency) {
+    }
+
+    private final Map<String, Integer> frequencies;
+    private final String[] words;
+    private final int[] wordFrequencies;
+    private final Map<String, int[]> postings;
+
+    private FuzzyTermIndex(Map<String, Integer> frequencies) {
+        this.frequencies = frequencies;
+        this.words = frequencies.keySet().toArray(new String[0]);
+        Arrays.sort(words);
+        this.wordFrequencies = new int[words.length];
+
+        // Size every posting list first so each is filled in place, in ordinal order
+        Map<String, int[]> counts = new HashMap<>();
+        for (int ordinal = 0; ordinal < words.length; ordinal++) {
+            wordFrequencies[ordinal] = frequencies.get(words[ordinal]);
+            for (String trigram : trigrams(words[ordinal])) {
+                counts.computeIfAbsent(trigram, key -> new int[1])[0]++;
+            }
+        }
+        this.postings = new HashMap<>(counts.size() * 2);
+        Map<String, int[]> filled = new HashMap<>(counts.size() * 2);
+        counts.forEach((trigram, count) -> postings.put(trigram, new int[count[0]]));
+        for (int ordinal = 0; ordinal < words.length; ordinal++) {
+            for (String trigram : trigrams(words[ordinal])) {
+                int[] position = filled.computeIfAbsent(trigram, key -> new int[1]);
+                postings.get(trigram)[position[0]++] = ordinal;
+            }
+        }
+    }
+
+    /**
+     * Index the name and brand words of the given products
+     */
+    public static FuzzyTermIndex build(Collection<SearchDocument> documents) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        documents.forEach(document -> countWords(document, frequencies));
+        return new FuzzyTermIndex(frequencies);
+    }
+
+    /**
+     * Copy of this index that also knows the name and brand words of the given products.
+     * Words are only ever added between full builds, so the index may still offer a word
+     * whose last product is gone; callers verify a correction by searching with it.
+     *
+     * @return this index when the products bring no new word
+     */
+    public FuzzyTermIndex withDocuments(Collection<SearchDocument> documents) {
+        Map<String, Integer> added = new HashMap<>();
+        documents.forEach(document -> countWords(document, added));
+        if (frequencies.keySet().containsAll(added.keySet())) {
+            return this;
+        }
+        Map<String, Integer> merged = new HashMap<>(frequencies);
+        added.forEach((word, count) -> merged.merge(word, count, Integer::sum));
+        return new FuzzyTermIndex(merged);
+    }
+
+    public int size() {
+        return words.length;
+    }
+
+    /**
+     * Closest dictionary word to a misspelled one: fewest edits, then keeping the first
+     * letter (people rarely mistype it), then most used
+     *
+     * @param word folded word, see {@link #words(String)}
+     * @return empty for words too short to correct, words already in the dictionary and
+     *         words with nothing within {@link #maxEdits(int)} edits
+     */
+    public Optional<Correction> correct(String word) {
+        int maxEdits = maxEdits(word.length());
+        if (maxEdits == 0 || frequencies.containsKey(word)) {
+            return Optional.empty();
+        }
+
+        Set<String> queryTrigrams = trigrams(word);
+        int[] shared = new int[words.length];
+        List<Integer> touched = new ArrayList<>();
+        for (String trigram : queryTrigrams) {
+            int[] ordinals = postings.get(trigram);
+            if (ordinals == null) {
+                continue;
+            }
+            for (int ordinal : ordinals) {
+                if (shared[ordinal]++ == 0) {
+                    touched.add(ordinal);
+                }
+            }
+        }
+
+        int minShared = Math.max(1, queryTrigrams.size() - MAX_TRIGRAMS_PER_EDIT * maxEdits);
+        List<Integer> candidates = new ArrayList<>();
+        for (int ordinal : touched) {
+            if (shared[ordinal] >= minShared && Math.abs(words[ordinal].length() - word.length()) <= maxEdits) {
+                candidates.add(ordinal);
+            }
+        }
+        if (candidates.size() > MAX_CANDIDATES) {
+            candidates.sort((left, right) -> shared[left] != shared[right]
+                    ? Integer.compare(shared[right], shared[left])
+                    : Integer.compare(wordFrequencies[right], wordFrequencies[left]));
+            candidates = candidates.subList(0, MAX_CANDIDATES);
+        }
+
+        Correction best = null;
+        for (int ordinal : candidates) {
+            int distance = distance(word, words[ordinal], maxEdits);
+            if (distance > maxEdits) {
+                continue;
+            }
+            Correction correction = new Correction(words[ordinal], distance, wordFrequencies[ordinal]);
+            if (best == null || isBetter(correction, best, word.charAt(0))) {
+                best = correction;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private static boolean isBetter(Correction candidate, Correction best, char firstLetter) {
+        if (candidate.distance() != best.distance()) {
+            return candidate.distance() < best.distance();
+        }
+        boolean candidateKeepsFirst = candidate.word().charAt(0) == firstLetter;
+        if (candidateKeepsFirst != (best.word().charAt(0) == firstLetter)) {
+            return candidateKeepsFirst;
+        }
+        return candidate.frequency() > best.frequency();
+    }
+
+    /**
+     * Split text into folded words, in order: lower case, no accents, split on anything
+     * that is not a letter or digit
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String folded = ProductTextAnalyzer.fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Edits allowed when correcting a word of the given length
+     */
+    static int maxEdits(int length) {
+        if (length < MIN_WORD_LENGTH) {
+            return 0;
+        }
+        return length < 8 ? 1 : 2;
+    }
+
+    private static void countWords(SearchDocument document, Map<String, Integer> frequencies) {
+        Set<String> seen = new HashSet<>();
+        for (String text : new String[] {document.name(), document.brand()}) {
+            for (String word : words(text)) {
+                if (word.length() >= MIN_WORD_LENGTH && word.chars().allMatch(Character::isLetter) && seen.add(word)) {
+                    frequencies.merge(word, 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    private static Set<String> trigrams(String word) {
+        String padded = BOUNDARY + word + BOUNDARY;
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Edit distance with adjacent transpositions counted as one edit (optimal string
+     * alignment), giving up as soon as it must exceed {@code max}
+     *
+     * @return the distance, or {@code max + 1} when it is larger than {@code max}
+     */
+    static int distance(String left, String right, int max) {
+        if (Math.abs(left.length() - right.length()) > max) {
+            return max + 1;
+        }
+        int[] twoRowsBack = new int[right.length() + 1];
+        int[] previousRow = new int[right.length() + 1];
+        int[] row = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            int[] recycled = twoRowsBack;
+            twoRowsBack = previousRow;
+            previousRow = row;
+            row = recycled;
+
+            row[0] = i;
+            int rowMinimum = i;
+            for (int j = 1; j <= right.length(); j++) {
+                int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(row[j - 1] + 1, previousRow[j] + 1), previousRow[j - 1] + cost);
+                if (i > 1 && j > 1 && left.charAt(i - 1) == right.charAt(j - 2)
+                        && left.charAt(i - 2) == right.charAt(j - 1)) {
+                    value = Math.min(value, twoRowsBack[j - 2] + 1);
+                }
+                row[j] = value;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            if (rowMinimum > max) {
+                return max + 1;
+            }
+        }
+        return Math.min(row[right.length()], max + 1);
+    }
+}
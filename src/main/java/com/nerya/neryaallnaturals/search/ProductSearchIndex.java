@@ -0,0 +1,349 @@
+package com.nerya.neryaallnaturals.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the searchable product fields, ranked with BM25F.
+ *
+ * Every indexed version of a product gets the next ordinal, so posting lists are always
+ * sorted by ordinal and queries intersect them with galloping search. Updating a product
+ * tombstones its previous ordinal and appends the new version; once tombstones pile up the
+ * owner rebuilds a compact index from {@link #documents()}.
+ *
+ * A single writer and any number of readers share the index under a read/write lock.
+ */
+public final class ProductSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final int FIELD_BITS = 5;
+    private static final int MAX_FIELD_FREQUENCY = (1 << FIELD_BITS) - 1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_TOMBSTONES_FOR_COMPACTION = 1024;
+    private static final long NO_CATEGORY = -1;
+
+    private static final SearchField[] FIELDS = SearchField.all();
+
+    /**
+     * One ranked match
+     */
+    public record Hit(Long productId, float score) {
+    }
+
+    /**
+     * A page of ranked matches plus the total number of matching products
+     */
+    public record Hits(int totalHits, List<Hit> hits) {
+
+        static final Hits EMPTY = new Hits(0, List.of());
+    }
+
+    /**
+     * Documents containing a term, with the term frequency of every field packed
+     * into one int ({@value #FIELD_BITS} bits per field, capped at {@value #MAX_FIELD_FREQUENCY})
+     */
+    private static final class PostingList {
+
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+        private int liveDocumentFrequency;
+
+        void add(int ordinal, int packedFrequencies) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = packedFrequencies;
+            size++;
+            liveDocumentFrequency++;
+        }
+
+        /**
+         * Position of the first ordinal >= target at or after {@code from}
+         */
+        int advance(int from, int target) {
+            if (from >= size || ordinals[from] >= target) {
+                return from;
+            }
+            int low = from;
+            int step = 1;
+            int high = from + step;
+            while (high < size && ordinals[high] < target) {
+                low = high;
+                step <<= 1;
+                high = low + step;
+            }
+            int index = Arrays.binarySearch(ordinals, low + 1, Math.min(high + 1, size), target);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinalsByProductId = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final BitSet activeOrdinals = new BitSet();
+    private final long[] totalFieldLengths = new long[FIELDS.length];
+    private SearchDocument[] documents = new SearchDocument[INITIAL_CAPACITY];
+    private long[] categoryIds = new long[INITIAL_CAPACITY];
+    private int[][] fieldLengths = new int[FIELDS.length][INITIAL_CAPACITY];
+    private int ordinalCount;
+    private int liveCount;
+
+    /**
+     * Build an index over the given documents
+     */
+    public static ProductSearchIndex build(Collection<SearchDocument> documents) {
+        ProductSearchIndex index = new ProductSearchIndex();
+        documents.forEach(index::add);
+        return index;
+    }
+
+    /**
+     * Index a new product or replace the indexed version of an existing one
+     */
+    public void upsert(SearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            remove(document.productId());
+            add(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a product from the index; unknown IDs are ignored
+     */
+    public void delete(Long productId) {
+        lock.writeLock().lock();
+        try {
+            remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether enough replaced or deleted versions accumulated to make a rebuild worthwhile
+     */
+    public boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            int tombstones = ordinalCount - liveCount;
+            return tombstones >= MIN_TOMBSTONES_FOR_COMPACTION && tombstones * 4 >= ordinalCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Current version of every indexed product
+     */
+    public List<SearchDocument> documents() {
+        lock.readLock().lock();
+        try {
+            List<SearchDocument> result = new ArrayList<>(liveCount);
+            for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                result.add(documents[ordinal]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether any indexed product contains the analyzed term
+     */
+    public boolean contains(String term) {
+        lock.readLock().lock();
+        try {
+            PostingList list = postings.get(term);
+            return list != null && list.liveDocumentFrequency > 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the products matching every query term, best first
+     *
+     * @param terms analyzed query terms
+     * @param categoryId only products of this category, or null for all
+     * @param active only products with this active flag, or null for both
+     * @param limit number of top hits to return
+     */
+    public Hits search(List<String> terms, Long categoryId, Boolean active, int limit) {
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0 || terms.isEmpty()) {
+                return Hits.EMPTY;
+            }
+
+            List<PostingList> lists = new ArrayList<>();
+            for (String term : new LinkedHashSet<>(terms)) {
+                PostingList list = postings.get(term);
+                if (list == null || list.liveDocumentFrequency == 0) {
+                    return Hits.EMPTY;
+                }
+                lists.add(list);
+            }
+            // Drive the intersection from the rarest term
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            float[] idf = new float[lists.size()];
+            for (int i = 0; i < idf.length; i++) {
+                int df = lists.get(i).liveDocumentFrequency;
+                idf[i] = (float) Math.log(1 + (liveCount - df + 0.5) / (df + 0.5));
+            }
+            float[] averageLengths = new float[FIELDS.length];
+            for (int f = 0; f < FIELDS.length; f++) {
+                averageLengths[f] = Math.max(1f, (float) totalFieldLengths[f] / liveCount);
+            }
+
+            // Min-heap on (score, then higher product ID) so the weakest hit is evicted first
+            Comparator<Hit> worstFirst = Comparator.comparingDouble(Hit::score)
+                    .thenComparing(Hit::productId, Comparator.reverseOrder());
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(1, limit), worstFirst);
+            int totalHits = 0;
+
+            PostingList lead = lists.get(0);
+            int[] positions = new int[lists.size()];
+            candidates:
+            for (int i = 0; i < lead.size; i++) {
+                int ordinal = lead.ordinals[i];
+                if (!live.get(ordinal)) {
+                    continue;
+                }
+                if ((active != null && activeOrdinals.get(ordinal) != active)
+                        || (categoryId != null && categoryIds[ordinal] != categoryId)) {
+                    continue;
+                }
+
+                float score = score(lead.frequencies[i], ordinal, idf[0], averageLengths);
+                for (int j = 1; j < lists.size(); j++) {
+                    PostingList list = lists.get(j);
+                    int position = list.advance(positions[j], ordinal);
+                    positions[j] = position;
+                    if (position == list.size || list.ordinals[position] != ordinal) {
+                        continue candidates;
+                    }
+                    score += score(list.frequencies[position], ordinal, idf[j], averageLengths);
+                }
+
+                totalHits++;
+                if (top.size() < limit) {
+                    top.offer(new Hit(documents[ordinal].productId(), score));
+                } else if (limit > 0 && score >= top.peek().score()) {
+                    Hit hit = new Hit(documents[ordinal].productId(), score);
+                    if (worstFirst.compare(hit, top.peek()) > 0) {
+                        top.poll();
+                        top.offer(hit);
+                    }
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(worstFirst.reversed());
+            return new Hits(totalHits, hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * BM25F: length-normalized, boosted field frequencies are summed before saturation
+     */
+    private float score(int packedFrequencies, int ordinal, float idf, float[] averageLengths) {
+        float weighted = 0;
+        for (int f = 0; f < FIELDS.length; f++) {
+            int frequency = (packedFrequencies >>> (f * FIELD_BITS)) & MAX_FIELD_FREQUENCY;
+            if (frequency == 0) {
+                continue;
+            }
+            float b = FIELDS[f].getLengthNormalization();
+            float norm = 1 - b + b * fieldLengths[f][ordinal] / averageLengths[f];
+            weighted += FIELDS[f].getBoost() * frequency / norm;
+        }
+        return idf * weighted * (K1 + 1) / (K1 + weighted);
+    }
+
+    private void add(SearchDocument document) {
+        int ordinal = ordinalCount++;
+        ensureCapacity(ordinalCount);
+        documents[ordinal] = document;
+        categoryIds[ordinal] = document.categoryId() != null ? document.categoryId() : NO_CATEGORY;
+        activeOrdinals.set(ordinal, document.active());
+
+        Map<String, Integer> packedByTerm = new HashMap<>();
+        for (int f = 0; f < FIELDS.length; f++) {
+            List<String> terms = ProductTextAnalyzer.analyze(document.text(FIELDS[f]));
+            fieldLengths[f][ordinal] = terms.size();
+            totalFieldLengths[f] += terms.size();
+            int shift = f * FIELD_BITS;
+            for (String term : terms) {
+                packedByTerm.merge(term, 1 << shift, (packed, one) ->
+                        ((packed >>> shift) & MAX_FIELD_FREQUENCY) == MAX_FIELD_FREQUENCY ? packed : packed + one);
+            }
+        }
+        packedByTerm.forEach((term, packed) -> postings.computeIfAbsent(term, key -> new PostingList()).add(ordinal, packed));
+
+        live.set(ordinal);
+        liveCount++;
+        ordinalsByProductId.put(document.productId(), ordinal);
+    }
+
+    private void remove(Long productId) {
+        Integer ordinal = ordinalsByProductId.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        SearchDocument document = documents[ordinal];
+        Set<String> terms = new HashSet<>();
+        for (int f = 0; f < FIELDS.length; f++) {
+            terms.addAll(ProductTextAnalyzer.analyze(document.text(FIELDS[f])));
+            totalFieldLengths[f] -= fieldLengths[f][ordinal];
+        }
+        terms.forEach(term -> postings.get(term).liveDocumentFrequency--);
+
+        live.clear(ordinal);
+        liveCount--;
+        documents[ordinal] = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= documents.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, documents.length * 2);
+        documents = Arrays.copyOf(documents, newCapacity);
+        categoryIds = Arrays.copyOf(categoryIds, newCapacity);
+        for (int f = 0; f < FIELDS.length; f++) {
+            fieldLengths[f] = Arrays.copyOf(fieldLengths[f], newCapacity);
+        }
+    }
+}
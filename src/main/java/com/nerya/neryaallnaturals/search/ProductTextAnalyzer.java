@@ -0,0 +1,118 @@
+package com.nerya.neryaallnaturals.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns product text and search queries into index terms.
+ *
+ * Text is lower-cased with accents stripped (so an accented "acai" matches the plain one), split on
+ * anything that is not a letter or digit, stripped of English stopwords and reduced with a
+ * light stemmer. Product copy is short and full of brand and ingredient names, so the
+ * stemmer only folds plurals and the common -ing/-ed/-e endings rather than running a full
+ * Porter pass that would mangle them. Tokens containing digits (sizes, SKU parts) are
+ * never stemmed.
+ */
+public final class ProductTextAnalyzer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "this", "that", "to", "with");
+
+    private ProductTextAnalyzer() {
+    }
+
+    /**
+     * Analyze free text into terms, in order of appearance and with repeats
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String folded = fold(text);
+
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String term = toTerm(folded.substring(start, i));
+                if (term != null) {
+                    terms.add(term);
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Lower-case the text and strip accents, without splitting it
+     */
+    public static String fold(String text) {
+        return COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static String toTerm(String token) {
+        if (STOPWORDS.contains(token)) {
+            return null;
+        }
+        boolean hasDigit = token.chars().anyMatch(Character::isDigit);
+        if (token.length() == 1 && !hasDigit) {
+            return null;
+        }
+        return hasDigit ? token : stem(token);
+    }
+
+    /**
+     * Light English stemmer: plural folding, then -ing/-ed, then a trailing silent e,
+     * each applied only when a reasonably long stem remains.
+     */
+    static String stem(String word) {
+        String stem = word;
+        int length = stem.length();
+        if (length > 4 && stem.endsWith("ies")) {
+            stem = stem.substring(0, length - 3) + "y";
+        } else if (length > 4 && (stem.endsWith("sses") || stem.endsWith("xes") || stem.endsWith("zes")
+                || stem.endsWith("ches") || stem.endsWith("shes"))) {
+            stem = stem.substring(0, length - 2);
+        } else if (length > 3 && stem.endsWith("s") && !stem.endsWith("ss")
+                && !stem.endsWith("us") && !stem.endsWith("is")) {
+            stem = stem.substring(0, length - 1);
+        }
+
+        if (stem.length() > 6 && stem.endsWith("ing")) {
+            stem = undouble(stem.substring(0, stem.length() - 3));
+        } else if (stem.length() > 4 && stem.endsWith("ied")) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.length() > 5 && stem.endsWith("ed") && !stem.endsWith("eed")) {
+            stem = undouble(stem.substring(0, stem.length() - 2));
+        }
+
+        if (stem.length() > 4 && stem.endsWith("e") && !stem.endsWith("ee")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    /**
+     * "blending" -> "blend" but "chopping" -> "chop"
+     */
+    private static String undouble(String stem) {
+        int length = stem.length();
+        if (length > 3 && stem.charAt(length - 1) == stem.charAt(length - 2)
+                && "bdfgmnprt".indexOf(stem.charAt(length - 1)) >= 0) {
+            return stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,46 @@
+package com.nerya.neryaallnaturals.search;
+
+import com.nerya.neryaallnaturals.entity.Product;
+
+import java.util.List;
+
+/**
+ * The searchable view of a product, detached from the persistence context.
+ */
+public record SearchDocument(Long productId,
+                             Long categoryId,
+                             boolean active,
+                             String name,
+                             String brand,
+                             String sku,
+                             List<String> tags,
+                             String shortDescription,
+                             String longDescription) {
+
+    public static SearchDocument fromEntity(Product product) {
+        return new SearchDocument(
+                product.getId(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                Boolean.TRUE.equals(product.getIsActive()),
+                product.getName(),
+                product.getBrand(),
+                product.getSku(),
+                product.getTags() != null ? List.copyOf(product.getTags()) : List.of(),
+                product.getShortDescription(),
+                product.getLongDescription());
+    }
+
+    /**
+     * Raw text of one field
+     */
+    public String text(SearchField field) {
+        return switch (field) {
+            case NAME -> name;
+            case BRAND -> brand;
+            case TAGS -> String.join(" ", tags);
+            case SKU -> sku;
+            case SHORT_DESCRIPTION -> shortDescription;
+            case LONG_DESCRIPTION -> longDescription;
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.nerya.neryaallnaturals.search;
+
+/**
+ * Indexed product fields with their BM25F boost and length normalization.
+ * Short identifying fields weigh most; the long description mostly breaks ties.
+ */
+public enum SearchField {
+
+    NAME(3.0f, 0.5f),
+    BRAND(2.0f, 0.0f),
+    TAGS(2.0f, 0.3f),
+    SKU(4.0f, 0.0f),
+    SHORT_DESCRIPTION(1.0f, 0.75f),
+    LONG_DESCRIPTION(0.4f, 0.75f);
+
+    private static final SearchField[] VALUES = values();
+
+    private final float boost;
+    private final float lengthNormalization;
+
+    SearchField(float boost, float lengthNormalization) {
+        this.boost = boost;
+        this.lengthNormalization = lengthNormalization;
+    }
+
+    public float getBoost() {
+        return boost;
+    }
+
+    /**
+     * BM25 {@code b} parameter: 0 ignores field length, 1 fully normalizes by it
+     */
+    public float getLengthNormalization() {
+        return lengthNormalization;
+    }
+
+    static SearchField[] all() {
+        return VALUES;
+    }
+}
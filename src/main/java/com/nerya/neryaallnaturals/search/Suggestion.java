@@ -0,0 +1,12 @@
+package com.nerya.neryaallnaturals.search;
+
+/**
+ * One typeahead completion
+ *
+ * @param text text to display and to search for when picked
+ * @param type what the text names
+ * @param productId the product for PRODUCT and SKU suggestions, null for brands and tags
+ * @param weight popularity used for ranking; brands and tags sum their products' weights
+ */
+public record Suggestion(String text, SuggestionType type, Long productId, float weight) {
+}
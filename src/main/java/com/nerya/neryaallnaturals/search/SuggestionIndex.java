@@ -0,0 +1,269 @@
+package com.nerya.neryaallnaturals.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable prefix index for typeahead completions.
+ *
+ * Every suggestion is indexed under its normalized text and under each later word start
+ * ("raw forest honey" is also found by "forest" and "honey", at a reduced weight). The keys
+ * live in one sorted array, so the completions of a prefix are a contiguous range found by
+ * two binary searches. Short ranges are scanned for the top hits; for prefixes with more than
+ * {@value #SCAN_LIMIT} keys the best hits are precomputed at build time, which keeps every
+ * lookup bounded no matter how common the first letters typed are.
+ */
+public final class SuggestionIndex {
+
+    /**
+     * Most completions a lookup returns
+     */
+    public static final int MAX_LIMIT = 20;
+
+    private static final int SCAN_LIMIT = 512;
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final float LATER_WORD_FACTOR = 0.5f;
+
+    /**
+     * A completion with the weight of the key it was found under
+     */
+    public record Match(Suggestion suggestion, float score) {
+    }
+
+    private record Key(String key, int ordinal, float weight) {
+    }
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::key)
+            .thenComparing(Comparator.comparingDouble(Key::weight).reversed());
+
+    public static final SuggestionIndex EMPTY = build(List.of());
+
+    private final Suggestion[] suggestions;
+    private final String[] keys;
+    private final int[] ordinals;
+    private final float[] weights;
+    private final Map<String, int[]> precomputed = new HashMap<>();
+
+    private SuggestionIndex(Suggestion[] suggestions, List<Key> sortedKeys) {
+        this.suggestions = suggestions;
+        int size = sortedKeys.size();
+        this.keys = new String[size];
+        this.ordinals = new int[size];
+        this.weights = new float[size];
+        for (int i = 0; i < size; i++) {
+            Key key = sortedKeys.get(i);
+            keys[i] = key.key();
+            ordinals[i] = key.ordinal();
+            weights[i] = key.weight();
+        }
+        precomputeDenseRanges(0, size, 0);
+    }
+
+    /**
+     * Index the given suggestions
+     */
+    public static SuggestionIndex build(Collection<Suggestion> suggestions) {
+        Suggestion[] array = suggestions.toArray(new Suggestion[0]);
+        List<Key> keys = new ArrayList<>();
+        for (int ordinal = 0; ordinal < array.length; ordinal++) {
+            addKeys(keys, array[ordinal], ordinal);
+        }
+        keys.sort(KEY_ORDER);
+        return new SuggestionIndex(array, keys);
+    }
+
+    /**
+     * Copy of this index with every suggestion of the changed products replaced by
+     * {@code added}. Only the new keys are sorted; they are merged into the existing
+     * order in linear time.
+     */
+    public SuggestionIndex withProducts(Collection<Long> changedProductIds, Collection<Suggestion> added) {
+        List<Suggestion> retained = new ArrayList<>(suggestions.length + added.size());
+        int[] remapped = new int[suggestions.length];
+        for (int ordinal = 0; ordinal < suggestions.length; ordinal++) {
+            Long productId = suggestions[ordinal].productId();
+            if (productId != null && changedProductIds.contains(productId)) {
+                remapped[ordinal] = -1;
+            } else {
+                remapped[ordinal] = retained.size();
+                retained.add(suggestions[ordinal]);
+            }
+        }
+
+        List<Key> newKeys = new ArrayList<>();
+        for (Suggestion suggestion : added) {
+            addKeys(newKeys, suggestion, retained.size());
+            retained.add(suggestion);
+        }
+        newKeys.sort(KEY_ORDER);
+
+        List<Key> merged = new ArrayList<>(keys.length + newKeys.size());
+        int next = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int ordinal = remapped[ordinals[i]];
+            if (ordinal < 0) {
+                continue;
+            }
+            Key existing = new Key(keys[i], ordinal, weights[i]);
+            while (next < newKeys.size() && KEY_ORDER.compare(newKeys.get(next), existing) < 0) {
+                merged.add(newKeys.get(next++));
+            }
+            merged.add(existing);
+        }
+        merged.addAll(newKeys.subList(next, newKeys.size()));
+        return new SuggestionIndex(retained.toArray(new Suggestion[0]), merged);
+    }
+
+    public int size() {
+        return suggestions.length;
+    }
+
+    /**
+     * Best completions of a prefix, highest score first
+     *
+     * @param text text typed so far
+     * @param limit number of completions, at most {@value #MAX_LIMIT}
+     */
+    public List<Match> lookup(String text, int limit) {
+        String prefix = normalize(text);
+        if (prefix.isEmpty() || keys.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        int from = lowerBound(prefix);
+        int to = lowerBound(prefix + Character.MAX_VALUE);
+        if (from >= to) {
+            return List.of();
+        }
+
+        int[] positions = to - from > SCAN_LIMIT ? precomputed.get(prefix) : null;
+        if (positions == null) {
+            positions = topPositions(from, to, limit);
+        }
+        int count = Math.min(limit, positions.length);
+        List<Match> matches = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            matches.add(new Match(suggestions[ordinals[positions[i]]], weights[positions[i]]));
+        }
+        return matches;
+    }
+
+    /**
+     * Normalize text for indexing and lookups: folded case and accents, words separated
+     * by single spaces
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = ProductTextAnalyzer.fold(text);
+        StringBuilder normalized = new StringBuilder(Math.min(folded.length(), MAX_KEY_LENGTH));
+        boolean pendingSpace = false;
+        for (int i = 0; i < folded.length() && normalized.length() < MAX_KEY_LENGTH; i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static void addKeys(List<Key> keys, Suggestion suggestion, int ordinal) {
+        String text = normalize(suggestion.text());
+        if (text.isEmpty()) {
+            return;
+        }
+        keys.add(new Key(text, ordinal, suggestion.weight()));
+        for (int i = text.indexOf(' '); i >= 0; i = text.indexOf(' ', i + 1)) {
+            keys.add(new Key(text.substring(i + 1), ordinal, suggestion.weight() * LATER_WORD_FACTOR));
+        }
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Positions of the best keys in [from, to), at most one per suggestion, best first
+     */
+    private int[] topPositions(int from, int to, int limit) {
+        int[] best = new int[limit];
+        int count = 0;
+        for (int position = from; position < to; position++) {
+            float weight = weights[position];
+            if (count == limit && weight <= weights[best[count - 1]]) {
+                continue;
+            }
+            int duplicate = -1;
+            for (int i = 0; i < count; i++) {
+                if (ordinals[best[i]] == ordinals[position]) {
+                    duplicate = i;
+                    break;
+                }
+            }
+            if (duplicate >= 0) {
+                if (weight <= weights[best[duplicate]]) {
+                    continue;
+                }
+                System.arraycopy(best, duplicate + 1, best, duplicate, count - duplicate - 1);
+                count--;
+            }
+            int insert = Math.min(count, limit - 1);
+            while (insert > 0 && weights[best[insert - 1]] < weight) {
+                best[insert] = best[insert - 1];
+                insert--;
+            }
+            best[insert] = position;
+            count = Math.min(count + 1, limit);
+        }
+        return count == limit ? best : Arrays.copyOf(best, count);
+    }
+
+    /**
+     * Precompute the top positions of every prefix whose key range is too long to scan.
+     * Keys in [from, to) share their first {@code depth} characters; only ranges that are
+     * still dense are split further, so sparse parts of the key space are never revisited.
+     */
+    private void precomputeDenseRanges(int from, int to, int depth) {
+        if (depth >= MAX_KEY_LENGTH) {
+            return;
+        }
+        int start = from;
+        // A key equal to the shared prefix sorts before all its extensions
+        while (start < to && keys[start].length() <= depth) {
+            start++;
+        }
+        while (start < to) {
+            char next = keys[start].charAt(depth);
+            int end = start + 1;
+            while (end < to && keys[end].charAt(depth) == next) {
+                end++;
+            }
+            if (end - start > SCAN_LIMIT) {
+                precomputed.put(keys[start].substring(0, depth + 1), topPositions(start, end, MAX_LIMIT));
+                precomputeDenseRanges(start, end, depth + 1);
+            }
+            start = end;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.nerya.neryaallnaturals.search;
+
+/**
+ * What a typeahead suggestion completes to
+ */
+public enum SuggestionType {
+    PRODUCT,
+    BRAND,
+    TAG,
+    SKU
+}
@@ -0,0 +1,168 @@
+package com.nerya.neryaallnaturals.search;
+
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable tag to products index over the active catalog.
+ *
+ * Every tag maps to a compressed bitmap of the IDs of its products, so the product count of
+ * a tag is the bitmap cardinality and AND/OR over several tags are bitmap operations. Tags are
+ * matched case and accent insensitively; the first spelling seen is kept for display.
+ *
+ * {@link #withProducts} derives the next index by copying only the bitmaps of the tags the
+ * changed products gained or lost; untouched bitmaps are shared between versions and never
+ * modified once published.
+ */
+public final class TagIndex {
+
+    public static final TagIndex EMPTY = new TagIndex(Map.of(), Map.of());
+
+    /**
+     * A tag with the number of products carrying it
+     */
+    public record TagCount(String tag, int count) {
+    }
+
+    private record Entry(String label, RoaringBitmap productIds) {
+    }
+
+    private final Map<String, Entry> entries;
+    private final Map<Long, Set<String>> keysByProduct;
+
+    private TagIndex(Map<String, Entry> entries, Map<Long, Set<String>> keysByProduct) {
+        this.entries = entries;
+        this.keysByProduct = keysByProduct;
+    }
+
+    /**
+     * Index the tags of the given products
+     */
+    public static TagIndex build(Collection<ProductResponse> products) {
+        return EMPTY.withProducts(List.of(), products);
+    }
+
+    /**
+     * Copy of this index with the tags of the changed products replaced by those of
+     * {@code current}; changed products missing from {@code current} are dropped
+     *
+     * @param changedProductIds products whose tags may have changed or that were removed
+     * @param current current version of the changed products that are still active
+     */
+    public TagIndex withProducts(Collection<Long> changedProductIds, Collection<ProductResponse> current) {
+        Map<String, Entry> nextEntries = new HashMap<>(entries);
+        Map<Long, Set<String>> nextKeys = new HashMap<>(keysByProduct);
+        Set<String> copied = new HashSet<>();
+
+        for (Long productId : changedProductIds) {
+            Set<String> previous = nextKeys.remove(productId);
+            if (previous == null) {
+                continue;
+            }
+            for (String key : previous) {
+                Entry entry = writable(nextEntries, copied, key, null);
+                entry.productIds().remove(productKey(productId));
+                if (entry.productIds().isEmpty()) {
+                    nextEntries.remove(key);
+                    copied.remove(key);
+                }
+            }
+        }
+
+        for (ProductResponse product : current) {
+            if (product.getTags() == null || product.getTags().isEmpty()) {
+                continue;
+            }
+            Set<String> keys = new LinkedHashSet<>();
+            for (String tag : product.getTags()) {
+                String key = normalize(tag);
+                if (!key.isEmpty() && keys.add(key)) {
+                    writable(nextEntries, copied, key, tag.trim()).productIds().add(productKey(product.getId()));
+                }
+            }
+            nextKeys.put(product.getId(), Set.copyOf(keys));
+        }
+
+        copied.forEach(key -> nextEntries.get(key).productIds().runOptimize());
+        return new TagIndex(Map.copyOf(nextEntries), nextKeys);
+    }
+
+    /**
+     * Every tag with its product count, most used first
+     */
+    public List<TagCount> tags() {
+        List<TagCount> tags = new ArrayList<>(entries.size());
+        entries.values().forEach(entry -> tags.add(new TagCount(entry.label(), entry.productIds().getCardinality())));
+        tags.sort(Comparator.comparingInt(TagCount::count).reversed()
+                .thenComparing(TagCount::tag, String.CASE_INSENSITIVE_ORDER));
+        return tags;
+    }
+
+    /**
+     * IDs of the products carrying all (or any) of the tags. The result is a new bitmap
+     * the caller may modify.
+     */
+    public RoaringBitmap match(Collection<String> tags, boolean matchAll) {
+        RoaringBitmap result = null;
+        for (String tag : new LinkedHashSet<>(tags)) {
+            Entry entry = entries.get(normalize(tag));
+            if (entry == null) {
+                if (matchAll) {
+                    return new RoaringBitmap();
+                }
+                continue;
+            }
+            if (result == null) {
+                result = entry.productIds().clone();
+            } else if (matchAll) {
+                result.and(entry.productIds());
+            } else {
+                result.or(entry.productIds());
+            }
+        }
+        return result != null ? result : new RoaringBitmap();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Bitmap key of a product ID; catalog IDs are far below the int range
+     */
+    public static int productKey(Long productId) {
+        return Math.toIntExact(productId);
+    }
+
+    private static String normalize(String tag) {
+        return tag == null ? "" : ProductTextAnalyzer.fold(tag.trim());
+    }
+
+    /**
+     * Entry for the key that is private to the index being built, copying the shared one
+     * on first write
+     */
+    private static Entry writable(Map<String, Entry> entries, Set<String> copied, String key, String label) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(label, new RoaringBitmap());
+        } else if (!copied.contains(key)) {
+            entry = new Entry(entry.label(), entry.productIds().clone());
+        } else {
+            return entry;
+        }
+        entries.put(key, entry);
+        copied.add(key);
+        return entry;
+    }
+}
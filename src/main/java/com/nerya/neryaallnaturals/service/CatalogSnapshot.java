@@ -0,0 +1,344 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.dto.CategoryResponse;
+import com.nerya.neryaallnaturals.dto.CursorPage;
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.dto.ProductSort;
+import com.nerya.neryaallnaturals.util.CursorCodec;
+import com.nerya.neryaallnaturals.util.HttpCaching;
+
+import java.text.CollationKey;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable, fully materialized view of the public catalog: all active products and
+ * all categories, with product lists presorted for every {@link ProductSort} globally
+ * and per category. Instances are never modified after construction; changes produce
+ * a new snapshot that is swapped in by {@link CatalogSnapshotService}.
+ * The contained DTOs are shared between readers and must not be mutated; a stock change
+ * replaces them with patched copies in a new snapshot as well.
+ *
+ * Product names are compared through collation keys computed once per product when the
+ * snapshot is built (and carried over from the previous snapshot while the name stays the
+ * same), so neither sorting nor cursor searches go through a shared collator.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final LocalDateTime builtAt;
+    private final LocalDateTime lastModified;
+    private final long stockGeneration;
+    private final long productsFingerprint;
+    private final long categoriesFingerprint;
+    private final HttpCaching.Validators productListValidators;
+    private final HttpCaching.Validators categoryListValidators;
+    private final Map<Long, ProductResponse> productsById;
+    private final Map<Long, CollationKey> nameKeys;
+    private final Map<ProductSort, List<ProductResponse>> productsBySort;
+    private final Map<Long, Map<ProductSort, List<ProductResponse>>> categoryProductsBySort;
+    private final Map<Long, CategoryResponse> categoriesById;
+    private final List<CategoryResponse> activeCategories;
+    private final List<CategoryResponse> parentCategories;
+
+    /**
+     * Build a snapshot
+     *
+     * @param version version number of this build
+     * @param products active products
+     * @param categories all categories
+     * @param lastModified latest change to any product or category, including deactivations
+     */
+    public CatalogSnapshot(long version, Collection<ProductResponse> products, Collection<CategoryResponse> categories,
+                           LocalDateTime lastModified) {
+        this(version, products, categories, lastModified, 0, Map.of());
+    }
+
+    private CatalogSnapshot(long version, Collection<ProductResponse> products, Collection<CategoryResponse> categories,
+                            LocalDateTime lastModified, long stockGeneration, Map<Long, CollationKey> previousNameKeys) {
+        this.version = version;
+        this.builtAt = LocalDateTime.now();
+        this.lastModified = lastModified != null ? lastModified : builtAt;
+        this.stockGeneration = stockGeneration;
+
+        long productsFingerprint = 0;
+        Map<Long, ProductResponse> byId = new HashMap<>(Math.max(16, products.size() * 2));
+        Map<Long, List<ProductResponse>> byCategory = new HashMap<>();
+        Map<Long, CollationKey> keys = new HashMap<>(Math.max(16, products.size() * 2));
+        for (ProductResponse product : products) {
+            productsFingerprint = HttpCaching.fingerprint(productsFingerprint, product.getId(), product.getUpdatedAt());
+            byId.put(product.getId(), product);
+            String name = product.getName() != null ? product.getName() : "";
+            CollationKey key = previousNameKeys.get(product.getId());
+            keys.put(product.getId(), key != null && key.getSourceString().equals(name) ? key : ProductSort.nameKey(name));
+            if (product.getCategoryId() != null) {
+                byCategory.computeIfAbsent(product.getCategoryId(), key -> new ArrayList<>()).add(product);
+            }
+        }
+        this.productsFingerprint = productsFingerprint;
+        this.productsById = Map.copyOf(byId);
+        this.nameKeys = Map.copyOf(keys);
+        this.productsBySort = sortAll(byId.values());
+
+        Map<Long, Map<ProductSort, List<ProductResponse>>> categoryLists = new HashMap<>();
+        byCategory.forEach((categoryId, categoryProducts) -> categoryLists.put(categoryId, sortAll(categoryProducts)));
+        this.categoryProductsBySort = Map.copyOf(categoryLists);
+
+        List<CategoryResponse> sortedCategories = new ArrayList<>(categories);
+        sortedCategories.sort(Comparator.comparing(CategoryResponse::getId));
+        long categoriesFingerprint = 0;
+        Map<Long, CategoryResponse> categoryMap = new HashMap<>();
+        for (CategoryResponse category : sortedCategories) {
+            categoriesFingerprint = HttpCaching.fingerprint(categoriesFingerprint, category.getId(), category.getUpdatedAt());
+            categoryMap.put(category.getId(), category);
+        }
+        this.categoriesFingerprint = categoriesFingerprint;
+        this.categoriesById = Map.copyOf(categoryMap);
+        this.activeCategories = sortedCategories.stream()
+                .filter(category -> Boolean.TRUE.equals(category.getIsActive()))
+                .toList();
+        this.parentCategories = sortedCategories.stream()
+                .filter(category -> category.getParentId() == null)
+                .toList();
+
+        this.productListValidators = productListValidators();
+        this.categoryListValidators = HttpCaching.Validators.ofAggregate("cl", categoriesFingerprint, this.lastModified);
+    }
+
+    /**
+     * Stock patch: the previous snapshot with some products replaced by copies that differ
+     * only in their stock fields and update time. Sort keys, names and categories are the
+     * same, so the presorted lists keep their order and only the replaced elements change.
+     */
+    private CatalogSnapshot(CatalogSnapshot previous, long version, Map<Long, ProductResponse> patched,
+                            LocalDateTime lastModified) {
+        this.version = version;
+        this.builtAt = LocalDateTime.now();
+        this.lastModified = lastModified;
+        this.stockGeneration = previous.stockGeneration + 1;
+
+        long fingerprint = previous.productsFingerprint;
+        Map<Long, ProductResponse> byId = new HashMap<>(previous.productsById);
+        Map<Long, Map<ProductSort, List<ProductResponse>>> categoryLists = new HashMap<>(previous.categoryProductsBySort);
+        for (ProductResponse product : patched.values()) {
+            ProductResponse old = byId.put(product.getId(), product);
+            // The fingerprint is an XOR of its members, so swap out the old member
+            fingerprint = HttpCaching.fingerprint(fingerprint, old.getId(), old.getUpdatedAt());
+            fingerprint = HttpCaching.fingerprint(fingerprint, product.getId(), product.getUpdatedAt());
+            if (product.getCategoryId() != null) {
+                categoryLists.computeIfPresent(product.getCategoryId(),
+                        (categoryId, lists) -> lists == previous.categoryProductsBySort.get(categoryId)
+                                ? replaceAll(lists, patched)
+                                : lists);
+            }
+        }
+        this.productsFingerprint = fingerprint;
+        this.productsById = Map.copyOf(byId);
+        this.nameKeys = previous.nameKeys;
+        this.productsBySort = replaceAll(previous.productsBySort, patched);
+        this.categoryProductsBySort = Map.copyOf(categoryLists);
+
+        this.categoriesFingerprint = previous.categoriesFingerprint;
+        this.categoriesById = previous.categoriesById;
+        this.activeCategories = previous.activeCategories;
+        this.parentCategories = previous.parentCategories;
+
+        this.productListValidators = productListValidators();
+        this.categoryListValidators = previous.categoryListValidators;
+    }
+
+    private HttpCaching.Validators productListValidators() {
+        // Product DTOs embed category names, so product lists depend on both fingerprints.
+        // Update times only have second precision, so the stock generation tells apart two
+        // stock patches within the same second.
+        return HttpCaching.Validators.ofAggregate("pl", productsFingerprint
+                ^ Long.rotateLeft(categoriesFingerprint, 17)
+                ^ Long.rotateLeft(stockGeneration * 0x9E3779B97F4A7C15L, 41), lastModified);
+    }
+
+    private static Map<ProductSort, List<ProductResponse>> replaceAll(Map<ProductSort, List<ProductResponse>> lists,
+                                                                      Map<Long, ProductResponse> replacements) {
+        Map<ProductSort, List<ProductResponse>> replaced = new EnumMap<>(ProductSort.class);
+        lists.forEach((sort, list) -> replaced.put(sort, list.stream()
+                .map(product -> replacements.getOrDefault(product.getId(), product))
+                .toList()));
+        return replaced;
+    }
+
+    private Map<ProductSort, List<ProductResponse>> sortAll(Collection<ProductResponse> products) {
+        Map<ProductSort, List<ProductResponse>> sorted = new EnumMap<>(ProductSort.class);
+        for (ProductSort sort : ProductSort.values()) {
+            List<ProductResponse> list = new ArrayList<>(products);
+            list.sort((left, right) -> sort.compare(sortKey(left, sort), left.getId(), sortKey(right, sort),
+                    right.getId()));
+            sorted.put(sort, List.copyOf(list));
+        }
+        return sorted;
+    }
+
+    /**
+     * Copy-on-write update: a new snapshot with the given products replaced or removed.
+     * Inactive products in {@code changed} are removed, as are IDs in {@code removedIds}.
+     */
+    public CatalogSnapshot withProducts(long newVersion, Collection<ProductResponse> changed, Collection<Long> removedIds) {
+        LocalDateTime newLastModified = removedIds.isEmpty() ? lastModified : LocalDateTime.now();
+        Map<Long, ProductResponse> products = new HashMap<>(productsById);
+        removedIds.forEach(products::remove);
+        for (ProductResponse product : changed) {
+            if (product.getUpdatedAt() != null && product.getUpdatedAt().isAfter(newLastModified)) {
+                newLastModified = product.getUpdatedAt();
+            }
+            if (Boolean.TRUE.equals(product.getIsActive())) {
+                products.put(product.getId(), product);
+            } else {
+                products.remove(product.getId());
+            }
+        }
+        return new CatalogSnapshot(newVersion, products.values(), categoriesById.values(), newLastModified,
+                stockGeneration, nameKeys);
+    }
+
+    /**
+     * Copy-on-write stock update: a new snapshot with the given products replaced. Each
+     * replacement must be a copy of the product in this snapshot with only the quantity,
+     * minimum quantity and update time changed; unknown products are ignored.
+     */
+    public CatalogSnapshot withStock(long newVersion, Collection<ProductResponse> patched) {
+        LocalDateTime newLastModified = lastModified;
+        Map<Long, ProductResponse> replacements = new HashMap<>();
+        for (ProductResponse product : patched) {
+            if (!productsById.containsKey(product.getId())) {
+                continue;
+            }
+            if (product.getUpdatedAt() != null && product.getUpdatedAt().isAfter(newLastModified)) {
+                newLastModified = product.getUpdatedAt();
+            }
+            replacements.put(product.getId(), product);
+        }
+        return new CatalogSnapshot(this, newVersion, replacements, newLastModified);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Validators shared by every product listing served from this snapshot
+     */
+    public HttpCaching.Validators getProductListValidators() {
+        return productListValidators;
+    }
+
+    /**
+     * Validators shared by every category listing served from this snapshot
+     */
+    public HttpCaching.Validators getCategoryListValidators() {
+        return categoryListValidators;
+    }
+
+    public int getProductCount() {
+        return productsById.size();
+    }
+
+    public int getCategoryCount() {
+        return categoriesById.size();
+    }
+
+    public Optional<ProductResponse> findProduct(Long id) {
+        return Optional.ofNullable(productsById.get(id));
+    }
+
+    public Optional<CategoryResponse> findCategory(Long id) {
+        return Optional.ofNullable(categoriesById.get(id));
+    }
+
+    public List<CategoryResponse> getActiveCategories() {
+        return activeCategories;
+    }
+
+    public List<CategoryResponse> getParentCategories() {
+        return parentCategories;
+    }
+
+    /**
+     * All active products in the given order, optionally restricted to one category
+     */
+    public List<ProductResponse> getProducts(Long categoryId, ProductSort sort) {
+        if (categoryId == null) {
+            return productsBySort.get(sort);
+        }
+        Map<ProductSort, List<ProductResponse>> categoryLists = categoryProductsBySort.get(categoryId);
+        return categoryLists == null ? List.of() : categoryLists.get(sort);
+    }
+
+    /**
+     * Keyset page over the presorted lists, with the same semantics as the database listing
+     *
+     * @param categoryId restrict to this category, or null for all categories
+     * @param after position of the last row of the previous page, or null for the first page
+     * @param size page size, already resolved against the limits
+     * @param sort sort order
+     * @return page of products
+     */
+    public CursorPage<ProductResponse> page(Long categoryId, CursorCodec.Cursor after, int size, ProductSort sort) {
+        List<ProductResponse> products = getProducts(categoryId, sort);
+        int from = after == null ? 0 : firstIndexAfter(products, after, sort);
+        int to = Math.min(from + size, products.size());
+        List<ProductResponse> items = products.subList(from, to);
+        boolean hasMore = to < products.size();
+
+        String nextCursor = null;
+        if (hasMore) {
+            ProductResponse last = items.get(items.size() - 1);
+            nextCursor = CursorCodec.encode(sort, sort.keyOf(last), last.getId());
+        }
+
+        return CursorPage.<ProductResponse>builder()
+                .items(items)
+                .size(items.size())
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Sort key of a product in this snapshot: its precomputed collation key for names
+     */
+    private Object sortKey(ProductResponse product, ProductSort sort) {
+        return sort == ProductSort.NAME ? nameKeys.get(product.getId()) : sort.keyOf(product);
+    }
+
+    /**
+     * Binary search for the first element strictly after the cursor position
+     */
+    private int firstIndexAfter(List<ProductResponse> products, CursorCodec.Cursor after, ProductSort sort) {
+        Object afterKey = sort == ProductSort.NAME ? ProductSort.nameKey((String) after.key()) : after.key();
+        int low = 0;
+        int high = products.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            ProductResponse product = products.get(mid);
+            if (sort.compare(sortKey(product, sort), product.getId(), afterKey, after.id()) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,433 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.dto.BatchLookupResponse;
+import com.nerya.neryaallnaturals.dto.CatalogSnapshotInfo;
+import com.nerya.neryaallnaturals.dto.CategoryResponse;
+import com.nerya.neryaallnaturals.dto.CursorPage;
+import com.nerya.neryaallnaturals.dto.ProductCard;
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.dto.ProductSort;
+import com.nerya.neryaallnaturals.event.CatalogSnapshotChangedEvent;
+import com.nerya.neryaallnaturals.event.CategoryChangedEvent;
+import com.nerya.neryaallnaturals.event.ProductChangedEvent;
+import com.nerya.neryaallnaturals.event.ProductStockChangedEvent;
+import com.nerya.neryaallnaturals.repository.CategoryReadRepository;
+import com.nerya.neryaallnaturals.repository.CategoryRepository;
+import com.nerya.neryaallnaturals.repository.ProductReadRepository;
+import com.nerya.neryaallnaturals.repository.ProductRepository;
+import com.nerya.neryaallnaturals.repository.ProductStockRow;
+import com.nerya.neryaallnaturals.util.CursorCodec;
+import com.nerya.neryaallnaturals.util.HttpCaching;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves the public catalog reads from an in-memory {@link CatalogSnapshot}.
+ * Readers only dereference a volatile field: they never lock and never touch the database.
+ * After product writes commit, the affected products are reloaded on the catalog thread and
+ * a patched copy of the snapshot is swapped in; category writes trigger a full rebuild.
+ * Stock syncs that only move quantities swap in a copy whose affected products are patched
+ * from the synced columns, which needs no reload or re-sort.
+ * Until the first build completes, reads fall back to the database-backed services.
+ */
+@Service
+@Slf4j
+public class CatalogSnapshotService {
+
+    private static final int LOAD_CHUNK_SIZE = ProductService.MAX_PAGE_SIZE;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductReadRepository productReadRepository;
+    private final CategoryReadRepository categoryReadRepository;
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final CatalogUpdateQueue catalogUpdateQueue;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final Set<Long> pendingProductIds = ConcurrentHashMap.newKeySet();
+    private final Map<Long, ProductStockRow> pendingStock = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private volatile CatalogSnapshot snapshot;
+
+    public CatalogSnapshotService(ProductRepository productRepository,
+                                  CategoryRepository categoryRepository,
+                                  ProductReadRepository productReadRepository,
+                                  CategoryReadRepository categoryReadRepository,
+                                  ProductService productService,
+                                  CategoryService categoryService,
+                                  CatalogUpdateQueue catalogUpdateQueue,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.productReadRepository = productReadRepository;
+        this.categoryReadRepository = categoryReadRepository;
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.catalogUpdateQueue = catalogUpdateQueue;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Get one page of active products
+     */
+    public CursorPage<ProductResponse> getActiveProducts(String cursor, Integer size, ProductSort sort) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return productService.getActiveProducts(cursor, size, sort);
+        }
+        return current.page(null, CursorCodec.decode(cursor, sort), ProductService.resolvePageSize(size), sort);
+    }
+
+    /**
+     * Get one page of active products in a category
+     */
+    public CursorPage<ProductResponse> getProductsByCategory(Long categoryId, String cursor, Integer size, ProductSort sort) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return productService.getProductsByCategory(categoryId, cursor, size, sort);
+        }
+        return current.page(categoryId, CursorCodec.decode(cursor, sort), ProductService.resolvePageSize(size), sort);
+    }
+
+    /**
+     * Get one page of active product cards
+     */
+    public CursorPage<ProductCard> getActiveProductCards(String cursor, Integer size, ProductSort sort) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return productService.getActiveProductCards(cursor, size, sort);
+        }
+        return toCards(current.page(null, CursorCodec.decode(cursor, sort), ProductService.resolvePageSize(size), sort));
+    }
+
+    /**
+     * Get one page of active product cards in a category
+     */
+    public CursorPage<ProductCard> getProductCardsByCategory(Long categoryId, String cursor, Integer size, ProductSort sort) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return productService.getProductCardsByCategory(categoryId, cursor, size, sort);
+        }
+        return toCards(current.page(categoryId, CursorCodec.decode(cursor, sort), ProductService.resolvePageSize(size), sort));
+    }
+
+    /**
+     * Get product by ID. Inactive products are not part of the snapshot and are
+     * served by the cached database path.
+     */
+    public Optional<ProductResponse> getProductById(Long id) {
+        CatalogSnapshot current = snapshot;
+        if (current != null) {
+            Optional<ProductResponse> product = current.findProduct(id);
+            if (product.isPresent()) {
+                return product;
+            }
+        }
+        return productService.getProductById(id);
+    }
+
+    /**
+     * Get several products by ID, in request order. Active products come from the snapshot;
+     * inactive ones, and everything while the snapshot is not built yet, are resolved by the
+     * cached database path in one batch.
+     */
+    public BatchLookupResponse<ProductResponse> getProductsByIds(List<Long> ids) {
+        CatalogSnapshot current = snapshot;
+        Map<Long, ProductResponse> found = new HashMap<>();
+        List<Long> remaining = new ArrayList<>();
+        for (Long id : ids) {
+            Optional<ProductResponse> product = current != null ? current.findProduct(id) : Optional.empty();
+            if (product.isPresent()) {
+                found.put(id, product.get());
+            } else {
+                remaining.add(id);
+            }
+        }
+        if (!remaining.isEmpty()) {
+            found.putAll(productService.getProductsByIds(remaining));
+        }
+        return BatchLookupResponse.ordered(ids, found);
+    }
+
+    /**
+     * Validators of the product listings, empty while reads fall back to the database
+     */
+    public Optional<HttpCaching.Validators> getProductListValidators() {
+        return Optional.ofNullable(snapshot).map(CatalogSnapshot::getProductListValidators);
+    }
+
+    /**
+     * Validators of a product's detail. The body embeds the category name, so the tag
+     * covers the category's update time as well as the product's. Empty while reads fall
+     * back to the database.
+     */
+    public Optional<HttpCaching.Validators> getProductValidators(ProductResponse product) {
+        CatalogSnapshot current = snapshot;
+        if (current == null || product.getCategoryId() == null) {
+            return Optional.empty();
+        }
+        LocalDateTime productUpdatedAt = product.getUpdatedAt();
+        LocalDateTime categoryUpdatedAt = current.findCategory(product.getCategoryId())
+                .map(CategoryResponse::getUpdatedAt)
+                .orElse(null);
+        long fingerprint = HttpCaching.fingerprint(
+                HttpCaching.fingerprint(0, product.getId(), productUpdatedAt),
+                product.getCategoryId(), categoryUpdatedAt);
+        LocalDateTime lastModified = categoryUpdatedAt != null
+                && (productUpdatedAt == null || categoryUpdatedAt.isAfter(productUpdatedAt))
+                ? categoryUpdatedAt
+                : productUpdatedAt;
+        return Optional.of(HttpCaching.Validators.ofAggregate("p" + product.getId(), fingerprint, lastModified));
+    }
+
+    /**
+     * Validators of the category listings, empty while reads fall back to the database
+     */
+    public Optional<HttpCaching.Validators> getCategoryListValidators() {
+        return Optional.ofNullable(snapshot).map(CatalogSnapshot::getCategoryListValidators);
+    }
+
+    /**
+     * Get all active categories
+     */
+    public List<CategoryResponse> getAllActiveCategories() {
+        CatalogSnapshot current = snapshot;
+        return current != null ? current.getActiveCategories() : categoryService.getAllActiveCategories();
+    }
+
+    /**
+     * Get category by ID
+     */
+    public Optional<CategoryResponse> getCategoryById(Long id) {
+        CatalogSnapshot current = snapshot;
+        return current != null ? current.findCategory(id) : categoryService.getCategoryById(id);
+    }
+
+    /**
+     * Get all parent categories
+     */
+    public List<CategoryResponse> getParentCategories() {
+        CatalogSnapshot current = snapshot;
+        return current != null ? current.getParentCategories() : categoryService.getParentCategories();
+    }
+
+    /**
+     * The snapshot currently being served, or null before the first build
+     */
+    public CatalogSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Describe the snapshot currently being served
+     */
+    public CatalogSnapshotInfo getSnapshotInfo() {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return CatalogSnapshotInfo.builder().ready(false).build();
+        }
+        return CatalogSnapshotInfo.builder()
+                .ready(true)
+                .version(current.getVersion())
+                .builtAt(current.getBuiltAt())
+                .productCount(current.getProductCount())
+                .categoryCount(current.getCategoryCount())
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        pendingProductIds.addAll(event.productIds());
+        catalogUpdateQueue.submit(this::applyPendingProductChanges);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductStockChanged(ProductStockChangedEvent event) {
+        event.products().forEach(row -> pendingStock.put(row.productId(), row));
+        catalogUpdateQueue.submit(this::applyPendingStockChanges);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        requestRebuild();
+    }
+
+    private void requestRebuild() {
+        // Several requests queued behind a running build collapse into one rebuild
+        if (rebuildRequested.compareAndSet(false, true)) {
+            catalogUpdateQueue.submit(this::rebuild);
+        }
+    }
+
+    /**
+     * Load the whole catalog and swap in a fresh snapshot. Runs on the catalog thread.
+     */
+    private void rebuild() {
+        rebuildRequested.set(false);
+        long started = System.currentTimeMillis();
+        try {
+            List<ProductResponse> products = new ArrayList<>();
+            CursorCodec.Cursor after = null;
+            while (true) {
+                CursorCodec.Cursor position = after;
+                List<ProductResponse> chunk = readOnlyTransaction.execute(status -> productReadRepository
+                        .findPage(null, true, ProductSort.NEWEST, position, LOAD_CHUNK_SIZE)
+                        .stream()
+                        .map(ProductResponse::fromRow)
+                        .toList());
+                products.addAll(chunk);
+                if (chunk.size() < LOAD_CHUNK_SIZE) {
+                    break;
+                }
+                ProductResponse last = chunk.get(chunk.size() - 1);
+                after = new CursorCodec.Cursor(ProductSort.NEWEST, last.getCreatedAt(), last.getId());
+            }
+
+            List<CategoryResponse> categories = readOnlyTransaction.execute(status -> categoryReadRepository.findAll()
+                    .stream()
+                    .map(CategoryResponse::fromRow)
+                    .toList());
+
+            LocalDateTime lastModified = readOnlyTransaction.execute(status -> latest(
+                    productRepository.findLatestUpdate(), categoryRepository.findLatestUpdate()));
+
+            swap(new CatalogSnapshot(versionSequence.incrementAndGet(), products, categories, lastModified), Set.of(), false);
+            log.info("Catalog snapshot v{} built with {} products and {} categories in {} ms",
+                    snapshot.getVersion(), products.size(), categories.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Catalog snapshot rebuild failed, keeping the current snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reload the products changed since the last patch and swap in a patched snapshot.
+     * Runs on the catalog thread; queued calls after the first find nothing left to do.
+     */
+    private void applyPendingProductChanges() {
+        CatalogSnapshot current = snapshot;
+        if (current == null || pendingProductIds.isEmpty()) {
+            return; // the initial build picks up everything
+        }
+
+        Set<Long> ids = new HashSet<>(pendingProductIds);
+        pendingProductIds.removeAll(ids);
+        try {
+            List<ProductResponse> changed = new ArrayList<>();
+            List<Long> idList = new ArrayList<>(ids);
+            for (int from = 0; from < idList.size(); from += LOAD_CHUNK_SIZE) {
+                List<Long> chunk = idList.subList(from, Math.min(from + LOAD_CHUNK_SIZE, idList.size()));
+                changed.addAll(readOnlyTransaction.execute(status -> productReadRepository.findByIds(chunk)
+                        .stream()
+                        .map(ProductResponse::fromRow)
+                        .toList()));
+            }
+
+            Set<Long> removed = new HashSet<>(ids);
+            changed.forEach(product -> removed.remove(product.getId()));
+
+            swap(current.withProducts(versionSequence.incrementAndGet(), changed, removed), ids, false);
+            log.debug("Catalog snapshot v{} patched with {} changed products", snapshot.getVersion(), ids.size());
+        } catch (RuntimeException e) {
+            pendingProductIds.addAll(ids);
+            log.error("Catalog snapshot patch failed, will retry on next change: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Swap in a snapshot whose products carry the synced stock fields. The patched products
+     * are copies, so readers of the previous snapshot keep seeing consistent objects. A
+     * product whose in-stock flag no longer matches is reloaded like any changed product
+     * instead. Runs on the catalog thread.
+     */
+    private void applyPendingStockChanges() {
+        CatalogSnapshot current = snapshot;
+        if (current == null || pendingStock.isEmpty()) {
+            return; // the initial build picks up everything
+        }
+
+        List<ProductResponse> patched = new ArrayList<>();
+        boolean reload = false;
+        for (Long productId : List.copyOf(pendingStock.keySet())) {
+            ProductStockRow row = pendingStock.remove(productId);
+            // Inactive products are not in the snapshot
+            Optional<ProductResponse> product = current.findProduct(productId);
+            if (row == null || product.isEmpty()) {
+                continue;
+            }
+            if (!Objects.equals(product.get().getInStock(), row.inStock())) {
+                pendingProductIds.add(productId);
+                reload = true;
+                continue;
+            }
+            patched.add(product.get().toBuilder()
+                    .quantity(row.quantity())
+                    .minQuantity(row.minQuantity())
+                    .updatedAt(row.updatedAt())
+                    .build());
+        }
+
+        if (!patched.isEmpty()) {
+            Set<Long> ids = new HashSet<>();
+            patched.forEach(product -> ids.add(product.getId()));
+            swap(current.withStock(versionSequence.incrementAndGet(), patched), ids, true);
+            log.debug("Catalog snapshot v{} patched with stock of {} products", snapshot.getVersion(), ids.size());
+        }
+        if (reload) {
+            applyPendingProductChanges();
+        }
+    }
+
+    private static CursorPage<ProductCard> toCards(CursorPage<ProductResponse> page) {
+        return CursorPage.<ProductCard>builder()
+                .items(page.getItems().stream()
+                        .map(ProductCard::fromResponse)
+                        .toList())
+                .size(page.getSize())
+                .hasMore(page.isHasMore())
+                .nextCursor(page.getNextCursor())
+                .build();
+    }
+
+    private static LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null || first.isAfter(second) ? first : second;
+    }
+
+    private void swap(CatalogSnapshot next, Set<Long> changedProductIds, boolean stockOnly) {
+        snapshot = next;
+        eventPublisher.publishEvent(new CatalogSnapshotChangedEvent(next.getVersion(), Set.copyOf(changedProductIds),
+                stockOnly));
+    }
+}
@@ -0,0 +1,42 @@
+package com.nerya.neryaallnaturals.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Single background thread that maintains the in-memory catalog read models.
+ * One thread keeps updates applied in the order their writes committed and
+ * means the read models never need more than one writer.
+ */
+@Component
+@Slf4j
+public class CatalogUpdateQueue {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-updates");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Queue a task behind all previously submitted ones
+     */
+    public void submit(Runnable task) {
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Catalog update task failed: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -3,9 +3,12 @@ package com.nerya.neryaallnaturals.service;
 import com.nerya.neryaallnaturals.dto.CategoryRequest;
 import com.nerya.neryaallnaturals.dto.CategoryResponse;
 import com.nerya.neryaallnaturals.entity.Category;
+import com.nerya.neryaallnaturals.event.CategoryChangedEvent;
+import com.nerya.neryaallnaturals.repository.CategoryReadRepository;
 import com.nerya.neryaallnaturals.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +22,8 @@ import java.util.stream.Collectors;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CategoryReadRepository categoryReadRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Get all active categories
@@ -26,8 +31,8 @@ public class CategoryService {
     @Transactional(readOnly = true)
     public List<CategoryResponse> getAllActiveCategories() {
         log.debug("Fetching all active categories");
-        return categoryRepository.findByIsActiveTrue().stream()
-                .map(CategoryResponse::fromEntity)
+        return categoryReadRepository.findActive().stream()
+                .map(CategoryResponse::fromRow)
                 .collect(Collectors.toList());
     }
 
@@ -37,8 +42,8 @@ public class CategoryService {
     @Transactional(readOnly = true)
     public Optional<CategoryResponse> getCategoryById(Long id) {
         log.debug("Fetching category with ID: {}", id);
-        return categoryRepository.findById(id)
-                .map(CategoryResponse::fromEntity);
+        return categoryReadRepository.findById(id)
+                .map(CategoryResponse::fromRow);
     }
 
     /**
@@ -47,8 +52,8 @@ public class CategoryService {
     @Transactional(readOnly = true)
     public List<CategoryResponse> getParentCategories() {
         log.debug("Fetching all parent categories");
-        return categoryRepository.findByParentCategoryIsNull().stream()
-                .map(CategoryResponse::fromEntity)
+        return categoryReadRepository.findParents().stream()
+                .map(CategoryResponse::fromRow)
                 .collect(Collectors.toList());
     }
 
@@ -81,6 +86,7 @@ public class CategoryService {
         }
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId()));
         log.info("Category created successfully: {}", savedCategory.getName());
 
         return CategoryResponse.fromEntity(savedCategory);
@@ -0,0 +1,379 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.dto.HotStockResponse;
+import com.nerya.neryaallnaturals.dto.StockOperationResponse;
+import com.nerya.neryaallnaturals.entity.InventoryMovementReason;
+import com.nerya.neryaallnaturals.event.InventoryChangedEvent;
+import com.nerya.neryaallnaturals.repository.HotStockRepository;
+import com.nerya.neryaallnaturals.stock.HotStockCounter;
+import com.nerya.neryaallnaturals.stock.StockJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Flash-sale ("hot stock") mode for inventory rows that take more reservations than row
+ * locking can serialize.
+ *
+ * A hot product leases all of its available stock from its inventory row
+ * ({@code quantity_leased}) into a striped in-memory {@link HotStockCounter}. Reservations
+ * take units from the counter and append a record to the local {@link StockJournal}; the
+ * caller gets its answer once the record is fsynced, batched with everyone else's. A
+ * background flusher folds the journaled reservations into the inventory table every
+ * {@code app.stock.hot.flush-interval}, moving units from leased to reserved together with
+ * the journal checkpoint. Because database reservations only ever see stock that is not
+ * leased, a hot counter and the regular conditional UPDATEs can run side by side without
+ * either overselling.
+ *
+ * On startup the journal records past the checkpoint are replayed and every lease is
+ * returned, since no counter survived the restart. With {@code app.stock.hot.auto-enabled},
+ * products are heated when their reservation rate crosses {@code heat-threshold} per second
+ * and cooled after staying below {@code cool-threshold} for {@code cool-after}. The journal
+ * is local, so hot stock mode assumes a single application instance. If the journal
+ * {@link StockJournal#isFailed fails} for good, every product is cooled and none can be
+ * heated again until a restart.
+ */
+@Service
+@Slf4j
+public class HotStockService {
+
+    private final HotStockRepository hotStockRepository;
+    private final InventoryMovementService inventoryMovementService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final Path journalDirectory;
+    private final int stripes;
+    private final Duration flushInterval;
+    private final boolean autoEnabled;
+    private final long heatThreshold;
+    private final long coolThreshold;
+    private final long coolAfterSeconds;
+
+    private final Map<Long, HotStockCounter> counters = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "hot-stock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Reservations that went to the database in the current second, per product
+    private volatile Map<Long, LongAdder> databaseReservations = new ConcurrentHashMap<>();
+    // Consecutive quiet seconds per hot product
+    private final Map<Long, Long> quietSeconds = new ConcurrentHashMap<>();
+    // Journal records drained but not yet applied; guarded by flushLock
+    private final List<StockJournal.Entry> unapplied = new ArrayList<>();
+    private StockJournal journal;
+
+    public HotStockService(HotStockRepository hotStockRepository,
+                           InventoryMovementService inventoryMovementService,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.stock.hot.journal-dir:data/stock-journal}") Path journalDirectory,
+                           @Value("${app.stock.hot.stripes:0}") int stripes,
+                           @Value("${app.stock.hot.flush-interval:200ms}") Duration flushInterval,
+                           @Value("${app.stock.hot.auto-enabled:false}") boolean autoEnabled,
+                           @Value("${app.stock.hot.heat-threshold:200}") long heatThreshold,
+                           @Value("${app.stock.hot.cool-threshold:20}") long coolThreshold,
+                           @Value("${app.stock.hot.cool-after:30s}") Duration coolAfter) {
+        this.hotStockRepository = hotStockRepository;
+        this.inventoryMovementService = inventoryMovementService;
+        this.eventPublisher = eventPublisher;
+        // Never join a caller's transaction: a fold must commit before its journal segments go
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.journalDirectory = journalDirectory;
+        this.stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.flushInterval = flushInterval;
+        this.autoEnabled = autoEnabled;
+        this.heatThreshold = heatThreshold;
+        this.coolThreshold = coolThreshold;
+        this.coolAfterSeconds = Math.max(1, coolAfter.toSeconds());
+    }
+
+    /**
+     * Replay the journal past the checkpoint, return leftover leases and start the flusher
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        long checkpoint = hotStockRepository.findCheckpoint();
+        journal = StockJournal.open(journalDirectory, checkpoint);
+
+        List<StockJournal.Entry> pending = journal.recovered().stream()
+                .filter(entry -> entry.sequence() > checkpoint)
+                .toList();
+        int leases = transaction.execute(status -> {
+            if (!pending.isEmpty()) {
+                applyReservations(fold(pending), pending.get(pending.size() - 1).sequence());
+            }
+            return hotStockRepository.returnAllLeases();
+        });
+        if (!pending.isEmpty() || leases > 0) {
+            log.info("Hot stock recovery: replayed {} journaled reservations, returned {} leases",
+                    pending.size(), leases);
+        }
+        long applied = pending.isEmpty() ? checkpoint : pending.get(pending.size() - 1).sequence();
+        journal.deleteAppliedSegments(applied);
+
+        long intervalMillis = Math.max(10, flushInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        if (autoEnabled) {
+            scheduler.scheduleAtFixedRate(this::adjustHotProducts, 1, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Cool every product, which applies all journaled reservations and returns the leases
+     */
+    @PreDestroy
+    public void shutdown() throws IOException {
+        scheduler.shutdownNow();
+        coolAll();
+        journal.close();
+    }
+
+    /**
+     * Reserve from the in-memory counter if the product is hot
+     *
+     * @return the outcome, or empty when the product is not hot and the reservation must go
+     *         to the database
+     * @throws IllegalStateException if the reservation could not be journaled
+     */
+    public Optional<StockOperationResponse.Status> reserve(Long productId, int quantity) {
+        HotStockCounter counter = counters.get(productId);
+        if (counter == null) {
+            if (autoEnabled) {
+                databaseReservations.computeIfAbsent(productId, key -> new LongAdder()).increment();
+            }
+            return Optional.empty();
+        }
+        if (journal.isFailed()) {
+            // The next flush run cools the product; until then only unleased stock is offered
+            return Optional.empty();
+        }
+
+        CompletableFuture<Long> written;
+        int slot = counter.enter();
+        try {
+            HotStockCounter.Outcome outcome = counter.tryTake(slot, quantity)
+                    ? HotStockCounter.Outcome.TAKEN
+                    : counter.takeOrRefill(quantity, () -> lease(productId));
+            switch (outcome) {
+                case CLOSED:
+                    // Being cooled; the database only offers stock that is not leased
+                    return Optional.empty();
+                case INSUFFICIENT:
+                    return Optional.of(StockOperationResponse.Status.INSUFFICIENT_STOCK);
+                default:
+                    written = journal.append(productId, quantity);
+            }
+        } finally {
+            counter.exit(slot);
+        }
+
+        try {
+            written.join();
+        } catch (CompletionException e) {
+            // The units stay leased until the product is cooled, when the whole lease is returned
+            throw new IllegalStateException("Could not journal stock reservation for product ID: " + productId,
+                    e.getCause());
+        }
+        return Optional.of(StockOperationResponse.Status.APPLIED);
+    }
+
+    /**
+     * Apply the journaled reservations of a hot product before a database operation that
+     * depends on its reserved quantity (release, commit)
+     */
+    public void awaitApplied(Long productId) {
+        if (counters.containsKey(productId)) {
+            flush();
+        }
+    }
+
+    public boolean isHot(Long productId) {
+        return counters.containsKey(productId);
+    }
+
+    /**
+     * Put a product in hot stock mode, leasing all its available stock
+     *
+     * @param pinned keep it hot until {@link #cool} is called explicitly
+     * @return false if the product has no inventory record or the journal has failed
+     */
+    public synchronized boolean heat(Long productId, boolean pinned) {
+        if (counters.containsKey(productId)) {
+            return true;
+        }
+        if (journal.isFailed()) {
+            log.warn("Not heating product {}: the stock journal has failed", productId);
+            return false;
+        }
+        Optional<Long> leased = transaction.execute(status -> hotStockRepository.leaseAvailable(productId));
+        if (leased.isEmpty()) {
+            return false;
+        }
+        counters.put(productId, new HotStockCounter(productId, stripes, leased.get(), pinned));
+        log.info("Product {} is in hot stock mode with {} leased units{}", productId, leased.get(),
+                pinned ? " (pinned)" : "");
+        return true;
+    }
+
+    /**
+     * Leave hot stock mode: stop the counter, apply every journaled reservation and return
+     * the rest of the lease to the database
+     *
+     * @return false if the product was not hot
+     */
+    public synchronized boolean cool(Long productId) {
+        HotStockCounter counter = counters.get(productId);
+        if (counter == null) {
+            return false;
+        }
+        long remaining = counter.close();
+        counter.awaitQuiescent();
+        if (!journal.isFailed()) {
+            journal.barrier().join();
+        }
+        flush();
+        transaction.executeWithoutResult(status -> hotStockRepository.returnLease(productId));
+        counters.remove(productId);
+        quietSeconds.remove(productId);
+        log.info("Product {} left hot stock mode: {} units reserved, {} returned", productId, counter.getTaken(),
+                remaining);
+        return true;
+    }
+
+    /**
+     * Hot products, most reserved first
+     */
+    public List<HotStockResponse> getHotProducts() {
+        return counters.values().stream()
+                .map(HotStockResponse::fromCounter)
+                .sorted(Comparator.comparing(HotStockResponse::getReserved).reversed())
+                .toList();
+    }
+
+    /**
+     * Fold the durable journal records into the inventory table. Records of a failed fold
+     * are kept and retried first on the next run.
+     */
+    private void flush() {
+        synchronized (flushLock) {
+            unapplied.addAll(journal.drainDurable());
+            if (unapplied.isEmpty()) {
+                return;
+            }
+            long lastSequence = unapplied.get(unapplied.size() - 1).sequence();
+            Map<Long, Long> quantities = fold(unapplied);
+            transaction.executeWithoutResult(status -> applyReservations(quantities, lastSequence));
+            log.debug("Applied {} hot stock reservations across {} products", unapplied.size(), quantities.size());
+            unapplied.clear();
+            eventPublisher.publishEvent(InventoryChangedEvent.reservations(Set.copyOf(quantities.keySet())));
+            try {
+                journal.deleteAppliedSegments(lastSequence);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Fold reservations into the inventory table and journal them as movements; runs inside
+     * the fold transaction
+     */
+    private void applyReservations(Map<Long, Long> quantities, long lastSequence) {
+        hotStockRepository.applyReservations(quantities, lastSequence);
+        quantities.forEach((productId, units) -> inventoryMovementService.record(productId,
+                InventoryMovementReason.HOT_RESERVE, 0, Math.toIntExact(units), 0));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Hot stock flush failed, will retry: {}", e.getMessage(), e);
+        }
+        if (journal.isFailed() && !counters.isEmpty()) {
+            log.error("Stock journal has failed, leaving hot stock mode for {} products", counters.size());
+            coolAll();
+        }
+    }
+
+    private void coolAll() {
+        for (Long productId : List.copyOf(counters.keySet())) {
+            try {
+                cool(productId);
+            } catch (RuntimeException e) {
+                log.error("Could not cool hot product {}: {}", productId, e.getMessage());
+            }
+        }
+    }
+
+    private long lease(Long productId) {
+        return transaction.execute(status -> hotStockRepository.leaseAvailable(productId)).orElse(0L);
+    }
+
+    /**
+     * Heat products whose database reservations crossed the threshold in the last second
+     * and cool unpinned ones that have been quiet long enough
+     */
+    private void adjustHotProducts() {
+        try {
+            Map<Long, LongAdder> lastSecond = databaseReservations;
+            databaseReservations = new ConcurrentHashMap<>();
+            lastSecond.forEach((productId, reservations) -> {
+                if (reservations.sum() >= heatThreshold) {
+                    heat(productId, false);
+                }
+            });
+
+            for (HotStockCounter counter : List.copyOf(counters.values())) {
+                long operations = counter.drainOperations();
+                if (counter.isPinned()) {
+                    continue;
+                }
+                if (operations >= coolThreshold) {
+                    quietSeconds.remove(counter.getProductId());
+                } else if (quietSeconds.merge(counter.getProductId(), 1L, Long::sum) >= coolAfterSeconds) {
+                    cool(counter.getProductId());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Hot stock adjustment failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private static Map<Long, Long> fold(List<StockJournal.Entry> entries) {
+        Map<Long, Long> quantities = new HashMap<>();
+        for (StockJournal.Entry entry : entries) {
+            quantities.merge(entry.productId(), (long) entry.quantity(), Long::sum);
+        }
+        return quantities;
+    }
+}
@@ -0,0 +1,316 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.dto.CursorPage;
+import com.nerya.neryaallnaturals.dto.InventoryMovementResponse;
+import com.nerya.neryaallnaturals.dto.StockAsOfResponse;
+import com.nerya.neryaallnaturals.entity.InventoryMovement;
+import com.nerya.neryaallnaturals.entity.InventoryMovementReason;
+import com.nerya.neryaallnaturals.entity.InventorySnapshot;
+import com.nerya.neryaallnaturals.repository.InventoryMovementRepository;
+import com.nerya.neryaallnaturals.repository.InventoryMovementRepository.Totals;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only journal of inventory movements with periodic per-product snapshots.
+ *
+ * Write paths {@link #record} each change of a product's on hand, reserved or sold counters
+ * inside their transaction. Movements are buffered per transaction and written with one
+ * batched INSERT just before it commits, so they exist exactly when the change does.
+ *
+ * Every {@code app.inventory.movements.snapshot-interval} the movements since the previous
+ * run are summed per product and added to each product's latest snapshot. Stock at a point
+ * in time is then the latest snapshot before it plus the few movements after that snapshot.
+ * A run only covers movements older than {@code snapshot-settle}, so that a transaction still
+ * in flight when its movements were stamped cannot commit behind a snapshot.
+ */
+@Service
+@Slf4j
+public class InventoryMovementService {
+
+    public static final String SYSTEM_ACTOR = "system";
+
+    private static final int SNAPSHOT_CHUNK_SIZE = 500;
+    // Length of the actor column
+    private static final int MAX_ACTOR_LENGTH = 100;
+    private static final String CURSOR_SEPARATOR = "|";
+
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration snapshotInterval;
+    private final Duration snapshotSettle;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-snapshots");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InventoryMovementService(InventoryMovementRepository inventoryMovementRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.inventory.movements.snapshot-interval:1h}") Duration snapshotInterval,
+                                    @Value("${app.inventory.movements.snapshot-settle:5m}") Duration snapshotSettle) {
+        this.inventoryMovementRepository = inventoryMovementRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.snapshotInterval = snapshotInterval;
+        this.snapshotSettle = snapshotSettle;
+    }
+
+    /**
+     * Give every inventory record without movements an opening balance, so that the journal
+     * sums to the current counters, and start the snapshot job. Runs before any bean that
+     * records movements is initialized.
+     */
+    @PostConstruct
+    public void start() {
+        int opened = transaction.execute(status ->
+                inventoryMovementRepository.insertOpeningBalances(SYSTEM_ACTOR, now()));
+        if (opened > 0) {
+            log.info("Journaled opening balances of {} inventory records", opened);
+        }
+
+        long intervalSeconds = Math.max(1, snapshotInterval.toSeconds());
+        scheduler.scheduleWithFixedDelay(this::takeSnapshotsQuietly, intervalSeconds, intervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Journal a change of a product's counters as part of the current transaction. The
+     * actor is the authenticated user, or {@value #SYSTEM_ACTOR} outside a request.
+     *
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void record(Long productId, InventoryMovementReason reason, int deltaOnHand, int deltaReserved,
+                       int deltaSold) {
+        if (deltaOnHand == 0 && deltaReserved == 0 && deltaSold == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Inventory movements must be recorded inside a transaction");
+        }
+        pendingMovements().add(InventoryMovement.builder()
+                .productId(productId)
+                .reason(reason)
+                .actor(currentActor())
+                .deltaOnHand(deltaOnHand)
+                .deltaReserved(deltaReserved)
+                .deltaSold(deltaSold)
+                .occurredAt(now())
+                .build());
+    }
+
+    /**
+     * One page of movements in time order
+     *
+     * @param productId only this product's movements, or all when null
+     * @param reason only movements with this reason, or all when null
+     * @param from inclusive start, or from the first movement when null
+     * @param to exclusive end, or up to the latest movement when null
+     * @param cursor continuation token from the previous page, omit for the first page
+     * @param size page size, capped at {@value ProductService#MAX_PAGE_SIZE}
+     * @throws IllegalArgumentException if the range is empty or the cursor is malformed
+     */
+    public CursorPage<InventoryMovementResponse> getMovements(Long productId, InventoryMovementReason reason,
+                                                              LocalDateTime from, LocalDateTime to,
+                                                              String cursor, Integer size) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        int pageSize = ProductService.resolvePageSize(size);
+        Position after = Position.decode(cursor);
+        InventoryMovementRepository.Filter filter = new InventoryMovementRepository.Filter(productId, reason, from, to);
+        List<InventoryMovement> rows = readOnlyTransaction.execute(status -> inventoryMovementRepository.findPage(
+                filter, after != null ? after.time() : null, after != null ? after.id() : null, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<InventoryMovementResponse> items = rows.stream()
+                .limit(pageSize)
+                .map(InventoryMovementResponse::fromEntity)
+                .toList();
+        String nextCursor = null;
+        if (hasMore) {
+            InventoryMovementResponse last = items.get(items.size() - 1);
+            nextCursor = new Position(last.getOccurredAt(), last.getId()).encode();
+        }
+        return CursorPage.<InventoryMovementResponse>builder()
+                .items(items)
+                .size(items.size())
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * A product's counters at a point in time: its latest snapshot at or before then plus
+     * the movements since
+     *
+     * @return empty when the product has no movements up to then
+     */
+    public Optional<StockAsOfResponse> getStockAsOf(Long productId, LocalDateTime asOf) {
+        return readOnlyTransaction.execute(status -> {
+            Optional<InventorySnapshot> snapshot = inventoryMovementRepository.findLatestSnapshot(productId, asOf);
+            LocalDateTime snapshotAt = snapshot.map(InventorySnapshot::getTakenAt).orElse(null);
+            Totals tail = inventoryMovementRepository.sum(productId, snapshotAt, asOf);
+            if (snapshot.isEmpty() && tail.movements() == 0) {
+                return Optional.empty();
+            }
+            Totals base = snapshot.map(InventoryMovementService::totals).orElse(Totals.ZERO);
+            return Optional.of(StockAsOfResponse.of(productId, asOf, base.plus(tail), snapshotAt, tail.movements()));
+        });
+    }
+
+    /**
+     * Add the movements since the previous run to each moved product's latest snapshot
+     *
+     * @return number of snapshots written
+     */
+    public int takeSnapshots() {
+        LocalDateTime cutoff = now().minus(snapshotSettle);
+        Integer written = transaction.execute(status -> {
+            LocalDateTime previous = inventoryMovementRepository.findLastSnapshotTime().orElse(null);
+            if (previous != null && !cutoff.isAfter(previous)) {
+                return 0;
+            }
+
+            Map<Long, Totals> moved = inventoryMovementRepository.sumByProduct(previous, cutoff);
+            List<Long> productIds = new ArrayList<>(moved.keySet());
+            for (int from = 0; from < productIds.size(); from += SNAPSHOT_CHUNK_SIZE) {
+                List<Long> chunk = productIds.subList(from, Math.min(from + SNAPSHOT_CHUNK_SIZE, productIds.size()));
+                Map<Long, Totals> latest = new HashMap<>();
+                for (InventorySnapshot snapshot : inventoryMovementRepository.findLatestSnapshots(chunk)) {
+                    latest.put(snapshot.getProductId(), totals(snapshot));
+                }
+                List<InventorySnapshot> snapshots = new ArrayList<>(chunk.size());
+                for (Long productId : chunk) {
+                    Totals total = latest.getOrDefault(productId, Totals.ZERO).plus(moved.get(productId));
+                    snapshots.add(InventorySnapshot.builder()
+                            .productId(productId)
+                            .quantityOnHand(total.quantityOnHand())
+                            .quantityReserved(total.quantityReserved())
+                            .quantitySold(total.quantitySold())
+                            .takenAt(cutoff)
+                            .build());
+                }
+                inventoryMovementRepository.insertSnapshots(snapshots);
+            }
+            return productIds.size();
+        });
+        return written != null ? written : 0;
+    }
+
+    private void takeSnapshotsQuietly() {
+        try {
+            long started = System.currentTimeMillis();
+            int written = takeSnapshots();
+            if (written > 0) {
+                log.info("Took {} inventory snapshots in {} ms", written, System.currentTimeMillis() - started);
+            }
+        } catch (RuntimeException e) {
+            log.error("Inventory snapshot run failed, will retry: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The current transaction's buffer, created on first use together with the
+     * synchronization that writes it before commit. Looked up among the synchronizations
+     * rather than bound as a resource so that a nested REQUIRES_NEW transaction gets its own.
+     */
+    private List<InventoryMovement> pendingMovements() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingMovements pending && pending.owner() == this) {
+                return pending.movements();
+            }
+        }
+        PendingMovements pending = new PendingMovements(this, new ArrayList<>());
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending.movements();
+    }
+
+    private record PendingMovements(InventoryMovementService owner, List<InventoryMovement> movements)
+            implements TransactionSynchronization {
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!movements.isEmpty()) {
+                owner.inventoryMovementRepository.insert(movements);
+            }
+        }
+    }
+
+    /**
+     * Time and ID of the last movement of a page, the keyset position of the next one
+     */
+    private record Position(LocalDateTime time, Long id) {
+
+        String encode() {
+            String raw = time + CURSOR_SEPARATOR + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Position decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(CURSOR_SEPARATOR);
+                return new Position(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return SYSTEM_ACTOR;
+        }
+        String name = authentication.getName();
+        return name.length() > MAX_ACTOR_LENGTH ? name.substring(0, MAX_ACTOR_LENGTH) : name;
+    }
+
+    private static Totals totals(InventorySnapshot snapshot) {
+        return new Totals(snapshot.getQuantityOnHand(), snapshot.getQuantityReserved(), snapshot.getQuantitySold(), 0);
+    }
+
+    /**
+     * Current time at the precision of the DATETIME(6) columns, so cursors round-trip exactly
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -1,37 +1,71 @@
 package com.nerya.neryaallnaturals.service;
 
+import com.nerya.neryaallnaturals.dto.BatchLookupResponse;
 import com.nerya.neryaallnaturals.dto.InventoryRequest;
 import com.nerya.neryaallnaturals.dto.InventoryResponse;
+import com.nerya.neryaallnaturals.dto.StockOperation;
+import com.nerya.neryaallnaturals.dto.StockOperationResponse;
 import com.nerya.neryaallnaturals.entity.Inventory;
+import com.nerya.neryaallnaturals.entity.InventoryMovementReason;
 import com.nerya.neryaallnaturals.entity.Product;
+import com.nerya.neryaallnaturals.event.InventoryChangedEvent;
+import com.nerya.neryaallnaturals.repository.InventoryReadRepository;
 import com.nerya.neryaallnaturals.repository.InventoryRepository;
+import com.nerya.neryaallnaturals.repository.InventoryRow;
 import com.nerya.neryaallnaturals.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
+import com.nerya.neryaallnaturals.util.HttpCaching;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class InventoryService {
 
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
+    private final InventoryReadRepository inventoryReadRepository;
+    private final HotStockService hotStockService;
+    private final InventoryMovementService inventoryMovementService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+
+    public InventoryService(InventoryRepository inventoryRepository,
+                            ProductRepository productRepository,
+                            InventoryReadRepository inventoryReadRepository,
+                            HotStockService hotStockService,
+                            InventoryMovementService inventoryMovementService,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager) {
+        this.inventoryRepository = inventoryRepository;
+        this.productRepository = productRepository;
+        this.inventoryReadRepository = inventoryReadRepository;
+        this.hotStockService = hotStockService;
+        this.inventoryMovementService = inventoryMovementService;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
 
     /**
-     * Get all inventory records
+     * Stream all inventory records in ID order
      */
     @Transactional(readOnly = true)
-    public List<InventoryResponse> getAllInventories() {
-        log.debug("Fetching all inventory records");
-        return inventoryRepository.findAll().stream()
-                .map(InventoryResponse::fromEntity)
-                .collect(Collectors.toList());
+    public long streamAllInventories(Consumer<InventoryResponse> sink) {
+        log.debug("Streaming all inventory records");
+        return inventoryReadRepository.forEach(row -> sink.accept(InventoryResponse.fromRow(row)));
     }
 
     /**
@@ -40,8 +74,8 @@ public class InventoryService {
     @Transactional(readOnly = true)
     public Optional<InventoryResponse> getInventoryById(Long id) {
         log.debug("Fetching inventory with ID: {}", id);
-        return inventoryRepository.findById(id)
-                .map(InventoryResponse::fromEntity);
+        return inventoryReadRepository.findById(id)
+                .map(InventoryResponse::fromRow);
     }
 
     /**
@@ -50,8 +84,140 @@ public class InventoryService {
     @Transactional(readOnly = true)
     public Optional<InventoryResponse> getInventoryByProductId(Long productId) {
         log.debug("Fetching inventory for product ID: {}", productId);
-        return inventoryRepository.findByProductId(productId)
-                .map(InventoryResponse::fromEntity);
+        return inventoryReadRepository.findByProductId(productId)
+                .map(InventoryResponse::fromRow);
+    }
+
+    /**
+     * Get the inventory of several products with one query, in request order
+     */
+    @Transactional(readOnly = true)
+    public BatchLookupResponse<InventoryResponse> getInventoriesByProductIds(List<Long> productIds) {
+        log.debug("Fetching inventory for {} product IDs", productIds.size());
+        Map<Long, InventoryResponse> found = new HashMap<>();
+        for (InventoryRow row : inventoryReadRepository.findByProductIds(new HashSet<>(productIds))) {
+            found.put(row.productId(), InventoryResponse.fromRow(row));
+        }
+        return BatchLookupResponse.ordered(productIds, found);
+    }
+
+    /**
+     * Validators of the full inventory listing. The row count is part of the tag so
+     * that deletes, which do not move MAX(updated_at), still change it.
+     */
+    @Transactional(readOnly = true)
+    public HttpCaching.Validators getInventoryListValidators() {
+        long count = inventoryRepository.count();
+        LocalDateTime lastModified = inventoryRepository.findLatestUpdate();
+        long millis = HttpCaching.toEpochMillis(lastModified);
+        return new HttpCaching.Validators("\"inv-" + count + "-" + millis + "\"", millis);
+    }
+
+    /**
+     * Validators of a single inventory record, without loading the entity
+     */
+    @Transactional(readOnly = true)
+    public Optional<HttpCaching.Validators> getInventoryValidators(Long id) {
+        return inventoryRepository.findUpdatedAtById(id)
+                .map(updatedAt -> HttpCaching.Validators.ofEntity("inv", id, updatedAt));
+    }
+
+    /**
+     * Validators of a product's inventory record, without loading the entity
+     */
+    @Transactional(readOnly = true)
+    public Optional<HttpCaching.Validators> getInventoryValidatorsByProductId(Long productId) {
+        return inventoryRepository.findUpdatedAtByProductId(productId)
+                .map(updatedAt -> HttpCaching.Validators.ofEntity("invp", productId, updatedAt));
+    }
+
+    /**
+     * Hold stock for a cart or pending order, if enough is available
+     */
+    public StockOperationResponse reserve(Long productId, int quantity) {
+        return applyStockOperation(StockOperation.RESERVE, productId, quantity);
+    }
+
+    /**
+     * Return reserved stock to available, if at least that much is reserved
+     */
+    public StockOperationResponse release(Long productId, int quantity) {
+        return applyStockOperation(StockOperation.RELEASE, productId, quantity);
+    }
+
+    /**
+     * Turn reserved stock into a sale, if at least that much is reserved
+     */
+    public StockOperationResponse commit(Long productId, int quantity) {
+        return applyStockOperation(StockOperation.COMMIT, productId, quantity);
+    }
+
+    /**
+     * Add received stock
+     */
+    public StockOperationResponse restock(Long productId, int quantity) {
+        return applyStockOperation(StockOperation.RESTOCK, productId, quantity);
+    }
+
+    /**
+     * Apply a stock operation as one conditional UPDATE, without reading the row first.
+     * Only a rejected operation costs a second query, to tell a missing inventory record
+     * from insufficient stock. Reservations of a product in hot stock mode are served by
+     * {@link HotStockService} instead.
+     *
+     * Not transactional itself: each UPDATE commits together with its movement in a short
+     * transaction of its own, and a hot reservation waiting for its journal write holds no
+     * connection.
+     */
+    public StockOperationResponse applyStockOperation(StockOperation operation, Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+        if (operation == StockOperation.RESERVE) {
+            Optional<StockOperationResponse.Status> hot = hotStockService.reserve(productId, quantity);
+            if (hot.isPresent()) {
+                return StockOperationResponse.of(operation, productId, quantity, hot.get());
+            }
+        } else if (operation == StockOperation.RELEASE || operation == StockOperation.COMMIT) {
+            hotStockService.awaitApplied(productId);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = transaction.execute(status -> {
+            int changed = switch (operation) {
+                case RESERVE -> inventoryRepository.reserve(productId, quantity, now);
+                case RELEASE -> inventoryRepository.release(productId, quantity, now);
+                case COMMIT -> inventoryRepository.commit(productId, quantity, now);
+                case RESTOCK -> inventoryRepository.restock(productId, quantity, now);
+            };
+            if (changed > 0) {
+                switch (operation) {
+                    case RESERVE -> inventoryMovementService.record(productId, InventoryMovementReason.RESERVE,
+                            0, quantity, 0);
+                    case RELEASE -> inventoryMovementService.record(productId, InventoryMovementReason.RELEASE,
+                            0, -quantity, 0);
+                    case COMMIT -> inventoryMovementService.record(productId, InventoryMovementReason.COMMIT,
+                            -quantity, -quantity, quantity);
+                    case RESTOCK -> inventoryMovementService.record(productId, InventoryMovementReason.RESTOCK,
+                            quantity, 0, 0);
+                }
+            }
+            return changed;
+        });
+
+        StockOperationResponse.Status status;
+        if (updated > 0) {
+            status = StockOperationResponse.Status.APPLIED;
+            eventPublisher.publishEvent(operation == StockOperation.RESERVE || operation == StockOperation.RELEASE
+                    ? InventoryChangedEvent.reservations(Set.of(productId))
+                    : InventoryChangedEvent.of(productId));
+        } else if (inventoryRepository.existsByProductId(productId)) {
+            status = StockOperationResponse.Status.INSUFFICIENT_STOCK;
+        } else {
+            status = StockOperationResponse.Status.NOT_FOUND;
+        }
+        log.debug("{} {} of product {}: {}", operation, quantity, productId, status);
+        return StockOperationResponse.of(operation, productId, quantity, status);
     }
 
     /**
@@ -86,11 +252,27 @@ public class InventoryService {
                 .build();
 
         Inventory savedInventory = inventoryRepository.save(inventory);
+        inventoryMovementService.record(inventoryRequest.getProductId(), InventoryMovementReason.CREATE,
+                count(savedInventory.getQuantityOnHand()), count(savedInventory.getQuantityReserved()),
+                count(savedInventory.getQuantitySold()));
+        eventPublisher.publishEvent(InventoryChangedEvent.of(inventoryRequest.getProductId()));
         log.info("Inventory created successfully for product ID: {}", inventoryRequest.getProductId());
 
         return InventoryResponse.fromEntity(savedInventory);
     }
 
+    /**
+     * Take the product of an inventory record out of hot stock mode, applying its journaled
+     * reservations. Admin edits set absolute counts, which cannot be merged with a live
+     * lease; call this before {@link #updateInventory} or {@link #deleteInventory}, outside
+     * their transaction so that they read the applied counts.
+     */
+    public void leaveHotStockMode(Long id) {
+        inventoryReadRepository.findById(id)
+                .filter(row -> hotStockService.isHot(row.productId()))
+                .ifPresent(row -> hotStockService.cool(row.productId()));
+    }
+
     /**
      * Update inventory by ID
      */
@@ -105,8 +287,18 @@ public class InventoryService {
 
         Inventory inventory = inventoryOptional.get();
 
+        // Reject edits based on an older read; concurrent edits are caught by @Version on flush
+        if (inventoryRequest.getVersion() != null && !inventoryRequest.getVersion().equals(inventory.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Inventory.class, id);
+        }
+
+        Long previousProductId = inventory.getProduct().getId();
+        int previousOnHand = count(inventory.getQuantityOnHand());
+        int previousReserved = count(inventory.getQuantityReserved());
+        int previousSold = count(inventory.getQuantitySold());
+
         // Check if product ID is being changed
-        if (!inventory.getProduct().getId().equals(inventoryRequest.getProductId())) {
+        if (!previousProductId.equals(inventoryRequest.getProductId())) {
             // Check if new product exists
             Optional<Product> productOptional = productRepository.findById(inventoryRequest.getProductId());
             if (productOptional.isEmpty()) {
@@ -144,6 +336,22 @@ public class InventoryService {
         }
 
         Inventory updatedInventory = inventoryRepository.save(inventory);
+        int onHand = count(updatedInventory.getQuantityOnHand());
+        int reserved = count(updatedInventory.getQuantityReserved());
+        int sold = count(updatedInventory.getQuantitySold());
+        if (previousProductId.equals(inventoryRequest.getProductId())) {
+            inventoryMovementService.record(previousProductId, InventoryMovementReason.ADJUST,
+                    onHand - previousOnHand, reserved - previousReserved, sold - previousSold);
+        } else {
+            // The counters leave one product and arrive at the other
+            inventoryMovementService.record(previousProductId, InventoryMovementReason.ADJUST,
+                    -previousOnHand, -previousReserved, -previousSold);
+            inventoryMovementService.record(inventoryRequest.getProductId(), InventoryMovementReason.ADJUST,
+                    onHand, reserved, sold);
+        }
+        // Moving the record to another product changes the stock of both
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                Set.copyOf(List.of(previousProductId, inventoryRequest.getProductId())), true));
         log.info("Inventory updated successfully with ID: {}", id);
 
         return Optional.of(InventoryResponse.fromEntity(updatedInventory));
@@ -161,8 +369,21 @@ public class InventoryService {
             return false;
         }
 
-        inventoryRepository.delete(inventoryOptional.get());
+        Inventory inventory = inventoryOptional.get();
+        Long productId = inventory.getProduct().getId();
+        inventoryRepository.delete(inventory);
+        inventoryMovementService.record(productId, InventoryMovementReason.DELETE,
+                -count(inventory.getQuantityOnHand()), -count(inventory.getQuantityReserved()),
+                -count(inventory.getQuantitySold()));
+        eventPublisher.publishEvent(InventoryChangedEvent.of(productId));
         log.info("Inventory deleted successfully with ID: {}", id);
         return true;
     }
+
+    /**
+     * A counter as the movement journal sees it; a missing count is zero
+     */
+    private static int count(Integer value) {
+        return value != null ? value : 0;
+    }
 }
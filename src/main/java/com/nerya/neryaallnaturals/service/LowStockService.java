@@ -0,0 +1,249 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.dto.LowStockPageResponse;
+import com.nerya.neryaallnaturals.dto.LowStockResponse;
+import com.nerya.neryaallnaturals.event.InventoryChangedEvent;
+import com.nerya.neryaallnaturals.event.LowStockCrossedEvent;
+import com.nerya.neryaallnaturals.event.ProductChangedEvent;
+import com.nerya.neryaallnaturals.repository.InventoryReadRepository;
+import com.nerya.neryaallnaturals.repository.InventoryRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of the products whose quantity on hand is at or below their minimum stock
+ * level, kept ordered by shortfall.
+ *
+ * The set is loaded once at startup with a query for the low rows only. After that it is
+ * maintained incrementally: every committed inventory change that can move quantity on hand
+ * or the stock levels re-reads just the affected records and moves them in or out of the
+ * set, publishing a {@link LowStockCrossedEvent} for each product that crossed its level.
+ * Updates run on the catalog update thread, so the set has a single writer. After each batch
+ * the writer publishes an immutable copy in shortfall order; reads page through that copy,
+ * so a page never sees a product twice or a total that disagrees with the items, and they
+ * never touch the database.
+ */
+@Service
+@Slf4j
+public class LowStockService {
+
+    private static final int LOAD_CHUNK_SIZE = ProductService.MAX_PAGE_SIZE;
+
+    /**
+     * Position in the shortfall order: largest shortfall first, then by product ID
+     */
+    private record Rank(int shortfall, long productId) {
+
+        static final Comparator<Rank> ORDER = Comparator.comparingInt(Rank::shortfall).reversed()
+                .thenComparingLong(Rank::productId);
+
+        static Rank of(LowStockResponse item) {
+            return new Rank(item.getShortfall(), item.getProductId());
+        }
+    }
+
+    private final InventoryReadRepository inventoryReadRepository;
+    private final CatalogUpdateQueue catalogUpdateQueue;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<Long, LowStockResponse> byProduct = new ConcurrentHashMap<>();
+    private final NavigableMap<Rank, LowStockResponse> byShortfall = new TreeMap<>(Rank.ORDER);
+    private final Set<Long> pendingProductIds = ConcurrentHashMap.newKeySet();
+    private volatile List<LowStockResponse> published = List.of();
+    private volatile boolean loaded;
+
+    public LowStockService(InventoryReadRepository inventoryReadRepository,
+                           CatalogUpdateQueue catalogUpdateQueue,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager) {
+        this.inventoryReadRepository = inventoryReadRepository;
+        this.catalogUpdateQueue = catalogUpdateQueue;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * One page of the low-stock products, largest shortfall first
+     *
+     * @param page zero-based page number
+     * @param size page size, capped at {@value ProductService#MAX_PAGE_SIZE}
+     * @throws IllegalArgumentException if the page is negative
+     */
+    public LowStockPageResponse getLowStock(Integer page, Integer size) {
+        int pageNumber = page != null ? page : 0;
+        int pageSize = ProductService.resolvePageSize(size);
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        List<LowStockResponse> lowStock = published;
+        long offset = (long) pageNumber * pageSize;
+        List<LowStockResponse> items = lowStock.stream()
+                .skip(offset)
+                .limit(pageSize)
+                .toList();
+        long total = lowStock.size();
+        return LowStockPageResponse.builder()
+                .items(items)
+                .page(pageNumber)
+                .size(items.size())
+                .total(total)
+                .hasMore(offset + items.size() < total)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        catalogUpdateQueue.submit(this::applyPendingChanges);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (!event.onHandChanged()) {
+            return;
+        }
+        pendingProductIds.addAll(event.productIds());
+        catalogUpdateQueue.submit(this::applyPendingChanges);
+    }
+
+    /**
+     * Keep the product names and SKUs of listed products current
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<Long> listed = event.productIds().stream()
+                .filter(byProduct::containsKey)
+                .toList();
+        if (!listed.isEmpty()) {
+            pendingProductIds.addAll(listed);
+            catalogUpdateQueue.submit(this::applyPendingChanges);
+        }
+    }
+
+    /**
+     * Re-read the changed records and move them in or out of the set. Runs on the catalog
+     * thread; the first run loads the whole set.
+     */
+    private void applyPendingChanges() {
+        if (!loaded) {
+            load();
+            if (!loaded) {
+                return;
+            }
+        }
+        if (pendingProductIds.isEmpty()) {
+            return;
+        }
+
+        Set<Long> ids = new HashSet<>(pendingProductIds);
+        pendingProductIds.removeAll(ids);
+        List<LowStockCrossedEvent> crossed = new ArrayList<>();
+        try {
+            Map<Long, InventoryRow> rows = new HashMap<>();
+            List<Long> idList = new ArrayList<>(ids);
+            for (int from = 0; from < idList.size(); from += LOAD_CHUNK_SIZE) {
+                List<Long> chunk = idList.subList(from, Math.min(from + LOAD_CHUNK_SIZE, idList.size()));
+                readOnlyTransaction.execute(status -> inventoryReadRepository.findByProductIds(chunk))
+                        .forEach(row -> rows.put(row.productId(), row));
+            }
+
+            for (Long productId : ids) {
+                InventoryRow row = rows.get(productId);
+                boolean low = row != null && isLowStock(row);
+                boolean wasLow = low ? put(LowStockResponse.fromRow(row)) : remove(productId);
+                if (low != wasLow) {
+                    crossed.add(new LowStockCrossedEvent(productId, low,
+                            row != null ? row.quantityOnHand() : null,
+                            row != null ? row.minStockLevel() : null));
+                }
+            }
+        } catch (RuntimeException e) {
+            pendingProductIds.addAll(ids);
+            log.error("Low-stock index update failed, will retry on next change: {}", e.getMessage(), e);
+        }
+        publish();
+
+        for (LowStockCrossedEvent event : crossed) {
+            if (event.lowStock()) {
+                log.info("Product {} is low on stock: {} on hand, minimum {}",
+                        event.productId(), event.quantityOnHand(), event.minStockLevel());
+            } else {
+                log.info("Product {} is no longer low on stock", event.productId());
+            }
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    /**
+     * Replace the set with the low rows currently in the database
+     */
+    private void load() {
+        long started = System.currentTimeMillis();
+        try {
+            byProduct.clear();
+            byShortfall.clear();
+            long count = readOnlyTransaction.execute(status -> inventoryReadRepository.forEachLowStock(row -> {
+                if (isLowStock(row)) {
+                    put(LowStockResponse.fromRow(row));
+                }
+            }));
+            loaded = true;
+            publish();
+            log.info("Low-stock index loaded: {} products in {} ms", count, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Low-stock index load failed, will retry on next change: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Hand readers the current set in shortfall order
+     */
+    private void publish() {
+        published = List.copyOf(byShortfall.values());
+    }
+
+    /**
+     * @return whether the product was in the set before
+     */
+    private boolean put(LowStockResponse item) {
+        LowStockResponse previous = byProduct.put(item.getProductId(), item);
+        if (previous != null) {
+            byShortfall.remove(Rank.of(previous));
+        }
+        byShortfall.put(Rank.of(item), item);
+        return previous != null;
+    }
+
+    /**
+     * @return whether the product was in the set before
+     */
+    private boolean remove(Long productId) {
+        LowStockResponse previous = byProduct.remove(productId);
+        if (previous != null) {
+            byShortfall.remove(Rank.of(previous));
+        }
+        return previous != null;
+    }
+
+    private static boolean isLowStock(InventoryRow row) {
+        return row.quantityOnHand() != null && row.minStockLevel() != null && row.isLowStock();
+    }
+}
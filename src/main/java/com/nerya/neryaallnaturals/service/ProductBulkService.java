@@ -0,0 +1,106 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.config.CacheConfig;
+import com.nerya.neryaallnaturals.dto.BulkProductAction;
+import com.nerya.neryaallnaturals.dto.BulkProductUpdateRequest;
+import com.nerya.neryaallnaturals.dto.BulkProductUpdateResponse;
+import com.nerya.neryaallnaturals.event.ProductChangedEvent;
+import com.nerya.neryaallnaturals.repository.ProductBulkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk admin changes ("raise selling prices 5% in a category", "unfeature everything") as
+ * set-based UPDATEs instead of loading and saving products one by one.
+ *
+ * Matching products are updated {@value #CHUNK_SIZE} IDs at a time, each chunk in its own
+ * short transaction, so row locks are held briefly however many products match. Every
+ * chunk evicts its products from the product cache and publishes a
+ * {@link ProductChangedEvent}, which refreshes the catalog snapshot and the search index.
+ */
+@Service
+@Slf4j
+public class ProductBulkService {
+
+    /**
+     * Products updated per statement and transaction
+     */
+    public static final int CHUNK_SIZE = 500;
+
+    private final ProductBulkRepository productBulkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transaction;
+
+    public ProductBulkService(ProductBulkRepository productBulkRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              CacheManager cacheManager,
+                              PlatformTransactionManager transactionManager) {
+        this.productBulkRepository = productBulkRepository;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Apply the action to every product matching the filter, or only count them for a dry run
+     *
+     * @throws IllegalArgumentException if a price adjustment has no percent
+     */
+    public BulkProductUpdateResponse update(BulkProductUpdateRequest request) {
+        if (request.getAction() == BulkProductAction.ADJUST_SELLING_PRICE
+                && (request.getPercent() == null || request.getPercent().signum() == 0)) {
+            throw new IllegalArgumentException("A non-zero percent is required for " + request.getAction());
+        }
+
+        long started = System.currentTimeMillis();
+        long matched = productBulkRepository.count(request);
+        if (request.isDryRun() || matched == 0) {
+            return response(request, matched, 0, started);
+        }
+
+        log.info("Bulk {} of {} products", request.getAction(), matched);
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        long updated = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = productBulkRepository.findIds(request, afterId, CHUNK_SIZE);
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+            updated += transaction.execute(status -> {
+                int count = productBulkRepository.update(request, ids);
+                // The product cache is transaction-aware: evictions apply on commit
+                ids.forEach(products::evict);
+                eventPublisher.publishEvent(new ProductChangedEvent(Set.copyOf(ids)));
+                return count;
+            });
+            if (ids.size() < CHUNK_SIZE) {
+                break;
+            }
+        }
+
+        log.info("Bulk {} updated {} of {} matched products", request.getAction(), updated, matched);
+        return response(request, matched, updated, started);
+    }
+
+    private static BulkProductUpdateResponse response(BulkProductUpdateRequest request, long matched, long updated,
+                                                      long started) {
+        return BulkProductUpdateResponse.builder()
+                .action(request.getAction())
+                .dryRun(request.isDryRun())
+                .matched(matched)
+                .updated(updated)
+                .durationMs(System.currentTimeMillis() - started)
+                .build();
+    }
+}
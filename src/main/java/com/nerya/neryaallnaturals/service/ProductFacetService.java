@@ -0,0 +1,126 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.dto.FacetValueCount;
+import com.nerya.neryaallnaturals.dto.ProductFilterRequest;
+import com.nerya.neryaallnaturals.dto.ProductFilterResponse;
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.dto.ProductSort;
+import com.nerya.neryaallnaturals.event.CatalogSnapshotChangedEvent;
+import com.nerya.neryaallnaturals.search.FacetIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Faceted filtering of the active catalog, served from a {@link FacetIndex}.
+ *
+ * The index is rebuilt from every new catalog snapshot on the catalog thread, reusing the
+ * snapshot's presorted product lists; readers only dereference a volatile field.
+ */
+@Service
+@Slf4j
+public class ProductFacetService {
+
+    /**
+     * Deepest result position a client may page to
+     */
+    public static final int MAX_RESULT_WINDOW = 1000;
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final List<BigDecimal> priceBucketEdges;
+
+    private volatile FacetIndex index;
+
+    public ProductFacetService(CatalogSnapshotService catalogSnapshotService,
+                               @Value("${app.facets.price-buckets:0,200,500,1000,2000}") BigDecimal[] priceBucketEdges) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.priceBucketEdges = Arrays.stream(priceBucketEdges).sorted().toList();
+    }
+
+    /**
+     * Filter active products and count the values of every facet
+     *
+     * @param request facet selection
+     * @param sort result order
+     * @param page zero-based page number
+     * @param size page size, capped at {@value ProductService#MAX_PAGE_SIZE}
+     * @throws IllegalArgumentException if a filter value is invalid or the page is too deep
+     * @throws IllegalStateException if the facet index has not been built yet
+     */
+    public ProductFilterResponse filter(ProductFilterRequest request, ProductSort sort, Integer page, Integer size) {
+        int pageNumber = page != null ? page : 0;
+        int pageSize = ProductService.resolvePageSize(size);
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        int offset = pageNumber * pageSize;
+        if (offset + pageSize > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Cannot page beyond the first " + MAX_RESULT_WINDOW + " results");
+        }
+        if (request.getMinPrice() != null && request.getMaxPrice() != null
+                && request.getMinPrice().compareTo(request.getMaxPrice()) > 0) {
+            throw new IllegalArgumentException("Minimum price must not exceed maximum price");
+        }
+
+        FacetIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("Facet index is still being built");
+        }
+
+        FacetIndex.Result result = current.filter(request.toFilter(), sort, offset, pageSize);
+        Map<String, List<FacetValueCount>> facets = new LinkedHashMap<>();
+        result.facets().forEach((facet, counts) -> facets.put(facet, counts.stream()
+                .map(FacetValueCount::fromValueCount)
+                .toList()));
+
+        return ProductFilterResponse.builder()
+                .items(result.items())
+                .page(pageNumber)
+                .size(result.items().size())
+                .totalHits(result.totalHits())
+                .hasMore(offset + pageSize < result.totalHits())
+                .facets(facets)
+                .build();
+    }
+
+    @EventListener
+    public void onSnapshotChanged(CatalogSnapshotChangedEvent event) {
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+        if (snapshot == null) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try {
+            FacetIndex current = index;
+            if (event.stockOnly() && current != null) {
+                // Stock patches keep every facet value, so only the listed products change
+                index = current.withProducts(event.productIds().stream()
+                        .map(snapshot::findProduct)
+                        .flatMap(Optional::stream)
+                        .toList());
+                log.debug("Facet index patched with stock of {} products in {} ms",
+                        event.productIds().size(), System.currentTimeMillis() - started);
+                return;
+            }
+            Map<ProductSort, List<ProductResponse>> productsBySort = new EnumMap<>(ProductSort.class);
+            for (ProductSort sort : ProductSort.values()) {
+                productsBySort.put(sort, snapshot.getProducts(null, sort));
+            }
+            index = FacetIndex.build(productsBySort, priceBucketEdges);
+            log.debug("Facet index built with {} products in {} ms",
+                    index.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            // Keep serving the previous index; the next snapshot retries
+            log.error("Facet index build failed: {}", e.getMessage(), e);
+        }
+    }
+}
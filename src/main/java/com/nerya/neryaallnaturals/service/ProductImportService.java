@@ -0,0 +1,445 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nerya.neryaallnaturals.dto.ProductImportEvent;
+import com.nerya.neryaallnaturals.dto.ProductRequest;
+import com.nerya.neryaallnaturals.event.ProductChangedEvent;
+import com.nerya.neryaallnaturals.search.ProductTextAnalyzer;
+import com.nerya.neryaallnaturals.util.CsvReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import from streamed CSV or NDJSON.
+ *
+ * Rows are validated like {@code POST /api/products/admin}, then collected into batches of
+ * {@value #BATCH_SIZE}. Categories are resolved from one lookup of all category IDs, and SKU
+ * conflicts with one IN query per batch plus a set of the SKUs already seen in the import.
+ * Every batch commits in its own transaction: the products go in as one JDBC batch, their
+ * generated IDs are read back by SKU, and the images and tags follow as two more batches.
+ * With {@code rewriteBatchedStatements} on the connection each batch reaches MySQL as a few
+ * multi-row INSERTs, which IDENTITY keys would otherwise rule out under Hibernate.
+ *
+ * Column lengths are checked up front by validation. A batch that the database still rejects
+ * as a whole is retried row by row, each row in its own transaction, so that only the
+ * offending rows are reported. Rejected rows never stop the import; each one is reported with
+ * its line number.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    public static final String TEXT_CSV = "text/csv";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * Rows inserted per transaction and JDBC batch
+     */
+    public static final int BATCH_SIZE = 1000;
+
+    /**
+     * Separator of the values of the list columns ({@code tags}, {@code imageUrls}) in CSV
+     */
+    private static final Pattern LIST_SEPARATOR = Pattern.compile("\\|");
+
+    private static final Set<String> LIST_COLUMNS = Set.of("tags", "imageUrls");
+
+    private static final Set<String> COLUMNS = Set.of("name", "sku", "shortDescription", "longDescription",
+            "price", "sellingPrice", "discountPercentage", "brand", "weight", "inStock", "quantity", "minQuantity",
+            "isActive", "isFeatured", "categoryId", "tags", "metaTitle", "metaDescription", "imageUrls",
+            "isPrimaryImage");
+
+    private static final String INSERT_PRODUCT = "INSERT INTO products (name, sku, short_description, "
+            + "long_description, price, selling_price, discount_percentage, brand, weight, in_stock, quantity, "
+            + "min_quantity, is_active, is_featured, total_reviews, meta_title, meta_description, category_id, "
+            + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_IMAGE = "INSERT INTO product_images (product_id, image_url, is_primary, "
+            + "display_order, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TAG = "INSERT INTO product_tags (product_id, tag) VALUES (?, ?)";
+
+    /**
+     * Input formats, by request content type
+     */
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        /**
+         * @throws IllegalArgumentException for any other content type
+         */
+        public static Format fromContentType(String contentType) {
+            String type = contentType == null ? "" : contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+            return switch (type) {
+                case TEXT_CSV -> CSV;
+                case APPLICATION_NDJSON -> NDJSON;
+                default -> throw new IllegalArgumentException("Unsupported import content type: " + contentType);
+            };
+        }
+    }
+
+    private record Row(long line, ProductRequest request) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcClient jdbcClient;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                JdbcClient jdbcClient,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcClient = jdbcClient;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Import every row of the input, reporting rejected rows and progress to the sink as
+     * they happen and the totals at the end
+     *
+     * @param input CSV with a header row of {@link ProductRequest} property names, or one
+     *              {@link ProductRequest} JSON object per line
+     * @return number of report entries handed to the sink
+     * @throws UncheckedIOException if the input cannot be read
+     */
+    public long importProducts(InputStream input, Format format, Consumer<ProductImportEvent> sink) {
+        ImportRun run = new ImportRun(sink);
+        log.info("Starting {} product import", format);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            if (format == Format.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        run.finish();
+        return run.events;
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        try {
+            List<String> header = csv.next();
+            if (header == null) {
+                return;
+            }
+            header = header.stream().map(String::trim).toList();
+            for (String column : header) {
+                if (!COLUMNS.contains(column)) {
+                    run.malformed(csv.getRecordLine(), "Unknown column: " + column);
+                    return;
+                }
+            }
+
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                long line = csv.getRecordLine();
+                ProductRequest request;
+                try {
+                    request = toRequest(header, record);
+                } catch (IllegalArgumentException e) {
+                    run.malformed(line, e.getMessage());
+                    continue;
+                }
+                run.accept(line, request);
+            }
+        } catch (IllegalArgumentException e) {
+            // Broken quoting: the record boundaries after this point cannot be trusted
+            run.malformed(csv.getRecordLine(), e.getMessage());
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            ProductRequest request;
+            try {
+                request = objectMapper.readValue(text, ProductRequest.class);
+            } catch (JsonProcessingException e) {
+                run.malformed(line, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            run.accept(line, request);
+        }
+    }
+
+    /**
+     * Map a CSV record onto a request; blank cells are left unset so defaults apply
+     */
+    private ProductRequest toRequest(List<String> header, List<String> record) {
+        if (record.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " fields but found " + record.size());
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String cell = record.get(i).trim();
+            if (cell.isEmpty()) {
+                continue;
+            }
+            String column = header.get(i);
+            values.put(column, LIST_COLUMNS.contains(column)
+                    ? Arrays.stream(LIST_SEPARATOR.split(cell)).map(String::trim).filter(value -> !value.isEmpty()).toList()
+                    : cell);
+        }
+        try {
+            return objectMapper.convertValue(values, ProductRequest.class);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(e.getCause() instanceof JsonMappingException mapping
+                    ? mapping.getOriginalMessage() : e.getMessage());
+        }
+    }
+
+    /**
+     * State of one import: running totals, SKUs seen so far and the batch being filled
+     */
+    private final class ImportRun {
+
+        private final Consumer<ProductImportEvent> sink;
+        private final long started = System.currentTimeMillis();
+        private final Set<Long> categoryIds = new HashSet<>(
+                jdbcClient.sql("SELECT id FROM categories").query(Long.class).list());
+        private final Set<String> seenSkus = new HashSet<>();
+        private final List<Row> pending = new ArrayList<>(BATCH_SIZE);
+        private long processed;
+        private long imported;
+        private long failed;
+        private long events;
+
+        ImportRun(Consumer<ProductImportEvent> sink) {
+            this.sink = sink;
+        }
+
+        void accept(long line, ProductRequest request) {
+            processed++;
+            Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(line, request.getSku(), violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            if (!categoryIds.contains(request.getCategoryId())) {
+                reject(line, request.getSku(), "Category not found with ID: " + request.getCategoryId());
+                return;
+            }
+            if (!seenSkus.add(skuKey(request.getSku()))) {
+                reject(line, request.getSku(), "Duplicate SKU in import: " + request.getSku());
+                return;
+            }
+            pending.add(new Row(line, request));
+            if (pending.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * Reject input that could not be read as a product at all
+         */
+        void malformed(long line, String message) {
+            processed++;
+            reject(line, null, message);
+        }
+
+        void reject(long line, String sku, String message) {
+            failed++;
+            emit(ProductImportEvent.error(line, sku, message));
+        }
+
+        void finish() {
+            flush();
+            long duration = System.currentTimeMillis() - started;
+            log.info("Product import finished: {} rows, {} imported, {} failed in {} ms",
+                    processed, imported, failed, duration);
+            emit(ProductImportEvent.totals(ProductImportEvent.Type.SUMMARY, processed, imported, failed, duration));
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Row> batch = withoutExistingSkus(List.copyOf(pending));
+            pending.clear();
+            if (!batch.isEmpty()) {
+                try {
+                    imported += transaction.execute(status -> insert(batch));
+                } catch (DataAccessException e) {
+                    log.warn("Product import batch of {} rows failed, retrying row by row: {}", batch.size(),
+                            e.getMostSpecificCause().getMessage());
+                    insertOneByOne(batch);
+                }
+            }
+            emit(ProductImportEvent.totals(ProductImportEvent.Type.PROGRESS, processed, imported, failed,
+                    System.currentTimeMillis() - started));
+        }
+
+        /**
+         * Insert the rows of a failed batch one at a time, rejecting only those that fail
+         */
+        private void insertOneByOne(List<Row> batch) {
+            for (Row row : batch) {
+                try {
+                    imported += transaction.execute(status -> insert(List.of(row)));
+                } catch (DataAccessException e) {
+                    reject(row.line(), row.request().getSku(),
+                            "Insert failed: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        /**
+         * Reject the rows whose SKU is already taken, with one query for the whole batch
+         */
+        private List<Row> withoutExistingSkus(List<Row> batch) {
+            Set<String> existing = new HashSet<>();
+            jdbcClient.sql("SELECT sku FROM products WHERE sku IN (:skus)")
+                    .param("skus", batch.stream().map(row -> row.request().getSku()).toList())
+                    .query((RowCallbackHandler) rs -> existing.add(skuKey(rs.getString("sku"))));
+            if (existing.isEmpty()) {
+                return batch;
+            }
+            List<Row> remaining = new ArrayList<>(batch.size());
+            for (Row row : batch) {
+                if (existing.contains(skuKey(row.request().getSku()))) {
+                    reject(row.line(), row.request().getSku(), "SKU already exists: " + row.request().getSku());
+                } else {
+                    remaining.add(row);
+                }
+            }
+            return remaining;
+        }
+
+        private void emit(ProductImportEvent event) {
+            events++;
+            sink.accept(event);
+        }
+    }
+
+    /**
+     * Insert one batch of products with their images and tags. Runs in a transaction.
+     *
+     * @return number of products inserted
+     */
+    private int insert(List<Row> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, batch, BATCH_SIZE, (ps, row) -> {
+            ProductRequest request = row.request();
+            ps.setString(1, request.getName());
+            ps.setString(2, request.getSku());
+            ps.setString(3, request.getShortDescription());
+            ps.setString(4, request.getLongDescription());
+            ps.setBigDecimal(5, request.getPrice());
+            ps.setBigDecimal(6, request.getSellingPrice());
+            ps.setObject(7, request.getDiscountPercentage());
+            ps.setString(8, request.getBrand());
+            ps.setString(9, request.getWeight());
+            ps.setObject(10, request.getInStock());
+            ps.setObject(11, request.getQuantity());
+            ps.setObject(12, request.getMinQuantity());
+            ps.setObject(13, request.getIsActive());
+            ps.setObject(14, request.getIsFeatured());
+            ps.setString(15, request.getMetaTitle());
+            ps.setString(16, request.getMetaDescription());
+            ps.setLong(17, request.getCategoryId());
+            ps.setObject(18, now);
+            ps.setObject(19, now);
+        });
+
+        // IDENTITY keys of a rewritten batch are not reliably returned; the SKU is unique
+        Map<String, Long> ids = new HashMap<>();
+        jdbcClient.sql("SELECT id, sku FROM products WHERE sku IN (:skus)")
+                .param("skus", batch.stream().map(row -> row.request().getSku()).toList())
+                .query((RowCallbackHandler) rs -> ids.put(skuKey(rs.getString("sku")), rs.getLong("id")));
+
+        List<Object[]> images = new ArrayList<>();
+        List<Object[]> tags = new ArrayList<>();
+        for (Row row : batch) {
+            ProductRequest request = row.request();
+            Long productId = ids.get(skuKey(request.getSku()));
+            if (request.getImageUrls() != null) {
+                int order = 0;
+                for (String imageUrl : request.getImageUrls()) {
+                    boolean primary = order == 0 && (request.getIsPrimaryImage() == null || request.getIsPrimaryImage());
+                    images.add(new Object[] {productId, imageUrl, primary, order++, now, now});
+                }
+            }
+            if (request.getTags() != null) {
+                // Tags that only differ in case or accents are one row under the column collation
+                Set<String> seenTags = new HashSet<>();
+                for (String tag : request.getTags()) {
+                    if (tag != null && !tag.isBlank() && seenTags.add(ProductTextAnalyzer.fold(tag))) {
+                        tags.add(new Object[] {productId, tag});
+                    }
+                }
+            }
+        }
+        if (!images.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_IMAGE, images);
+        }
+        if (!tags.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TAG, tags);
+        }
+
+        eventPublisher.publishEvent(new ProductChangedEvent(Set.copyOf(ids.values())));
+        return batch.size();
+    }
+
+    /**
+     * SKUs are unique case-insensitively under the default MySQL collation
+     */
+    private static String skuKey(String sku) {
+        return sku.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,359 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.dto.ProductSearchResponse;
+import com.nerya.neryaallnaturals.dto.SearchCacheStatsResponse;
+import com.nerya.neryaallnaturals.dto.SearchQueryStats;
+import com.nerya.neryaallnaturals.entity.Product;
+import com.nerya.neryaallnaturals.event.CatalogSnapshotChangedEvent;
+import com.nerya.neryaallnaturals.event.ProductChangedEvent;
+import com.nerya.neryaallnaturals.repository.ProductRepository;
+import com.nerya.neryaallnaturals.repository.StreamingReads;
+import com.nerya.neryaallnaturals.search.FuzzyTermIndex;
+import com.nerya.neryaallnaturals.search.ProductSearchIndex;
+import com.nerya.neryaallnaturals.search.ProductTextAnalyzer;
+import com.nerya.neryaallnaturals.search.SearchDocument;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Full-text product search backed by an in-memory {@link ProductSearchIndex}.
+ * The index is built from the database once the application is ready and then kept in
+ * sync on the catalog thread as product writes commit, like the catalog snapshot.
+ *
+ * A query that matches nothing is retried with its unknown words replaced by the closest
+ * product name or brand word from a {@link FuzzyTermIndex}, which is reported back as
+ * "did you mean".
+ *
+ * Result pages are cached by normalized query, filters and page. Every index update and
+ * every new catalog snapshot bumps the results version that is part of the cache key, so
+ * a product write invalidates all cached pages at once and stale entries simply age out.
+ */
+@Service
+@Slf4j
+public class ProductSearchService {
+
+    /**
+     * Deepest result position a client may page to
+     */
+    public static final int MAX_RESULT_WINDOW = 1000;
+
+    /**
+     * Most queries listed by {@link #getCacheStats}
+     */
+    public static final int MAX_STATS_QUERIES = 100;
+
+    private static final int LOAD_CHUNK_SIZE = ProductService.MAX_PAGE_SIZE;
+    private static final int MAX_TRACKED_QUERIES = 10_000;
+
+    /**
+     * Longer queries are not spelling-corrected; they are rarely one typo away from a product
+     */
+    private static final int MAX_CORRECTED_WORDS = 6;
+
+    /**
+     * Cache key of one result page. The analyzed terms are sorted, so queries that differ only
+     * in case, accents, punctuation, stopwords, word forms or word order share an entry. The
+     * results version makes entries computed before an index or snapshot change unreachable.
+     */
+    private record ResultKey(long version, String terms, Long categoryId, Boolean active, int page, int size) {
+    }
+
+    private record CachedResults(List<ProductResponse> items, long totalHits, String didYouMean) {
+    }
+
+    private static final class QueryCounters {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+
+    private final ProductRepository productRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final CatalogUpdateQueue catalogUpdateQueue;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Cache<ResultKey, CachedResults> resultCache;
+    private final Cache<String, QueryCounters> queryCounters;
+
+    private final Set<Long> pendingProductIds = ConcurrentHashMap.newKeySet();
+    private final AtomicLong resultsVersion = new AtomicLong();
+    private volatile ProductSearchIndex index;
+    private volatile FuzzyTermIndex fuzzyIndex = FuzzyTermIndex.EMPTY;
+
+    public ProductSearchService(ProductRepository productRepository,
+                                CatalogSnapshotService catalogSnapshotService,
+                                CatalogUpdateQueue catalogUpdateQueue,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.cache.search.max-entries:10000}") long maxEntries,
+                                @Value("${app.cache.search.ttl:5m}") Duration ttl) {
+        this.productRepository = productRepository;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.catalogUpdateQueue = catalogUpdateQueue;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.resultCache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.queryCounters = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_QUERIES)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, resultCache, "searchResults");
+    }
+
+    /**
+     * Search products by relevance
+     *
+     * @param query free-text query; every term must match
+     * @param categoryId restrict to a category, or null
+     * @param active restrict by active flag, or null for both
+     * @param page zero-based page number
+     * @param size page size, capped at {@value ProductService#MAX_PAGE_SIZE}
+     * @throws IllegalArgumentException if the query has no searchable terms or the page is too deep
+     * @throws IllegalStateException if the index has not been built yet
+     */
+    public ProductSearchResponse search(String query, Long categoryId, Boolean active, Integer page, Integer size) {
+        List<String> terms = ProductTextAnalyzer.analyze(query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one word");
+        }
+        int pageNumber = page != null ? page : 0;
+        int pageSize = ProductService.resolvePageSize(size);
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        int offset = pageNumber * pageSize;
+        if (offset + pageSize > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Cannot page beyond the first " + MAX_RESULT_WINDOW + " results");
+        }
+
+        ProductSearchIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("Search index is still being built");
+        }
+
+        String normalized = String.join(" ", new TreeSet<>(terms));
+        ResultKey key = new ResultKey(resultsVersion.get(), normalized, categoryId, active, pageNumber, pageSize);
+        QueryCounters counters = queryCounters.get(normalized, ignored -> new QueryCounters());
+        CachedResults results = resultCache.getIfPresent(key);
+        if (results != null) {
+            counters.hits.increment();
+        } else {
+            counters.misses.increment();
+            results = runSearch(current, query, terms, categoryId, active, offset, pageSize);
+            resultCache.put(key, results);
+        }
+
+        return ProductSearchResponse.builder()
+                .query(query)
+                .didYouMean(results.didYouMean())
+                .items(results.items())
+                .page(pageNumber)
+                .size(results.items().size())
+                .totalHits(results.totalHits())
+                .hasMore(offset + pageSize < results.totalHits())
+                .build();
+    }
+
+    /**
+     * Hit and miss counts of the search result cache, with the most requested queries
+     *
+     * @param limit number of queries to list, at most {@value #MAX_STATS_QUERIES}
+     */
+    public SearchCacheStatsResponse getCacheStats(int limit) {
+        if (limit < 1 || limit > MAX_STATS_QUERIES) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_STATS_QUERIES);
+        }
+        List<SearchQueryStats> queries = new ArrayList<>();
+        queryCounters.asMap().forEach((query, counters) ->
+                queries.add(SearchQueryStats.of(query, counters.hits.sum(), counters.misses.sum())));
+        queries.sort(Comparator.comparingLong((SearchQueryStats stats) -> stats.getHits() + stats.getMisses())
+                .reversed()
+                .thenComparing(SearchQueryStats::getQuery));
+
+        CacheStats stats = resultCache.stats();
+        return SearchCacheStatsResponse.builder()
+                .resultsVersion(resultsVersion.get())
+                .entries(resultCache.estimatedSize())
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictions(stats.evictionCount())
+                .topQueries(queries.subList(0, Math.min(limit, queries.size())))
+                .build();
+    }
+
+    /**
+     * Product details in cached results come from the snapshot, so a new snapshot
+     * invalidates them as well
+     */
+    @EventListener
+    public void onCatalogSnapshotChanged(CatalogSnapshotChangedEvent event) {
+        resultsVersion.incrementAndGet();
+    }
+
+    /**
+     * Rank one page. When nothing matches and a spelling correction of the query does,
+     * the page holds the corrected query's results.
+     */
+    private CachedResults runSearch(ProductSearchIndex current, String query, List<String> terms, Long categoryId,
+                                    Boolean active, int offset, int pageSize) {
+        ProductSearchIndex.Hits hits = current.search(terms, categoryId, active, offset + pageSize);
+        String didYouMean = null;
+        if (hits.totalHits() == 0) {
+            String corrected = correctSpelling(current, query);
+            if (corrected != null) {
+                ProductSearchIndex.Hits correctedHits = current.search(ProductTextAnalyzer.analyze(corrected),
+                        categoryId, active, offset + pageSize);
+                if (correctedHits.totalHits() > 0) {
+                    hits = correctedHits;
+                    didYouMean = corrected;
+                }
+            }
+        }
+
+        List<ProductResponse> items = new ArrayList<>(pageSize);
+        for (int i = offset; i < hits.hits().size(); i++) {
+            // A product changed since it was indexed may have just left the snapshot
+            catalogSnapshotService.getProductById(hits.hits().get(i).productId()).ifPresent(items::add);
+        }
+        return new CachedResults(List.copyOf(items), hits.totalHits(), didYouMean);
+    }
+
+    /**
+     * Replace every query word that matches no indexed product with the closest name or
+     * brand word
+     *
+     * @return the corrected query in folded words, or null when no word could be corrected
+     */
+    private String correctSpelling(ProductSearchIndex current, String query) {
+        FuzzyTermIndex dictionary = fuzzyIndex;
+        List<String> words = FuzzyTermIndex.words(query);
+        if (words.size() > MAX_CORRECTED_WORDS) {
+            return null;
+        }
+        boolean corrected = false;
+        List<String> result = new ArrayList<>(words.size());
+        for (String word : words) {
+            List<String> terms = ProductTextAnalyzer.analyze(word);
+            if (terms.isEmpty() || terms.stream().allMatch(current::contains)) {
+                result.add(word);
+                continue;
+            }
+            Optional<FuzzyTermIndex.Correction> correction = dictionary.correct(word);
+            if (correction.isPresent()) {
+                result.add(correction.get().word());
+                corrected = true;
+            } else {
+                result.add(word);
+            }
+        }
+        return corrected ? String.join(" ", result) : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        catalogUpdateQueue.submit(this::rebuild);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        pendingProductIds.addAll(event.productIds());
+        catalogUpdateQueue.submit(this::applyPendingProductChanges);
+    }
+
+    /**
+     * Index every product from scratch and swap the new index in. Runs on the catalog thread.
+     */
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        try {
+            List<SearchDocument> documents = new ArrayList<>();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Product> rows = productRepository.streamAll()) {
+                    StreamingReads.forEachChunk(rows, entityManager, SearchDocument::fromEntity, documents::add);
+                }
+            });
+            index = ProductSearchIndex.build(documents);
+            fuzzyIndex = FuzzyTermIndex.build(documents);
+            resultsVersion.incrementAndGet();
+            log.info("Search index built with {} products in {} ms",
+                    documents.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Search index build failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reindex the products changed since the last update. Runs on the catalog thread.
+     */
+    private void applyPendingProductChanges() {
+        ProductSearchIndex current = index;
+        if (current == null || pendingProductIds.isEmpty()) {
+            return; // the initial build picks up everything
+        }
+
+        Set<Long> ids = new HashSet<>(pendingProductIds);
+        pendingProductIds.removeAll(ids);
+        try {
+            List<SearchDocument> changed = new ArrayList<>();
+            List<Long> idList = new ArrayList<>(ids);
+            for (int from = 0; from < idList.size(); from += LOAD_CHUNK_SIZE) {
+                List<Long> chunk = idList.subList(from, Math.min(from + LOAD_CHUNK_SIZE, idList.size()));
+                changed.addAll(readOnlyTransaction.execute(status -> productRepository.findByIdIn(chunk)
+                        .stream()
+                        .map(SearchDocument::fromEntity)
+                        .toList()));
+            }
+
+            Set<Long> removed = new HashSet<>(ids);
+            for (SearchDocument document : changed) {
+                removed.remove(document.productId());
+                current.upsert(document);
+            }
+            removed.forEach(current::delete);
+            fuzzyIndex = fuzzyIndex.withDocuments(changed);
+            resultsVersion.incrementAndGet();
+
+            if (current.needsCompaction()) {
+                List<SearchDocument> documents = current.documents();
+                index = ProductSearchIndex.build(documents);
+                fuzzyIndex = FuzzyTermIndex.build(documents);
+                log.info("Search index compacted to {} products", index.size());
+            }
+        } catch (RuntimeException e) {
+            pendingProductIds.addAll(ids);
+            log.error("Search index update failed, will retry on next change: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,21 +1,56 @@
 package com.nerya.neryaallnaturals.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.nerya.neryaallnaturals.config.CacheConfig;
+import com.nerya.neryaallnaturals.dto.CursorPage;
+import com.nerya.neryaallnaturals.dto.ProductCard;
 import com.nerya.neryaallnaturals.dto.ProductRequest;
 import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.dto.ProductSort;
 import com.nerya.neryaallnaturals.entity.Category;
 import com.nerya.neryaallnaturals.entity.Product;
 import com.nerya.neryaallnaturals.entity.ProductImage;
+import com.nerya.neryaallnaturals.event.CategoryChangedEvent;
+import com.nerya.neryaallnaturals.event.ProductChangedEvent;
 import com.nerya.neryaallnaturals.repository.CategoryRepository;
 import com.nerya.neryaallnaturals.repository.InventoryRepository;
 import com.nerya.neryaallnaturals.repository.ProductImageRepository;
+import com.nerya.neryaallnaturals.repository.ProductReadRepository;
 import com.nerya.neryaallnaturals.repository.ProductRepository;
+import com.nerya.neryaallnaturals.repository.ProductRow;
+import com.nerya.neryaallnaturals.util.CursorCodec;
+import com.nerya.neryaallnaturals.util.JsonMergePatch;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,58 +58,195 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ProductService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final ProductRepository productRepository;
+    private final ProductReadRepository productReadRepository;
     private final CategoryRepository categoryRepository;
     private final ProductImageRepository productImageRepository;
     private final InventoryRepository inventoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     /**
-     * Get all active products
+     * Get one page of active products
      */
     @Transactional(readOnly = true)
-    public List<ProductResponse> getAllActiveProducts() {
-        log.debug("Fetching all active products");
-        return productRepository.findByIsActiveTrue().stream()
-                .map(ProductResponse::fromEntity)
-                .collect(Collectors.toList());
+    public CursorPage<ProductResponse> getActiveProducts(String cursor, Integer size, ProductSort sort) {
+        log.debug("Fetching active products page, sort: {}", sort);
+        return findPage(null, true, cursor, size, sort);
     }
 
     /**
      * Get product by ID
      */
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id", unless = "#result == null")
     public Optional<ProductResponse> getProductById(Long id) {
         log.debug("Fetching product with ID: {}", id);
-        return productRepository.findById(id)
-                .map(ProductResponse::fromEntity);
+        return productReadRepository.findById(id)
+                .map(ProductResponse::fromRow);
     }
 
     /**
-     * Get products by category ID
+     * Get several products by ID. Cached products are served from the product cache; the
+     * rest are loaded with one IN query and cached.
+     *
+     * @return found products by ID; unknown IDs are absent
      */
     @Transactional(readOnly = true)
-    public List<ProductResponse> getProductsByCategory(Long categoryId) {
-        log.debug("Fetching products for category ID: {}", categoryId);
-        return productRepository.findByCategoryIdAndActive(categoryId).stream()
-                .map(ProductResponse::fromEntity)
-                .collect(Collectors.toList());
+    public Map<Long, ProductResponse> getProductsByIds(Collection<Long> ids) {
+        log.debug("Fetching {} products by ID", ids.size());
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        Map<Long, ProductResponse> found = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            ProductResponse cached = cache != null ? cache.get(id, ProductResponse.class) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                uncached.add(id);
+            }
+        }
+
+        if (!uncached.isEmpty()) {
+            for (ProductRow row : productReadRepository.findByIds(uncached)) {
+                ProductResponse response = ProductResponse.fromRow(row);
+                found.put(row.id(), response);
+                if (cache != null) {
+                    cache.put(row.id(), response);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get one page of active products in a category
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductResponse> getProductsByCategory(Long categoryId, String cursor, Integer size, ProductSort sort) {
+        log.debug("Fetching products page for category ID: {}, sort: {}", categoryId, sort);
+        return findPage(categoryId, true, cursor, size, sort);
+    }
+
+    /**
+     * Get one page of all products including inactive (admin only)
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductResponse> getAllProducts(String cursor, Integer size, ProductSort sort) {
+        log.debug("Fetching all products page, sort: {}", sort);
+        return findPage(null, false, cursor, size, sort);
     }
 
     /**
-     * Get all products (admin only)
+     * Get one page of active product cards
      */
     @Transactional(readOnly = true)
-    public List<ProductResponse> getAllProducts() {
-        log.debug("Fetching all products");
-        return productRepository.findAll().stream()
-                .map(ProductResponse::fromEntity)
+    public CursorPage<ProductCard> getActiveProductCards(String cursor, Integer size, ProductSort sort) {
+        log.debug("Fetching active product cards page, sort: {}", sort);
+        return findCardPage(null, true, cursor, size, sort);
+    }
+
+    /**
+     * Get one page of active product cards in a category
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductCard> getProductCardsByCategory(Long categoryId, String cursor, Integer size, ProductSort sort) {
+        log.debug("Fetching product cards page for category ID: {}, sort: {}", categoryId, sort);
+        return findCardPage(categoryId, true, cursor, size, sort);
+    }
+
+    /**
+     * Get one page of product cards including inactive (admin only)
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProductCard> getAllProductCards(String cursor, Integer size, ProductSort sort) {
+        log.debug("Fetching all product cards page, sort: {}", sort);
+        return findCardPage(null, false, cursor, size, sort);
+    }
+
+    /**
+     * Stream all products including inactive (admin only), in ID order
+     */
+    @Transactional(readOnly = true)
+    public long streamAllProducts(Consumer<ProductResponse> sink) {
+        log.debug("Streaming all products");
+        return productReadRepository.forEach(row -> sink.accept(ProductResponse.fromRow(row)));
+    }
+
+    /**
+     * Run a keyset-paginated listing. One extra row is fetched to tell whether another page exists.
+     */
+    private CursorPage<ProductResponse> findPage(Long categoryId, boolean activeOnly, String cursor,
+                                                 Integer size, ProductSort sort) {
+        int pageSize = resolvePageSize(size);
+        CursorCodec.Cursor after = CursorCodec.decode(cursor, sort);
+
+        List<ProductRow> rows = productReadRepository.findPage(categoryId, activeOnly, sort, after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductResponse> page = (hasMore ? rows.subList(0, pageSize) : rows).stream()
+                .map(ProductResponse::fromRow)
                 .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasMore) {
+            ProductResponse last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(sort, sort.keyOf(last), last.getId());
+        }
+
+        return CursorPage.<ProductResponse>builder()
+                .items(page)
+                .size(page.size())
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Keyset-paginated listing of card projections; same paging as {@link #findPage}
+     */
+    private CursorPage<ProductCard> findCardPage(Long categoryId, boolean activeOnly, String cursor,
+                                                 Integer size, ProductSort sort) {
+        int pageSize = resolvePageSize(size);
+        CursorCodec.Cursor after = CursorCodec.decode(cursor, sort);
+
+        List<ProductCard> rows = productRepository.findCardPage(categoryId, activeOnly, sort, after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductCard> page = hasMore ? List.copyOf(rows.subList(0, pageSize)) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ProductCard last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(sort, sort.keyOf(last), last.getId());
+        }
+
+        return CursorPage.<ProductCard>builder()
+                .items(page)
+                .size(page.size())
+                .hasMore(hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Apply the default and maximum page size
+     */
+    public static int resolvePageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 
     /**
      * Create a new product (admin only)
      */
     @Transactional
+    @CachePut(cacheNames = CacheConfig.PRODUCTS, key = "#result.id")
     public ProductResponse createProduct(ProductRequest productRequest) {
         log.info("Creating new product: {}", productRequest.getName());
 
@@ -126,86 +298,222 @@ public class ProductService {
         }
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct.getId()));
         log.info("Product created successfully: {}", savedProduct.getName());
 
         return ProductResponse.fromEntity(savedProduct);
     }
 
     /**
-     * Update product by ID (admin only)
+     * Update product by ID (admin only). Only the columns whose value changed are written,
+     * and images are kept unless image URLs are sent.
      */
     @Transactional
+    @CachePut(cacheNames = CacheConfig.PRODUCTS, key = "#id", unless = "#result == null")
     public Optional<ProductResponse> updateProduct(Long id, ProductRequest productRequest) {
         log.info("Updating product with ID: {}", id);
-        
+
         Optional<Product> productOptional = productRepository.findById(id);
         if (productOptional.isEmpty()) {
             return Optional.empty();
         }
 
         Product product = productOptional.get();
-        
+        boolean replaceImages = productRequest.getImageUrls() != null && !productRequest.getImageUrls().isEmpty();
+        return Optional.of(applyChanges(product, productRequest, replaceImages));
+    }
+
+    /**
+     * Apply a JSON Merge Patch to a product (admin only). The patch is merged into the
+     * product's current state as a {@link ProductRequest} and the result validated like a
+     * full update, so only the members present in the patch can change anything. Images
+     * are diffed when the patch has {@code imageUrls} or {@code isPrimaryImage}.
+     *
+     * @throws IllegalArgumentException if the patch is not an object or the patched product is invalid
+     */
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.PRODUCTS, key = "#id", unless = "#result == null")
+    public Optional<ProductResponse> patchProduct(Long id, JsonNode patch) {
+        log.info("Patching product with ID: {}", id);
+
+        Optional<Product> productOptional = productRepository.findById(id);
+        if (productOptional.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Product product = productOptional.get();
+        ObjectNode current = objectMapper.valueToTree(ProductRequest.fromEntity(product));
+        JsonMergePatch.apply(current, patch);
+        ProductRequest patched;
+        try {
+            patched = objectMapper.treeToValue(current, ProductRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid patch: " + e.getOriginalMessage());
+        }
+
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(patched);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        return Optional.of(applyChanges(product, patched, patch.has("imageUrls") || patch.has("isPrimaryImage")));
+    }
+
+    /**
+     * Copy the request onto the product, touching only what differs so that dirty checking
+     * (with {@code @DynamicUpdate}) writes just the changed columns and rows. Nothing is
+     * saved or published when the request matches the product. Stock fields are ignored
+     * for products with an inventory record; see {@link ProductStockService}.
+     */
+    private ProductResponse applyChanges(Product product, ProductRequest request, boolean replaceImages) {
         // Check if SKU is being changed and if it exists
-        if (!product.getSku().equals(productRequest.getSku())) {
-            if (productRepository.findBySku(productRequest.getSku()).isPresent()) {
-                throw new RuntimeException("SKU already exists: " + productRequest.getSku());
-            }
+        if (!product.getSku().equals(request.getSku())
+                && productRepository.findBySku(request.getSku()).isPresent()) {
+            throw new RuntimeException("SKU already exists: " + request.getSku());
         }
 
-        // Get category
-        Optional<Category> categoryOptional = categoryRepository.findById(productRequest.getCategoryId());
-        if (categoryOptional.isEmpty()) {
-            throw new RuntimeException("Category not found with ID: " + productRequest.getCategoryId());
+        boolean changed = false;
+        if (!Objects.equals(product.getCategory().getId(), request.getCategoryId())) {
+            Category category = categoryRepository.findById(request.getCategoryId())
+                    .orElseThrow(() -> new RuntimeException("Category not found with ID: " + request.getCategoryId()));
+            product.setCategory(category);
+            changed = true;
         }
 
-        // Update product fields
-        product.setName(productRequest.getName());
-        product.setSku(productRequest.getSku());
-        product.setShortDescription(productRequest.getShortDescription());
-        product.setLongDescription(productRequest.getLongDescription());
-        product.setPrice(productRequest.getPrice());
-        product.setSellingPrice(productRequest.getSellingPrice());
-        product.setDiscountPercentage(productRequest.getDiscountPercentage());
-        product.setBrand(productRequest.getBrand());
-        product.setWeight(productRequest.getWeight());
-        product.setInStock(productRequest.getInStock());
-        product.setQuantity(productRequest.getQuantity());
-        product.setMinQuantity(productRequest.getMinQuantity());
-        product.setIsActive(productRequest.getIsActive());
-        product.setIsFeatured(productRequest.getIsFeatured());
-        product.setTags(productRequest.getTags());
-        product.setMetaTitle(productRequest.getMetaTitle());
-        product.setMetaDescription(productRequest.getMetaDescription());
-        product.setCategory(categoryOptional.get());
-
-        // Update images if provided
-        if (productRequest.getImageUrls() != null && !productRequest.getImageUrls().isEmpty()) {
-            // Remove existing images
-            product.getImages().clear();
-            
-            // Add new images
-            int order = 0;
-            for (String imageUrl : productRequest.getImageUrls()) {
-                ProductImage image = ProductImage.builder()
-                        .product(product)
-                        .imageUrl(imageUrl)
-                        .isPrimary(order == 0 && (productRequest.getIsPrimaryImage() == null || productRequest.getIsPrimaryImage()))
-                        .displayOrder(order++)
-                        .build();
-                product.getImages().add(image);
-            }
+        changed |= update(product.getName(), request.getName(), product::setName);
+        changed |= update(product.getSku(), request.getSku(), product::setSku);
+        changed |= update(product.getShortDescription(), request.getShortDescription(), product::setShortDescription);
+        changed |= update(product.getLongDescription(), request.getLongDescription(), product::setLongDescription);
+        changed |= updateAmount(product.getPrice(), request.getPrice(), product::setPrice);
+        changed |= updateAmount(product.getSellingPrice(), request.getSellingPrice(), product::setSellingPrice);
+        changed |= update(product.getDiscountPercentage(), request.getDiscountPercentage(), product::setDiscountPercentage);
+        changed |= update(product.getBrand(), request.getBrand(), product::setBrand);
+        changed |= update(product.getWeight(), request.getWeight(), product::setWeight);
+        // Once the product has an inventory record its stock fields are derived from it
+        if (!inventoryRepository.existsByProductId(product.getId())) {
+            changed |= update(product.getInStock(), request.getInStock(), product::setInStock);
+            changed |= update(product.getQuantity(), request.getQuantity(), product::setQuantity);
+            changed |= update(product.getMinQuantity(), request.getMinQuantity(), product::setMinQuantity);
+        }
+        changed |= update(product.getIsActive(), request.getIsActive(), product::setIsActive);
+        changed |= update(product.getIsFeatured(), request.getIsFeatured(), product::setIsFeatured);
+        changed |= update(product.getMetaTitle(), request.getMetaTitle(), product::setMetaTitle);
+        changed |= update(product.getMetaDescription(), request.getMetaDescription(), product::setMetaDescription);
+        changed |= updateTags(product, request.getTags());
+        if (replaceImages) {
+            changed |= updateImages(product, request.getImageUrls(), request.getIsPrimaryImage());
+        }
+
+        if (!changed) {
+            log.info("Product unchanged: {}", product.getName());
+            return ProductResponse.fromEntity(product);
         }
 
+        // Tag and image changes alone do not dirty the products row, but the ETags are
+        // derived from updated_at
+        product.setUpdatedAt(LocalDateTime.now());
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(updatedProduct.getId()));
         log.info("Product updated successfully: {}", updatedProduct.getName());
-        
-        return Optional.of(ProductResponse.fromEntity(updatedProduct));
+        return ProductResponse.fromEntity(updatedProduct);
+    }
+
+    private static <T> boolean update(T current, T next, Consumer<T> setter) {
+        if (Objects.equals(current, next)) {
+            return false;
+        }
+        setter.accept(next);
+        return true;
+    }
+
+    /**
+     * Like {@link #update} but ignoring scale, so 10.5 does not overwrite a stored 10.50
+     */
+    private static boolean updateAmount(BigDecimal current, BigDecimal next, Consumer<BigDecimal> setter) {
+        if (current == null ? next == null : next != null && current.compareTo(next) == 0) {
+            return false;
+        }
+        setter.accept(next);
+        return true;
+    }
+
+    /**
+     * Edit the persistent tag set in place so only added and removed tags become row
+     * inserts and deletes, instead of replacing the whole collection
+     */
+    private static boolean updateTags(Product product, Set<String> tags) {
+        Set<String> next = tags != null ? tags : Set.of();
+        if (product.getTags() == null) {
+            product.setTags(new HashSet<>(next));
+            return !next.isEmpty();
+        }
+        if (product.getTags().equals(next)) {
+            return false;
+        }
+        product.getTags().retainAll(next);
+        product.getTags().addAll(next);
+        return true;
+    }
+
+    /**
+     * Diff the images by URL: images whose URL is kept stay in place with their display
+     * order and primary flag updated if needed, missing URLs are added and the rest removed
+     * (orphan removal deletes them). The first image is primary unless
+     * {@code isPrimaryImage} is false, as on create.
+     */
+    private boolean updateImages(Product product, List<String> imageUrls, Boolean isPrimaryImage) {
+        List<String> urls = imageUrls != null ? List.copyOf(new LinkedHashSet<>(imageUrls)) : List.of();
+        Map<String, ProductImage> existing = new HashMap<>();
+        List<ProductImage> removed = new ArrayList<>();
+        for (ProductImage image : product.getImages()) {
+            if (!urls.contains(image.getImageUrl()) || existing.putIfAbsent(image.getImageUrl(), image) != null) {
+                removed.add(image);
+            }
+        }
+
+        boolean changed = !removed.isEmpty();
+        product.getImages().removeAll(removed);
+        for (int order = 0; order < urls.size(); order++) {
+            boolean primary = order == 0 && (isPrimaryImage == null || isPrimaryImage);
+            ProductImage image = existing.get(urls.get(order));
+            if (image == null) {
+                product.getImages().add(ProductImage.builder()
+                        .product(product)
+                        .imageUrl(urls.get(order))
+                        .isPrimary(primary)
+                        .displayOrder(order)
+                        .build());
+                changed = true;
+                continue;
+            }
+            changed |= update(image.getDisplayOrder(), order, image::setDisplayOrder);
+            changed |= update(image.getIsPrimary(), primary, image::setIsPrimary);
+        }
+        if (changed) {
+            product.getImages().sort(Comparator.comparing(ProductImage::getDisplayOrder));
+        }
+        return changed;
+    }
+
+    /**
+     * Cached products embed their category's name, so any category change drops them all.
+     * Category writes are rare enough that finding just the affected products is not worth
+     * a query.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, allEntries = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        log.debug("Category {} changed, product cache cleared", event.categoryId());
     }
 
     /**
      * Delete product by ID (admin only)
      */
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
     public boolean deleteProduct(Long id) {
         log.info("Deleting product with ID: {}", id);
         
@@ -218,6 +526,7 @@ public class ProductService {
         Product product = productOptional.get();
         product.setIsActive(false);
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(id));
         
         log.info("Product soft deleted successfully with ID: {}", id);
         return true;
@@ -0,0 +1,214 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.config.CacheConfig;
+import com.nerya.neryaallnaturals.event.InventoryChangedEvent;
+import com.nerya.neryaallnaturals.event.ProductChangedEvent;
+import com.nerya.neryaallnaturals.event.ProductStockChangedEvent;
+import com.nerya.neryaallnaturals.repository.ProductStockRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the stock fields of products ({@code inStock}, {@code quantity}, {@code minQuantity})
+ * derived from the inventory table, which is the only place stock is written.
+ *
+ * Committed inventory changes only queue their product IDs; every flush interval the queued
+ * products are synced {@value #CHUNK_SIZE} at a time with one set-based UPDATE per chunk, so a
+ * burst of reservations on a product costs one write to its product row. Product listings,
+ * the catalog snapshot and the search index keep reading the product columns and never look
+ * up inventory per product.
+ *
+ * A consistency check walks every product with an inventory record at startup and every
+ * check interval, and repairs any product whose stock fields diverged (a change lost to a
+ * crash between commit and flush, or a direct database edit). Both jobs run on the same
+ * thread, so they never race each other.
+ */
+@Service
+@Slf4j
+public class ProductStockService {
+
+    /**
+     * Products synced per statement and transaction
+     */
+    public static final int CHUNK_SIZE = 500;
+
+    private final ProductStockRepository productStockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transaction;
+    private final Duration flushInterval;
+    private final Duration checkInterval;
+
+    private final Set<Long> pendingProductIds = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-stock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProductStockService(ProductStockRepository productStockRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               CacheManager cacheManager,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.stock.read-model.flush-interval:1s}") Duration flushInterval,
+                               @Value("${app.stock.read-model.check-interval:15m}") Duration checkInterval) {
+        this.productStockRepository = productStockRepository;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.flushInterval = flushInterval;
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * Run the first consistency check, which also backfills products synced by no change
+     * yet, and start both jobs
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        long flushMillis = Math.max(1, flushInterval.toMillis());
+        long checkSeconds = Math.max(1, checkInterval.toSeconds());
+        scheduler.scheduleWithFixedDelay(this::checkQuietly, 0, checkSeconds, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Reservations change the available quantity as much as on-hand changes do, so every
+     * inventory change is queued
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        pendingProductIds.addAll(event.productIds());
+    }
+
+    /**
+     * Sync the queued products
+     *
+     * @return number of products whose stock fields changed
+     */
+    public int flush() {
+        if (pendingProductIds.isEmpty()) {
+            return 0;
+        }
+        Set<Long> ids = new HashSet<>(pendingProductIds);
+        pendingProductIds.removeAll(ids);
+
+        List<Long> idList = new ArrayList<>(ids);
+        int synced = 0;
+        for (int from = 0; from < idList.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = idList.subList(from, Math.min(from + CHUNK_SIZE, idList.size()));
+            try {
+                synced += sync(productStockRepository.findDivergentIds(chunk));
+            } catch (RuntimeException e) {
+                // Requeue this and every later chunk
+                pendingProductIds.addAll(idList.subList(from, idList.size()));
+                throw e;
+            }
+        }
+        return synced;
+    }
+
+    /**
+     * Find every product whose stock fields diverged from its inventory record and repair it
+     *
+     * @return number of products repaired
+     */
+    public int check() {
+        long started = System.currentTimeMillis();
+        int repaired = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = productStockRepository.findDivergentIds(afterId, CHUNK_SIZE);
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+            repaired += sync(ids);
+            if (ids.size() < CHUNK_SIZE) {
+                break;
+            }
+        }
+
+        if (repaired > 0) {
+            log.warn("Stock consistency check repaired {} products in {} ms", repaired,
+                    System.currentTimeMillis() - started);
+        } else {
+            log.debug("Stock consistency check found no divergent products in {} ms",
+                    System.currentTimeMillis() - started);
+        }
+        return repaired;
+    }
+
+    /**
+     * Update the given products in one transaction; the product cache is transaction-aware,
+     * so evictions and the change events apply on commit.
+     *
+     * Only products that went in or out of stock are published as changed products, since
+     * that moves them in the in-stock facet and filters. The rest, typically every product
+     * with reservations in the last interval, only get their stock fields patched.
+     */
+    private int sync(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        return transaction.execute(status -> {
+            Set<Long> inStockChanged = Set.copyOf(productStockRepository.findInStockChangedIds(ids));
+            int count = productStockRepository.sync(ids, LocalDateTime.now());
+            ids.forEach(products::evict);
+            if (!inStockChanged.isEmpty()) {
+                eventPublisher.publishEvent(new ProductChangedEvent(inStockChanged));
+            }
+            List<Long> quantityChanged = ids.stream()
+                    .filter(id -> !inStockChanged.contains(id))
+                    .toList();
+            if (!quantityChanged.isEmpty()) {
+                eventPublisher.publishEvent(
+                        new ProductStockChangedEvent(productStockRepository.findStock(quantityChanged)));
+            }
+            return count;
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Product stock sync failed, will retry: {}", e.getMessage(), e);
+        }
+    }
+
+    private void checkQuietly() {
+        try {
+            check();
+        } catch (RuntimeException e) {
+            log.error("Stock consistency check failed: {}", e.getMessage(), e);
+        }
+    }
+}
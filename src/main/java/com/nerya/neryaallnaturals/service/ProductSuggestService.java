@@ -0,0 +1,209 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.dto.ProductSort;
+import com.nerya.neryaallnaturals.dto.SuggestionResponse;
+import com.nerya.neryaallnaturals.event.CatalogSnapshotChangedEvent;
+import com.nerya.neryaallnaturals.search.Suggestion;
+import com.nerya.neryaallnaturals.search.SuggestionIndex;
+import com.nerya.neryaallnaturals.search.SuggestionType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typeahead completions over product names, SKUs, brands and tags, served from memory.
+ *
+ * Product and SKU suggestions sit in one {@link SuggestionIndex} that is patched with just
+ * the changed products whenever the catalog snapshot is patched. Brands and tags aggregate
+ * the weight of all their products; the running totals are adjusted per changed product and
+ * the small brand/tag index is rebuilt from them. All updates run on the catalog thread, in
+ * the snapshot change listener; readers only dereference a volatile field.
+ */
+@Service
+@Slf4j
+public class ProductSuggestService {
+
+    public static final int DEFAULT_LIMIT = 8;
+
+    private static final float SKU_WEIGHT_FACTOR = 0.5f;
+
+    /**
+     * Indexes swapped together so a lookup never sees one updated without the other
+     */
+    private record Indexes(SuggestionIndex products, SuggestionIndex terms) {
+    }
+
+    /**
+     * What one product added to the brand and tag totals
+     */
+    private record Contribution(String brand, Set<String> tags, float weight) {
+    }
+
+    private static final class TermTotal {
+
+        private final String text;
+        private final SuggestionType type;
+        private float weight;
+        private int products;
+
+        TermTotal(String text, SuggestionType type) {
+            this.text = text;
+            this.type = type;
+        }
+
+        Suggestion toSuggestion() {
+            return new Suggestion(text, type, null, weight);
+        }
+    }
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    // Only touched on the catalog thread
+    private final Map<Long, Contribution> contributions = new HashMap<>();
+    private final Map<String, TermTotal> termTotals = new HashMap<>();
+
+    private volatile Indexes indexes;
+
+    public ProductSuggestService(CatalogSnapshotService catalogSnapshotService) {
+        this.catalogSnapshotService = catalogSnapshotService;
+    }
+
+    /**
+     * Best completions for the text typed so far
+     *
+     * @param query text typed so far
+     * @param limit number of completions, capped at {@value SuggestionIndex#MAX_LIMIT}
+     * @return completions, best first; empty until the catalog snapshot is built
+     */
+    public List<SuggestionResponse> suggest(String query, Integer limit) {
+        Indexes current = indexes;
+        if (current == null || query == null || query.isBlank()) {
+            return List.of();
+        }
+        int resolved = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, SuggestionIndex.MAX_LIMIT));
+
+        List<SuggestionIndex.Match> matches = new ArrayList<>(current.products().lookup(query, resolved));
+        matches.addAll(current.terms().lookup(query, resolved));
+        matches.sort(Comparator.comparingDouble(SuggestionIndex.Match::score).reversed());
+
+        return matches.stream()
+                .limit(resolved)
+                .map(match -> SuggestionResponse.fromSuggestion(match.suggestion()))
+                .toList();
+    }
+
+    @EventListener
+    public void onSnapshotChanged(CatalogSnapshotChangedEvent event) {
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+        if (snapshot == null || event.stockOnly()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try {
+            if (event.isFullRebuild() || indexes == null) {
+                rebuild(snapshot);
+                log.info("Suggestion indexes built with {} products and {} brands/tags in {} ms",
+                        contributions.size(), termTotals.size(), System.currentTimeMillis() - started);
+            } else {
+                patch(snapshot, event.productIds());
+                log.debug("Suggestion indexes patched with {} changed products in {} ms",
+                        event.productIds().size(), System.currentTimeMillis() - started);
+            }
+        } catch (RuntimeException e) {
+            // Start over from the next snapshot rather than patch possibly inconsistent totals
+            indexes = null;
+            log.error("Suggestion index update failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void rebuild(CatalogSnapshot snapshot) {
+        contributions.clear();
+        termTotals.clear();
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (ProductResponse product : snapshot.getProducts(null, ProductSort.NEWEST)) {
+            suggestions.addAll(add(product));
+        }
+        indexes = new Indexes(SuggestionIndex.build(suggestions), buildTermIndex());
+    }
+
+    private void patch(CatalogSnapshot snapshot, Set<Long> productIds) {
+        List<Suggestion> added = new ArrayList<>();
+        for (Long productId : productIds) {
+            remove(productId);
+            snapshot.findProduct(productId).ifPresent(product -> added.addAll(add(product)));
+        }
+        indexes = new Indexes(indexes.products().withProducts(productIds, added), buildTermIndex());
+    }
+
+    /**
+     * Count the product into the brand and tag totals and return its own suggestions
+     */
+    private List<Suggestion> add(ProductResponse product) {
+        float weight = popularity(product);
+        Set<String> tags = product.getTags() != null ? Set.copyOf(product.getTags()) : Set.of();
+        Contribution contribution = new Contribution(product.getBrand(), tags, weight);
+        contributions.put(product.getId(), contribution);
+        adjust(SuggestionType.BRAND, contribution.brand(), weight, 1);
+        contribution.tags().forEach(tag -> adjust(SuggestionType.TAG, tag, weight, 1));
+
+        List<Suggestion> suggestions = new ArrayList<>(2);
+        if (product.getName() != null) {
+            suggestions.add(new Suggestion(product.getName(), SuggestionType.PRODUCT, product.getId(), weight));
+        }
+        if (product.getSku() != null) {
+            suggestions.add(new Suggestion(product.getSku(), SuggestionType.SKU, product.getId(),
+                    weight * SKU_WEIGHT_FACTOR));
+        }
+        return suggestions;
+    }
+
+    private void remove(Long productId) {
+        Contribution contribution = contributions.remove(productId);
+        if (contribution == null) {
+            return;
+        }
+        adjust(SuggestionType.BRAND, contribution.brand(), -contribution.weight(), -1);
+        contribution.tags().forEach(tag -> adjust(SuggestionType.TAG, tag, -contribution.weight(), -1));
+    }
+
+    private void adjust(SuggestionType type, String text, float weight, int products) {
+        String normalized = SuggestionIndex.normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        String key = type + ":" + normalized;
+        TermTotal total = termTotals.computeIfAbsent(key, ignored -> new TermTotal(text.trim(), type));
+        total.weight += weight;
+        total.products += products;
+        if (total.products <= 0) {
+            termTotals.remove(key);
+        }
+    }
+
+    private SuggestionIndex buildTermIndex() {
+        return SuggestionIndex.build(termTotals.values().stream()
+                .map(TermTotal::toSuggestion)
+                .toList());
+    }
+
+    /**
+     * Ranking weight of a product: more and better reviews rank higher, featured products get a lift
+     */
+    private static float popularity(ProductResponse product) {
+        int reviews = product.getTotalReviews() != null ? product.getTotalReviews() : 0;
+        double rating = product.getAverageRating() != null ? product.getAverageRating().doubleValue() : 0;
+        double weight = 1 + Math.log1p(reviews) * (0.5 + rating / 5);
+        if (Boolean.TRUE.equals(product.getIsFeatured())) {
+            weight += 2;
+        }
+        return (float) weight;
+    }
+}
@@ -0,0 +1,174 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.dto.ProductSort;
+import com.nerya.neryaallnaturals.dto.TagCountResponse;
+import com.nerya.neryaallnaturals.dto.TagMatch;
+import com.nerya.neryaallnaturals.dto.TaggedProductsResponse;
+import com.nerya.neryaallnaturals.event.CatalogSnapshotChangedEvent;
+import com.nerya.neryaallnaturals.search.TagIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tag cloud and tag browsing over the active catalog, served from a {@link TagIndex}.
+ *
+ * The index is rebuilt after a full snapshot rebuild and otherwise patched with just the
+ * changed products, on the catalog thread in the snapshot change listener; readers only
+ * dereference a volatile field.
+ */
+@Service
+@Slf4j
+public class ProductTagService {
+
+    /**
+     * Deepest result position a client may page to
+     */
+    public static final int MAX_RESULT_WINDOW = 1000;
+
+    /**
+     * Most tags one browse request may combine
+     */
+    public static final int MAX_TAGS = 10;
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    private volatile TagIndex index;
+
+    public ProductTagService(CatalogSnapshotService catalogSnapshotService) {
+        this.catalogSnapshotService = catalogSnapshotService;
+    }
+
+    /**
+     * Every tag of an active product with its product count, most used first
+     *
+     * @throws IllegalStateException if the tag index has not been built yet
+     */
+    public List<TagCountResponse> getTags() {
+        return currentIndex().tags().stream()
+                .map(TagCountResponse::fromTagCount)
+                .toList();
+    }
+
+    /**
+     * Active products carrying the tags
+     *
+     * @param tags one or more tags, case insensitive
+     * @param match whether products need all of the tags or any of them
+     * @param sort result order
+     * @param page zero-based page number
+     * @param size page size, capped at {@value ProductService#MAX_PAGE_SIZE}
+     * @throws IllegalArgumentException if no or too many tags are given or the page is too deep
+     * @throws IllegalStateException if the tag index has not been built yet
+     */
+    public TaggedProductsResponse getProductsByTags(List<String> tags, TagMatch match, ProductSort sort,
+                                                    Integer page, Integer size) {
+        List<String> requested = tags == null ? List.of() : tags.stream()
+                .filter(tag -> tag != null && !tag.isBlank())
+                .map(String::trim)
+                .distinct()
+                .toList();
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("At least one tag is required");
+        }
+        if (requested.size() > MAX_TAGS) {
+            throw new IllegalArgumentException("At most " + MAX_TAGS + " tags can be combined");
+        }
+        int pageNumber = page != null ? page : 0;
+        int pageSize = ProductService.resolvePageSize(size);
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        int offset = pageNumber * pageSize;
+        if (offset + pageSize > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Cannot page beyond the first " + MAX_RESULT_WINDOW + " results");
+        }
+
+        RoaringBitmap productIds = currentIndex().match(requested, match == TagMatch.ALL);
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+        List<ProductResponse> items = snapshot == null ? List.of() : page(snapshot, productIds, sort, offset, pageSize);
+        int totalHits = productIds.getCardinality();
+
+        return TaggedProductsResponse.builder()
+                .tags(requested)
+                .match(match)
+                .items(items)
+                .page(pageNumber)
+                .size(items.size())
+                .totalHits(totalHits)
+                .hasMore(offset + pageSize < totalHits)
+                .build();
+    }
+
+    @EventListener
+    public void onSnapshotChanged(CatalogSnapshotChangedEvent event) {
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+        if (snapshot == null || event.stockOnly()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try {
+            TagIndex current = index;
+            if (event.isFullRebuild() || current == null) {
+                index = TagIndex.build(snapshot.getProducts(null, ProductSort.NEWEST));
+                log.info("Tag index built with {} tags in {} ms", index.size(), System.currentTimeMillis() - started);
+            } else {
+                List<ProductResponse> changed = event.productIds().stream()
+                        .map(snapshot::findProduct)
+                        .flatMap(Optional::stream)
+                        .toList();
+                index = current.withProducts(event.productIds(), changed);
+                log.debug("Tag index patched with {} changed products in {} ms",
+                        event.productIds().size(), System.currentTimeMillis() - started);
+            }
+        } catch (RuntimeException e) {
+            // Rebuild from the next snapshot rather than patch a possibly inconsistent index
+            index = null;
+            log.error("Tag index update failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private TagIndex currentIndex() {
+        TagIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("Tag index is still being built");
+        }
+        return current;
+    }
+
+    /**
+     * The requested window of the matching products in sort order. Small matches are looked
+     * up and sorted; large ones are found by walking the snapshot's presorted list.
+     */
+    private static List<ProductResponse> page(CatalogSnapshot snapshot, RoaringBitmap productIds, ProductSort sort,
+                                              int offset, int limit) {
+        List<ProductResponse> sorted = snapshot.getProducts(null, sort);
+        int total = productIds.getCardinality();
+        if ((long) total * 8 < sorted.size()) {
+            List<ProductResponse> matches = new ArrayList<>(total);
+            IntIterator ids = productIds.getIntIterator();
+            while (ids.hasNext()) {
+                snapshot.findProduct((long) ids.next()).ifPresent(matches::add);
+            }
+            matches.sort(sort.comparator());
+            return offset >= matches.size() ? List.of()
+                    : List.copyOf(matches.subList(offset, Math.min(offset + limit, matches.size())));
+        }
+        List<ProductResponse> items = new ArrayList<>(limit);
+        int skipped = 0;
+        for (int i = 0; i < sorted.size() && items.size() < limit; i++) {
+            ProductResponse product = sorted.get(i);
+            if (productIds.contains(TagIndex.productKey(product.getId())) && skipped++ >= offset) {
+                items.add(product);
+            }
+        }
+        return items;
+    }
+}
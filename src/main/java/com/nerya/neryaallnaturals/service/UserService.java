@@ -1,13 +1,18 @@
 package com.nerya.neryaallnaturals.service;
 
+import com.nerya.neryaallnaturals.dto.UserResponse;
 import com.nerya.neryaallnaturals.entity.User;
+import com.nerya.neryaallnaturals.repository.StreamingReads;
 import com.nerya.neryaallnaturals.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -16,6 +21,7 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final EntityManager entityManager;
 
     /**
      * Fetch user details by username for authentication purpose
@@ -59,4 +65,17 @@ public class UserService {
         
         return user;
     }
+
+    /**
+     * Stream all users in ID order
+     *
+     * @param sink receives each user as it is read
+     * @return number of users streamed
+     */
+    public long streamAllUsers(Consumer<UserResponse> sink) {
+        log.debug("Streaming all users");
+        try (Stream<User> rows = userRepository.streamAll()) {
+            return StreamingReads.forEachChunk(rows, entityManager, UserResponse::fromEntity, sink);
+        }
+    }
 }
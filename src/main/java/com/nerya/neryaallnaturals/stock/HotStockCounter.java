@@ -0,0 +1,220 @@
+package com.nerya.neryaallnaturals.stock;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Striped in-memory counter of the stock a hot product has leased from its inventory row.
+ *
+ * The leased units are spread over several stripes, each on its own cache line, and a
+ * reservation takes units from one stripe with a single compare-and-set, so concurrent
+ * buyers rarely touch the same memory. A stripe never goes below zero, which is what rules
+ * out overselling: units are only ever taken after they were leased, and the lease was
+ * subtracted from the database's available stock when it was granted.
+ *
+ * When no single stripe can serve a request, {@link #takeOrRefill} pools all stripes under
+ * a lock, leasing more units from the database if needed, and spreads the rest back.
+ * {@link #close} drains the stripes to a negative sentinel so that every later take fails
+ * and the caller falls back to the database.
+ */
+public final class HotStockCounter {
+
+    /**
+     * Longs per 64-byte cache line, so neighbouring stripes never share one
+     */
+    private static final int PADDING = 8;
+    private static final long CLOSED = Long.MIN_VALUE / 2;
+
+    public enum Outcome {
+        TAKEN,
+        INSUFFICIENT,
+        CLOSED
+    }
+
+    private final long productId;
+    private final int stripes;
+    private final boolean pinned;
+    private final Instant since = Instant.now();
+    private final AtomicLongArray units;
+    private final AtomicLongArray inFlight;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder taken = new LongAdder();
+    private final LongAdder operations = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * @param pinned turned on by an admin; such counters are never cooled automatically
+     */
+    public HotStockCounter(long productId, int stripes, long leased, boolean pinned) {
+        this.productId = productId;
+        this.stripes = stripes;
+        this.pinned = pinned;
+        this.units = new AtomicLongArray(stripes * PADDING);
+        this.inFlight = new AtomicLongArray(stripes * PADDING);
+        spread(leased);
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public boolean isPinned() {
+        return pinned;
+    }
+
+    public Instant getSince() {
+        return since;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Units taken since the counter was created
+     */
+    public long getTaken() {
+        return taken.sum();
+    }
+
+    /**
+     * Reservations attempted since the last call, for contention tracking
+     */
+    public long drainOperations() {
+        return operations.sumThenReset();
+    }
+
+    /**
+     * Units currently leased and not taken; a moving value while reservations run
+     */
+    public long available() {
+        long total = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            total += Math.max(0, units.get(stripe * PADDING));
+        }
+        return total;
+    }
+
+    /**
+     * Mark the calling thread as inside an operation that {@link #awaitQuiescent} must wait
+     * for; pass the returned slot to {@link #exit}
+     */
+    public int enter() {
+        int slot = ThreadLocalRandom.current().nextInt(stripes);
+        inFlight.incrementAndGet(slot * PADDING);
+        operations.increment();
+        return slot;
+    }
+
+    public void exit(int slot) {
+        inFlight.decrementAndGet(slot * PADDING);
+    }
+
+    /**
+     * Take units from the caller's stripe or, failing that, any other stripe, without locking
+     *
+     * @param slot value returned by {@link #enter}
+     */
+    public boolean tryTake(int slot, int quantity) {
+        for (int i = 0; i < stripes; i++) {
+            int index = ((slot + i) % stripes) * PADDING;
+            long current = units.get(index);
+            while (current >= quantity) {
+                if (units.compareAndSet(index, current, current - quantity)) {
+                    taken.add(quantity);
+                    return true;
+                }
+                current = units.get(index);
+            }
+            if (current < 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pool all stripes and take from the pool, leasing more units when it is too small
+     *
+     * @param lease leases more units from the database and returns how many; called at
+     *              most once, with the lock held
+     */
+    public Outcome takeOrRefill(int quantity, LongSupplier lease) {
+        lock.lock();
+        try {
+            if (closed) {
+                return Outcome.CLOSED;
+            }
+            long pool = drain();
+            if (pool < quantity) {
+                pool += lease.getAsLong();
+            }
+            if (pool < quantity) {
+                spread(pool);
+                return Outcome.INSUFFICIENT;
+            }
+            spread(pool - quantity);
+            taken.add(quantity);
+            return Outcome.TAKEN;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop all further takes
+     *
+     * @return units left untaken
+     */
+    public long close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return 0;
+            }
+            closed = true;
+            long remaining = 0;
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                remaining += Math.max(0, units.getAndSet(stripe * PADDING, CLOSED));
+            }
+            return remaining;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until every operation that entered before {@link #close} has exited, so their
+     * journal records are queued
+     */
+    public void awaitQuiescent() {
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            while (inFlight.get(stripe * PADDING) > 0) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private long drain() {
+        long pool = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            pool += units.getAndSet(stripe * PADDING, 0);
+        }
+        return pool;
+    }
+
+    /**
+     * Share units out evenly; only called with the lock held or before publication
+     */
+    private void spread(long total) {
+        long share = total / stripes;
+        long extra = total % stripes;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            units.getAndAdd(stripe * PADDING, share + (stripe < extra ? 1 : 0));
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package com.nerya.neryaallnaturals.stock;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only journal of hot stock reservations.
+ *
+ * Appends are group-committed: callers queue a record and wait on its future while a single
+ * writer thread drains everything queued, writes it with one {@code write} and one
+ * {@code fsync}, then completes the whole batch. A reservation is only acknowledged once its
+ * record is durable, so a crash can lose at most reservations that were never confirmed.
+ *
+ * Records are fixed size (sequence, product ID, quantity, CRC32) and go to segment files of
+ * about {@value #SEGMENT_BYTES} bytes named after their first sequence. On open, every
+ * segment is read back in order and the last one is cut at its first torn or corrupt
+ * record. Durable records are also queued in memory for the flusher, which folds them into
+ * the database and then {@link #deleteAppliedSegments deletes} the segments it has applied.
+ *
+ * A batch whose write or fsync fails is cut off the segment again and its sequence numbers
+ * are never reused. If even that fails the segment can no longer be trusted, so the journal
+ * {@link #isFailed fails} for good and rejects every later record.
+ */
+@Slf4j
+public final class StockJournal implements AutoCloseable {
+
+    private static final int RECORD_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int MAX_BATCH = 4096;
+    private static final long SEGMENT_BYTES = 16L * 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "stock-journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * A reservation of {@code quantity} units of a product's leased stock
+     */
+    public record Entry(long sequence, long productId, int quantity) {
+    }
+
+    private record Pending(long productId, int quantity, CompletableFuture<Long> written) {
+    }
+
+    private record Segment(Path file, long lastSequence) {
+    }
+
+    private final Path directory;
+    private final List<Entry> recovered;
+    private final List<Segment> sealed;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Queue<Entry> durable = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * MAX_BATCH);
+    private final Object fileLock = new Object();
+    private final Thread writer;
+    private final UnaryOperator<FileChannel> channels;
+    private Path currentFile;
+    private FileChannel current;
+    private long lastSequence;
+    private volatile boolean closed;
+    private volatile Exception failure;
+
+    private StockJournal(Path directory, List<Entry> recovered, List<Segment> sealed, Path currentFile,
+                         FileChannel current, long lastSequence, UnaryOperator<FileChannel> channels) {
+        this.directory = directory;
+        this.recovered = recovered;
+        this.sealed = sealed;
+        this.currentFile = currentFile;
+        this.current = current;
+        this.lastSequence = lastSequence;
+        this.channels = channels;
+        this.writer = new Thread(this::writeLoop, "stock-journal");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Open the journal in the directory, creating it if needed, and read back its records
+     *
+     * @param minSequence sequence numbers of new records start above this, so they stay
+     *                    above a checkpoint even after every segment was deleted
+     */
+    public static StockJournal open(Path directory, long minSequence) throws IOException {
+        return open(directory, minSequence, UnaryOperator.identity());
+    }
+
+    /**
+     * @param channels wraps every segment channel appended to, for tests that inject I/O failures
+     */
+    static StockJournal open(Path directory, long minSequence, UnaryOperator<FileChannel> channels)
+            throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        List<Segment> sealed = new ArrayList<>();
+        long previous = minSequence;
+        FileChannel current = null;
+        Path currentFile = null;
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long end = read(channel, entries);
+            if (!entries.isEmpty()) {
+                previous = Math.max(previous, entries.get(entries.size() - 1).sequence());
+            }
+            if (end < channel.size()) {
+                log.warn("Stock journal {}: dropping {} bytes of torn or corrupt records", file, channel.size() - end);
+                channel.truncate(end);
+                channel.force(true);
+            }
+            if (i < files.size() - 1) {
+                channel.close();
+                sealed.add(new Segment(file, previous));
+            } else {
+                channel.position(end);
+                current = channels.apply(channel);
+                currentFile = file;
+            }
+        }
+        if (current == null) {
+            currentFile = segmentFile(directory, previous + 1);
+            current = channels.apply(openSegment(currentFile));
+        }
+
+        StockJournal journal = new StockJournal(directory, List.copyOf(entries), sealed, currentFile, current,
+                previous, channels);
+        journal.writer.start();
+        return journal;
+    }
+
+    /**
+     * Records found in the segments when the journal was opened
+     */
+    public List<Entry> recovered() {
+        return recovered;
+    }
+
+    /**
+     * Whether a failed write could not be cut off the segment, after which every record is
+     * rejected
+     */
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    /**
+     * Queue a reservation record
+     *
+     * @return completes with the record's sequence once it is on disk
+     */
+    public CompletableFuture<Long> append(long productId, int quantity) {
+        CompletableFuture<Long> written = new CompletableFuture<>();
+        if (closed) {
+            written.completeExceptionally(new IllegalStateException("Stock journal is closed"));
+            return written;
+        }
+        if (failure != null) {
+            written.completeExceptionally(new IllegalStateException("Stock journal has failed", failure));
+            return written;
+        }
+        queue.add(new Pending(productId, quantity, written));
+        if (closed && !writer.isAlive()) {
+            failQueued();
+        }
+        return written;
+    }
+
+    /**
+     * Completes once every record queued before this call is on disk
+     */
+    public CompletableFuture<Long> barrier() {
+        return append(0, 0);
+    }
+
+    /**
+     * Remove and return the durable records not yet handed out, in sequence order
+     */
+    public List<Entry> drainDurable() {
+        List<Entry> entries = new ArrayList<>();
+        Entry entry;
+        while ((entry = durable.poll()) != null) {
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Delete the sealed segments whose records are all applied, and empty the current one
+     * when it is applied too
+     *
+     * @param appliedSequence sequence of the last record folded into the database
+     */
+    public void deleteAppliedSegments(long appliedSequence) throws IOException {
+        synchronized (fileLock) {
+            Iterator<Segment> segments = sealed.iterator();
+            while (segments.hasNext()) {
+                Segment segment = segments.next();
+                if (segment.lastSequence() > appliedSequence) {
+                    break;
+                }
+                Files.deleteIfExists(segment.file());
+                segments.remove();
+            }
+            // A failed journal's current segment is left alone; recovery cuts it at the bad record
+            if (failure == null && lastSequence == appliedSequence && sealed.isEmpty() && current.size() > 0) {
+                current.truncate(0);
+                current.position(0);
+                current.force(true);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (fileLock) {
+            current.close();
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed || !queue.isEmpty()) {
+            // Polled rather than interrupted on close: an interrupt would close the channel mid-write
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, MAX_BATCH - batch.size());
+            try {
+                write(batch);
+            } catch (IOException | RuntimeException e) {
+                log.error("Stock journal write of {} records failed: {}", batch.size(), e.getMessage(), e);
+                UncheckedIOException failure = new UncheckedIOException(new IOException("Stock journal write failed", e));
+                batch.forEach(pending -> pending.written().completeExceptionally(failure));
+            }
+            batch.clear();
+        }
+        failQueued();
+    }
+
+    private void write(List<Pending> batch) throws IOException {
+        List<Entry> entries = new ArrayList<>(batch.size());
+        synchronized (fileLock) {
+            if (failure != null) {
+                throw new IOException("Stock journal has failed", failure);
+            }
+            buffer.clear();
+            long sequence = lastSequence;
+            for (Pending pending : batch) {
+                if (pending.quantity() == 0) {
+                    continue; // barrier
+                }
+                sequence++;
+                buffer.putLong(sequence)
+                        .putLong(pending.productId())
+                        .putInt(pending.quantity())
+                        .putInt(checksum(sequence, pending.productId(), pending.quantity()));
+                entries.add(new Entry(sequence, pending.productId(), pending.quantity()));
+            }
+            if (!entries.isEmpty()) {
+                buffer.flip();
+                long start = current.position();
+                try {
+                    while (buffer.hasRemaining()) {
+                        current.write(buffer);
+                    }
+                    current.force(false);
+                } catch (IOException | RuntimeException e) {
+                    // Skip the batch's sequences too, in case some of it reached the disk anyway
+                    lastSequence = sequence;
+                    discard(start, e);
+                    throw e;
+                }
+                lastSequence = sequence;
+                if (current.size() >= SEGMENT_BYTES) {
+                    try {
+                        roll();
+                    } catch (IOException | RuntimeException e) {
+                        // The batch is durable; only the records after it have nowhere to go
+                        fail(e);
+                    }
+                }
+            }
+        }
+
+        durable.addAll(entries);
+        int next = 0;
+        for (Pending pending : batch) {
+            pending.written().complete(pending.quantity() == 0 ? lastSequence : entries.get(next++).sequence());
+        }
+    }
+
+    /**
+     * Cut a batch that failed part-way off the current segment, so that the next batch does
+     * not land behind a torn record and get dropped with it on recovery
+     */
+    private void discard(long start, Exception cause) {
+        try {
+            current.truncate(start);
+            current.position(start);
+            current.force(true);
+        } catch (IOException | RuntimeException e) {
+            cause.addSuppressed(e);
+            fail(cause);
+        }
+    }
+
+    private void fail(Exception cause) {
+        failure = cause;
+        log.error("Stock journal failed and accepts no more records: {}", cause.getMessage(), cause);
+    }
+
+    /**
+     * Seal the current segment and start the next one
+     */
+    private void roll() throws IOException {
+        current.close();
+        sealed.add(new Segment(currentFile, lastSequence));
+        currentFile = segmentFile(directory, lastSequence + 1);
+        current = channels.apply(openSegment(currentFile));
+        // Make the new file's directory entry durable too
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            log.debug("Could not sync stock journal directory: {}", e.getMessage());
+        }
+    }
+
+    private void failQueued() {
+        Exception closedFailure = new IllegalStateException("Stock journal is closed");
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.written().completeExceptionally(closedFailure);
+        }
+    }
+
+    /**
+     * Read valid records from the start of a segment
+     *
+     * @return position after the last valid record
+     */
+    private static long read(FileChannel channel, List<Entry> entries) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        long position = 0;
+        long previous = entries.isEmpty() ? Long.MIN_VALUE : entries.get(entries.size() - 1).sequence();
+        while (true) {
+            record.clear();
+            while (record.hasRemaining() && channel.read(record, position + record.position()) > 0) {
+                // keep reading until the record is complete or the file ends
+            }
+            if (record.hasRemaining()) {
+                return position;
+            }
+            record.flip();
+            long sequence = record.getLong();
+            long productId = record.getLong();
+            int quantity = record.getInt();
+            if (record.getInt() != checksum(sequence, productId, quantity) || sequence <= previous) {
+                return position;
+            }
+            entries.add(new Entry(sequence, productId, quantity));
+            previous = sequence;
+            position += RECORD_SIZE;
+        }
+    }
+
+    private static Path segmentFile(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private static FileChannel openSegment(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static int checksum(long sequence, long productId, int quantity) {
+        CRC32 crc = new CRC32();
+        ByteBuffer bytes = ByteBuffer.allocate(RECORD_SIZE - Integer.BYTES)
+                .putLong(sequence)
+                .putLong(productId)
+                .putInt(quantity);
+        crc.update(bytes.array());
+        return (int) crc.getValue();
+    }
+}
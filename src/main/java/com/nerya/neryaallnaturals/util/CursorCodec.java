@@ -0,0 +1,67 @@
+package com.nerya.neryaallnaturals.util;
+
+import com.nerya.neryaallnaturals.dto.ProductSort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * Encodes and decodes the opaque continuation tokens used by keyset pagination.
+ * A token carries the sort order, the sort key and the ID of the last row of a page.
+ */
+public final class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Position of the last row returned on a page
+     */
+    public record Cursor(ProductSort sort, Object key, Long id) {
+    }
+
+    /**
+     * Build the token pointing after the given row
+     *
+     * @param sort sort order of the listing
+     * @param key sort key of the last row
+     * @param id ID of the last row
+     * @return opaque continuation token
+     */
+    public static String encode(ProductSort sort, Object key, Long id) {
+        String raw = sort.name() + SEPARATOR + id + SEPARATOR + sort.formatKey(key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a continuation token
+     *
+     * @param token token received from the client, may be null for the first page
+     * @param expectedSort sort order requested together with the token
+     * @return decoded cursor, or null when no token was given
+     * @throws IllegalArgumentException if the token is malformed or belongs to another sort order
+     */
+    public static Cursor decode(String token, ProductSort expectedSort) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        Cursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(Pattern.quote(SEPARATOR), 3);
+            ProductSort sort = ProductSort.valueOf(parts[0]);
+            cursor = new Cursor(sort, sort.parseKey(parts[2]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+
+        if (cursor.sort() != expectedSort) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,82 @@
+package com.nerya.neryaallnaturals.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validators and cache directives for conditional GET handling.
+ */
+public final class HttpCaching {
+
+    /**
+     * Public catalog reads: cacheable for a minute, then served stale while revalidating
+     */
+    public static final CacheControl PUBLIC_CATALOG = CacheControl.maxAge(Duration.ofSeconds(60))
+            .cachePublic()
+            .staleWhileRevalidate(Duration.ofMinutes(5));
+
+    /**
+     * Admin reads: never shared, always revalidated
+     */
+    public static final CacheControl PRIVATE_REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private HttpCaching() {
+    }
+
+    /**
+     * Strong entity tag plus last modification time of a representation
+     *
+     * @param eTag quoted entity tag
+     * @param lastModified epoch millis, or -1 if unknown
+     */
+    public record Validators(String eTag, long lastModified) {
+
+        /**
+         * Validators of a single entity, versioned by its update timestamp
+         */
+        public static Validators ofEntity(String prefix, Long id, LocalDateTime updatedAt) {
+            long millis = toEpochMillis(updatedAt);
+            return new Validators("\"" + prefix + id + "-" + millis + "\"", millis);
+        }
+
+        /**
+         * Validators of an aggregate, versioned by a fingerprint of its members
+         */
+        public static Validators ofAggregate(String prefix, long fingerprint, LocalDateTime lastModified) {
+            return new Validators("\"" + prefix + "-" + Long.toHexString(fingerprint) + "\"", toEpochMillis(lastModified));
+        }
+
+        /**
+         * Evaluate If-None-Match / If-Modified-Since. When this returns true the response
+         * status is already 304 and the handler should not render a body. The entity tag is
+         * that of the representation negotiated from the Accept header.
+         */
+        public boolean notModified(WebRequest request) {
+            String representationTag = WireFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT)).tag(eTag);
+            return request.checkNotModified(representationTag, lastModified);
+        }
+    }
+
+    /**
+     * Mix one (id, updatedAt) member into an order-independent aggregate fingerprint
+     */
+    public static long fingerprint(long aggregate, Long id, LocalDateTime updatedAt) {
+        long member = id * 0x9E3779B97F4A7C15L ^ toEpochMillis(updatedAt);
+        // SplitMix64 finalizer, so neighbouring ids and timestamps do not cancel out
+        member = (member ^ (member >>> 30)) * 0xBF58476D1CE4E5B9L;
+        member = (member ^ (member >>> 27)) * 0x94D049BB133111EBL;
+        return aggregate ^ (member ^ (member >>> 31));
+    }
+
+    /**
+     * Timestamps are written by Hibernate in the JVM time zone
+     */
+    public static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp == null ? -1 : timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,50 @@
+package com.nerya.neryaallnaturals.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * JSON Merge Patch (RFC 7396): members of the patch replace those of the target, null
+ * members remove them, and nested objects are merged recursively. Arrays are replaced whole.
+ */
+public final class JsonMergePatch {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private JsonMergePatch() {
+    }
+
+    /**
+     * Apply the patch to the target object in place
+     *
+     * @throws IllegalArgumentException if the patch is not a JSON object
+     */
+    public static void apply(ObjectNode target, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("Merge patch must be a JSON object");
+        }
+        merge(target, patch);
+    }
+
+    private static void merge(ObjectNode target, JsonNode patch) {
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            if (value.isNull()) {
+                target.remove(field.getKey());
+            } else if (value.isObject()) {
+                JsonNode existing = target.get(field.getKey());
+                ObjectNode nested = existing != null && existing.isObject()
+                        ? (ObjectNode) existing
+                        : target.putObject(field.getKey());
+                merge(nested, value);
+            } else {
+                target.set(field.getKey(), value);
+            }
+        }
+    }
+}
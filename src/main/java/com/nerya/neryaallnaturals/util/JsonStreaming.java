@@ -0,0 +1,51 @@
+package com.nerya.neryaallnaturals.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Writes a JSON array element by element as the rows are read, so bulk listings
+ * never hold the whole result in memory and the first bytes leave immediately.
+ * Given a Smile or CBOR mapper, the same array is written in that binary encoding.
+ */
+public final class JsonStreaming {
+
+    private JsonStreaming() {
+    }
+
+    /**
+     * Response body serializing every item the source pushes into the given sink
+     *
+     * @param objectMapper application object mapper, or the mapper of a binary {@link WireFormat}
+     * @param source reads the rows and hands each one to the sink, returning the row count
+     */
+    public static <T> StreamingResponseBody array(ObjectMapper objectMapper, ToLongFunction<Consumer<T>> source) {
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                // The container owns the servlet stream, and a failed read must leave the array
+                // unterminated so clients cannot mistake a truncated listing for a complete one
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+                generator.writeStartArray();
+                try {
+                    source.applyAsLong(item -> {
+                        try {
+                            generator.writeObject(item);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                generator.writeEndArray();
+            }
+        };
+    }
+}
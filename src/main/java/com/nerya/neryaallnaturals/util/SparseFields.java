@@ -0,0 +1,54 @@
+package com.nerya.neryaallnaturals.util;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldsets for product responses: {@code fields=name,sellingPrice} keeps only the
+ * listed properties of every product in the response body, plus the ID. Properties of the
+ * envelope (page, cursor, facets, ...) are never removed.
+ *
+ * Product DTOs carry {@code @JsonFilter(FILTER_ID)}; the application ObjectMapper resolves an
+ * unknown filter to "serialize everything", so responses without {@code fields} are unaffected.
+ */
+public final class SparseFields {
+
+    public static final String FILTER_ID = "productFields";
+
+    /**
+     * Filter provider for the application ObjectMapper: no filter unless a response selects fields
+     */
+    public static final SimpleFilterProvider DEFAULT_PROVIDER = new SimpleFilterProvider().setFailOnUnknownId(false);
+
+    private SparseFields() {
+    }
+
+    /**
+     * Wrap the body so only the requested product fields are written
+     *
+     * @param body response body
+     * @param fields comma-separated property names, or null/blank for every property
+     * @return the body itself when no fields were requested
+     */
+    public static Object select(Object body, String fields) {
+        if (fields == null || fields.isBlank()) {
+            return body;
+        }
+        Set<String> names = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        names.add("id");
+
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider()
+                .addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(names)));
+        return value;
+    }
+}
@@ -0,0 +1,88 @@
+package com.nerya.neryaallnaturals.util;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Encodings the catalog and inventory APIs can answer in, chosen by the Accept header.
+ *
+ * The binary formats are Jackson encodings of the same DTOs, so they share the JSON
+ * schema: Smile keeps property names as back-references after their first use, CBOR is
+ * the standard (RFC 8949) choice for clients without a Jackson stack. JSON wins every tie
+ * and is the default when nothing else is explicitly accepted.
+ */
+public enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON, null),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"), "smile"),
+    CBOR(MediaType.parseMediaType("application/cbor"), "cbor");
+
+    private final MediaType mediaType;
+    private final String eTagSuffix;
+
+    WireFormat(MediaType mediaType, String eTagSuffix) {
+        this.mediaType = mediaType;
+        this.eTagSuffix = eTagSuffix;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * The format Spring MVC will pick for this Accept header: the highest quality
+     * acceptable media type, with JSON first among the ones a wildcard matches
+     */
+    public static WireFormat negotiate(String acceptHeader) {
+        if (acceptHeader == null || acceptHeader.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(acceptHeader);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        return accepted.stream()
+                .filter(type -> type.getQualityValue() > 0)
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                .flatMap(type -> Arrays.stream(values()).filter(format -> type.includes(format.mediaType)))
+                .findFirst()
+                .orElse(JSON);
+    }
+
+    /**
+     * Entity tag of this representation: binary encodings are different bytes for the same
+     * version, so they get their own strong tag
+     */
+    public String tag(String eTag) {
+        if (eTagSuffix == null || eTag == null || !eTag.endsWith("\"")) {
+            return eTag;
+        }
+        return eTag.substring(0, eTag.length() - 1) + "-" + eTagSuffix + "\"";
+    }
+
+    /**
+     * Whether a response content type is one of these formats
+     */
+    public static boolean isWireFormat(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType type = MediaType.parseMediaType(contentType);
+            for (WireFormat format : values()) {
+                if (format.mediaType.isCompatibleWith(type)) {
+                    return true;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package com.nerya.neryaallnaturals.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The ObjectMapper behind each {@link WireFormat}, for handlers that write their body
+ * themselves (streamed listings) instead of going through the message converters
+ */
+@Component
+public class WireFormatMappers {
+
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+
+    public WireFormatMappers(ObjectMapper objectMapper,
+                             MappingJackson2SmileHttpMessageConverter smileConverter,
+                             MappingJackson2CborHttpMessageConverter cborConverter) {
+        mappers.put(WireFormat.JSON, objectMapper);
+        mappers.put(WireFormat.SMILE, smileConverter.getObjectMapper());
+        mappers.put(WireFormat.CBOR, cborConverter.getObjectMapper());
+    }
+
+    public ObjectMapper forFormat(WireFormat format) {
+        return mappers.get(format);
+    }
+}
@@ -0,0 +1,34 @@
+package com.nerya.neryaallnaturals.config;
+
+import com.nerya.neryaallnaturals.entity.User;
+import com.nerya.neryaallnaturals.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ActuatorSecurityTest extends MySqlIntegrationTest {
+
+    @Test
+    void healthIsPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void customersCannotReadMetricsOrClearCaches() throws Exception {
+        String customer = bearer(User.Role.ROLE_CUSTOMER);
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, customer))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/actuator/caches").header(HttpHeaders.AUTHORIZATION, customer))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void adminsCanReadCaches() throws Exception {
+        mockMvc.perform(get("/actuator/caches").header(HttpHeaders.AUTHORIZATION, bearer(User.Role.ROLE_ADMIN)))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,155 @@
+package com.nerya.neryaallnaturals.controller;
+
+import com.nerya.neryaallnaturals.config.CacheConfig;
+import com.nerya.neryaallnaturals.dto.CategoryResponse;
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.dto.ProductSort;
+import com.nerya.neryaallnaturals.entity.User;
+import com.nerya.neryaallnaturals.service.CatalogSnapshotService;
+import com.nerya.neryaallnaturals.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.nerya.neryaallnaturals.support.StatementCounter.countStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Number of SQL statements per read endpoint. Every listing must cost the same number of
+ * statements whatever its page size, so N+1 loading of categories, images or tags shows up
+ * as a failure here.
+ */
+class ProductReadQueryCountTest extends MySqlIntegrationTest {
+
+    private static final int PRODUCTS = 12;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private CategoryResponse category;
+    private List<ProductResponse> products;
+    private String admin;
+    private String customer;
+
+    @BeforeEach
+    void createCatalog() {
+        category = createCategory();
+        products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(createProduct(category.getId(), true, 3, 3));
+        }
+        admin = bearer(User.Role.ROLE_ADMIN);
+        customer = bearer(User.Role.ROLE_CUSTOMER);
+    }
+
+    @Test
+    void adminListingCostsThreeStatementsAtAnyPageSize() throws Exception {
+        long small = countStatements(() -> getAs(admin, "/api/products/admin/all?size=2"));
+        long large = countStatements(() -> getAs(admin, "/api/products/admin/all?size=" + PRODUCTS));
+
+        // Products with their category, then all their images, then all their tags
+        assertThat(large).isEqualTo(small).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void adminCardListingCostsOneStatementAtAnyPageSize() throws Exception {
+        long small = countStatements(() -> getAs(admin, "/api/products/admin/all?view=CARD&size=2"));
+        long large = countStatements(() -> getAs(admin, "/api/products/admin/all?view=CARD&size=" + PRODUCTS));
+
+        assertThat(large).isEqualTo(small).isEqualTo(1);
+    }
+
+    @Test
+    void categoryListingFallbackCostsThreeStatementsAtAnyPageSize() throws Exception {
+        long small = countStatements(() ->
+                productService.getProductsByCategory(category.getId(), null, 2, ProductSort.NEWEST));
+        long large = countStatements(() ->
+                productService.getProductsByCategory(category.getId(), null, PRODUCTS, ProductSort.NEWEST));
+        long cards = countStatements(() ->
+                productService.getProductCardsByCategory(category.getId(), null, PRODUCTS, ProductSort.NAME));
+
+        assertThat(large).isEqualTo(small).isLessThanOrEqualTo(3);
+        assertThat(cards).isEqualTo(1);
+    }
+
+    @Test
+    void productDetailCostsThreeStatementsThenIsCached() throws Exception {
+        // Inactive products are not in the catalog snapshot and always take the database path
+        ProductResponse inactive = createProduct(category.getId(), false, 3, 3);
+        cacheManager.getCache(CacheConfig.PRODUCTS).evict(inactive.getId());
+
+        long first = countStatements(() -> getAs(customer, "/api/products/" + inactive.getId()));
+        long second = countStatements(() -> getAs(customer, "/api/products/" + inactive.getId()));
+
+        assertThat(first).isLessThanOrEqualTo(3);
+        assertThat(second).isZero();
+    }
+
+    @Test
+    void publicReadsAreServedFromTheSnapshotWithoutStatements() throws Exception {
+        Long lastId = products.get(PRODUCTS - 1).getId();
+        await().atMost(Duration.ofSeconds(30)).until(() -> catalogSnapshotService.getSnapshot() != null
+                && catalogSnapshotService.getSnapshot().findProduct(lastId).isPresent()
+                && catalogSnapshotService.getSnapshot().findCategory(category.getId()).isPresent());
+
+        long statements = countStatements(() -> {
+            getAs(customer, "/api/products?size=" + PRODUCTS);
+            getAs(customer, "/api/products/category/" + category.getId() + "?size=" + PRODUCTS);
+            getAs(customer, "/api/products/category/" + category.getId() + "?view=CARD");
+            getAs(customer, "/api/products/" + lastId);
+            getAs(customer, "/api/categories");
+            getAs(customer, "/api/categories/" + category.getId());
+        });
+
+        assertThat(statements).isZero();
+    }
+
+    @Test
+    void categoryFallbackReadsCostOneStatementEach() throws Exception {
+        assertThat(countStatements(() -> categoryService.getAllActiveCategories())).isEqualTo(1);
+        assertThat(countStatements(() -> categoryService.getCategoryById(category.getId()))).isEqualTo(1);
+        assertThat(countStatements(() -> categoryService.getParentCategories())).isEqualTo(1);
+    }
+
+    @Test
+    void adminInventoryReadsCostAFixedNumberOfStatements() throws Exception {
+        for (ProductResponse product : products) {
+            createInventory(product.getId(), 10);
+        }
+        String ids = products.stream()
+                .map(product -> product.getId().toString())
+                .collect(Collectors.joining(","));
+        Long productId = products.get(0).getId();
+
+        long batch = countStatements(() -> mockMvc.perform(post("/api/inventory/admin/batch")
+                        .header(HttpHeaders.AUTHORIZATION, admin)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + ids + "]}"))
+                .andExpect(status().isOk()));
+        // Validators, then the record
+        long single = countStatements(() -> getAs(admin, "/api/inventory/admin/product/" + productId));
+
+        assertThat(batch).isEqualTo(1);
+        assertThat(single).isEqualTo(2);
+    }
+
+    private void getAs(String token, String uri) throws Exception {
+        mockMvc.perform(get(uri).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,31 @@
+package com.nerya.neryaallnaturals.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSortTest {
+
+    @Test
+    void namesIgnoreCaseAndAccentsLikeTheDatabaseCollation() {
+        assertThat(ProductSort.NAME.compare("Cafe", 1L, "caf\u00e9", 1L)).isZero();
+        assertThat(ProductSort.NAME.compare("apple", 1L, "Banana", 2L)).isLessThan(0);
+        assertThat(ProductSort.NAME.compare("\u00c4mla", 1L, "banana", 2L)).isLessThan(0);
+    }
+
+    @Test
+    void collationKeysOrderLikeNames() {
+        List<String> names = List.of("Zucchini", "\u00e1mla", "Amla", "banana", "\u00c9clair", "eclair", "chia");
+        for (String left : names) {
+            for (String right : names) {
+                int byName = Integer.signum(ProductSort.NAME.compare(left, 1L, right, 2L));
+                assertThat(Integer.signum(ProductSort.NAME.compare(ProductSort.nameKey(left), 1L,
+                        ProductSort.nameKey(right), 2L))).isEqualTo(byName);
+                assertThat(Integer.signum(ProductSort.NAME.compare(ProductSort.nameKey(left), 1L, right, 2L)))
+                        .isEqualTo(byName);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.nerya.neryaallnaturals.repository;
+
+import com.nerya.neryaallnaturals.dto.CategoryResponse;
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.dto.ProductSort;
+import com.nerya.neryaallnaturals.entity.Product;
+import com.nerya.neryaallnaturals.support.MySqlIntegrationTest;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heap allocated by one 100-product page read through JdbcClient row records,
+ * against the same page loaded as managed entities (category join-fetched, images and tags
+ * batch-fetched) and mapped to responses
+ */
+class ProductReadPathComparisonTest extends MySqlIntegrationTest {
+
+    private static final int PRODUCTS = 100;
+    private static final int WARMUP = 30;
+    private static final int ITERATIONS = 100;
+
+    @Autowired
+    private ProductReadRepository productReadRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void rowRecordsAllocateLessThanEntities() {
+        CategoryResponse category = createCategory();
+        for (int i = 0; i < PRODUCTS; i++) {
+            createProduct(category.getId(), true, 3, 3);
+        }
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Supplier<List<ProductResponse>> rows = () -> readOnly.execute(status ->
+                productReadRepository.findPage(category.getId(), true, ProductSort.NEWEST, null, PRODUCTS).stream()
+                        .map(ProductResponse::fromRow)
+                        .toList());
+        Supplier<List<ProductResponse>> entities = () -> readOnly.execute(status ->
+                entityManager.createQuery("SELECT p FROM Product p JOIN FETCH p.category c "
+                                + "WHERE c.id = :categoryId AND p.isActive = true "
+                                + "ORDER BY p.createdAt DESC, p.id DESC", Product.class)
+                        .setParameter("categoryId", category.getId())
+                        .setMaxResults(PRODUCTS)
+                        .getResultList().stream()
+                        .map(ProductResponse::fromEntity)
+                        .toList());
+
+        assertThat(rows.get()).hasSize(PRODUCTS)
+                .extracting(ProductResponse::getId)
+                .containsExactlyElementsOf(entities.get().stream().map(ProductResponse::getId).toList());
+
+        assertThat(bytesPerPage(rows)).isLessThan(bytesPerPage(entities));
+    }
+
+    private static long bytesPerPage(Supplier<List<ProductResponse>> read) {
+        for (int i = 0; i < WARMUP; i++) {
+            read.get();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            read.get();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - bytesBefore) / ITERATIONS;
+    }
+}
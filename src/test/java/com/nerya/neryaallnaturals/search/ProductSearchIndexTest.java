@@ -0,0 +1,107 @@
+package com.nerya.neryaallnaturals.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private static final String[] WORDS = {
+            "almond", "amla", "ashwagandha", "basil", "beetroot", "brahmi", "cardamom", "cashew", "chia",
+            "cinnamon", "clove", "coconut", "coriander", "cumin", "date", "fennel", "fenugreek", "flax",
+            "garlic", "ghee", "ginger", "giloy", "honey", "jaggery", "jamun", "lemongrass", "licorice",
+            "millet", "mint", "moringa", "mustard", "neem", "nutmeg", "oat", "pepper", "pistachio",
+            "pumpkin", "quinoa", "ragi", "rose", "saffron", "sesame", "shatavari", "spirulina", "sunflower",
+            "tamarind", "triphala", "tulsi", "turmeric", "walnut"};
+
+    private static final String[] FORMS = {"powder", "oil", "seeds", "tea", "capsules", "butter", "flour",
+            "syrup", "paste", "juice"};
+
+    @Test
+    void everyTermMustMatchAndNameHitsRankFirst() {
+        ProductSearchIndex index = ProductSearchIndex.build(List.of(
+                document(1L, 10L, true, "Turmeric Powder", "Ground turmeric root"),
+                document(2L, 10L, true, "Ginger Tea", "With a hint of turmeric powder"),
+                document(3L, 20L, true, "Turmeric Capsules", "Standardised extract"),
+                document(4L, 10L, false, "Turmeric Powder Refill", "Ground turmeric root")));
+
+        ProductSearchIndex.Hits hits = index.search(ProductTextAnalyzer.analyze("turmeric powder"), null, true, 10);
+
+        assertThat(hits.hits()).extracting(ProductSearchIndex.Hit::productId).containsExactly(1L, 2L);
+        assertThat(index.search(ProductTextAnalyzer.analyze("turmeric"), 20L, true, 10).hits())
+                .extracting(ProductSearchIndex.Hit::productId).containsExactly(3L);
+        assertThat(index.search(ProductTextAnalyzer.analyze("turmeric powder"), null, null, 10).totalHits())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void upsertReplacesAndDeleteRemoves() {
+        ProductSearchIndex index = ProductSearchIndex.build(List.of(
+                document(1L, 10L, true, "Neem Oil", "Cold pressed"),
+                document(2L, 10L, true, "Neem Powder", "Dried leaves")));
+
+        index.upsert(document(1L, 10L, true, "Coconut Oil", "Cold pressed"));
+        index.delete(2L);
+
+        assertThat(index.search(ProductTextAnalyzer.analyze("neem"), null, true, 10).totalHits()).isZero();
+        assertThat(index.search(ProductTextAnalyzer.analyze("coconut oil"), null, true, 10).hits())
+                .extracting(ProductSearchIndex.Hit::productId).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    /**
+     * The timing behind the 100k-product figure of the inverted index: the worst-case
+     * query matches about three quarters of the catalog. The bound is loose so that slow CI
+     * machines pass.
+     */
+    @Test
+    void searchesOneHundredThousandProducts() {
+        int products = 100_000;
+        Random random = new Random(42);
+        List<SearchDocument> documents = new ArrayList<>(products);
+        for (long id = 1; id <= products; id++) {
+            String name = (random.nextInt(4) != 0 ? "Organic " : "") + WORDS[random.nextInt(WORDS.length)] + " "
+                    + FORMS[random.nextInt(FORMS.length)];
+            String description = "Natural " + WORDS[random.nextInt(WORDS.length)] + " and "
+                    + WORDS[random.nextInt(WORDS.length)] + " blend, packed fresh";
+            documents.add(document(id, 1 + id % 40, id % 10 != 0, name, description));
+        }
+        ProductSearchIndex index = ProductSearchIndex.build(documents);
+
+        List<String> broad = ProductTextAnalyzer.analyze("organic");
+        List<String> selective = ProductTextAnalyzer.analyze("saffron syrup");
+        assertThat(index.search(broad, null, null, 20).totalHits()).isBetween(70_000, 80_000);
+        assertThat(index.search(selective, null, true, 20).hits()).isNotEmpty();
+
+        double broadMillis = medianMillis(() -> index.search(broad, null, true, 20));
+        double selectiveMillis = medianMillis(() -> index.search(selective, null, true, 20));
+
+        assertThat(broadMillis).isLessThan(100);
+        assertThat(selectiveMillis).isLessThan(10);
+    }
+
+    private static double medianMillis(Runnable query) {
+        for (int i = 0; i < 50; i++) {
+            query.run();
+        }
+        long[] nanos = new long[101];
+        for (int i = 0; i < nanos.length; i++) {
+            long started = System.nanoTime();
+            query.run();
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        return nanos[nanos.length / 2] / 1_000_000.0;
+    }
+
+    private static SearchDocument document(Long id, Long categoryId, boolean active, String name,
+                                           String description) {
+        return new SearchDocument(id, categoryId, active, name, "Nerya", "SKU-" + id, List.of(),
+                description, null);
+    }
+}
@@ -0,0 +1,101 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.dto.StockOperationResponse;
+import com.nerya.neryaallnaturals.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many buyers reserving one SKU at once, through the conditional UPDATE and through hot
+ * stock mode. Demand is a multiple of the stock, so every unit must be sold exactly once.
+ */
+class InventoryContentionTest extends MySqlIntegrationTest {
+
+    private static final int STOCK = 100;
+    private static final int BUYERS = 400;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private JdbcClient jdbcClient;
+
+    @Test
+    void databaseReservationsNeverOversell() throws Exception {
+        Long productId = productWithStock();
+
+        Map<StockOperationResponse.Status, Long> outcomes = reserveConcurrently(productId);
+
+        assertSoldOutExactly(productId, outcomes);
+    }
+
+    @Test
+    void hotReservationsNeverOversell() throws Exception {
+        Long productId = productWithStock();
+        assertThat(hotStockService.heat(productId, true)).isTrue();
+
+        Map<StockOperationResponse.Status, Long> outcomes = reserveConcurrently(productId);
+        // Applies every journaled reservation and returns the rest of the lease
+        assertThat(hotStockService.cool(productId)).isTrue();
+
+        assertSoldOutExactly(productId, outcomes);
+    }
+
+    private Long productWithStock() {
+        ProductResponse product = createProduct(createCategory().getId(), true, 0, 0);
+        createInventory(product.getId(), STOCK);
+        return product.getId();
+    }
+
+    private Map<StockOperationResponse.Status, Long> reserveConcurrently(Long productId) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<StockOperationResponse.Status>> results = new ArrayList<>(BUYERS);
+        try (ExecutorService buyers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < BUYERS; i++) {
+                results.add(buyers.submit(() -> {
+                    start.await();
+                    return inventoryService.reserve(productId, 1).getStatus();
+                }));
+            }
+            start.countDown();
+        }
+
+        Map<StockOperationResponse.Status, Long> outcomes = new EnumMap<>(StockOperationResponse.Status.class);
+        for (Future<StockOperationResponse.Status> result : results) {
+            outcomes.merge(result.get(), 1L, Long::sum);
+        }
+        return outcomes;
+    }
+
+    private void assertSoldOutExactly(Long productId, Map<StockOperationResponse.Status, Long> outcomes) {
+        Map<String, Object> row = jdbcClient.sql("SELECT quantity_on_hand, quantity_reserved, quantity_leased "
+                        + "FROM inventory WHERE product_id = :productId")
+                .param("productId", productId)
+                .query()
+                .singleRow();
+        long onHand = ((Number) row.get("quantity_on_hand")).longValue();
+        long reserved = ((Number) row.get("quantity_reserved")).longValue();
+        long leased = ((Number) row.get("quantity_leased")).longValue();
+        long applied = outcomes.getOrDefault(StockOperationResponse.Status.APPLIED, 0L);
+
+        assertThat(applied).isEqualTo((long) STOCK);
+        assertThat(outcomes.getOrDefault(StockOperationResponse.Status.INSUFFICIENT_STOCK, 0L))
+                .isEqualTo((long) BUYERS - STOCK);
+        assertThat(reserved).isEqualTo(applied);
+        assertThat(onHand - reserved).isZero();
+        assertThat(leased).isZero();
+    }
+}
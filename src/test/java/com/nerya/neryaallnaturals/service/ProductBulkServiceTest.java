@@ -0,0 +1,59 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.dto.BulkProductAction;
+import com.nerya.neryaallnaturals.dto.BulkProductUpdateRequest;
+import com.nerya.neryaallnaturals.dto.BulkProductUpdateResponse;
+import com.nerya.neryaallnaturals.dto.CategoryResponse;
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.repository.ProductReadRepository;
+import com.nerya.neryaallnaturals.repository.ProductRow;
+import com.nerya.neryaallnaturals.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductBulkServiceTest extends MySqlIntegrationTest {
+
+    @Autowired
+    private ProductBulkService productBulkService;
+
+    @Autowired
+    private ProductReadRepository productReadRepository;
+
+    @Test
+    void priceIncreaseIsCappedAtListPriceAndDiscountRecomputed() {
+        CategoryResponse category = createCategory();
+        ProductResponse product = createProduct(category.getId(), true, 0, 0);
+
+        assertThat(adjust(category, "20").getUpdated()).isEqualTo(1L);
+        // Already at list price, so a further increase matches nothing
+        assertThat(adjust(category, "5").getMatched()).isZero();
+
+        ProductRow row = productReadRepository.findById(product.getId()).orElseThrow();
+        assertThat(row.sellingPrice()).isEqualByComparingTo("100.00");
+        assertThat(row.discountPercentage()).isZero();
+    }
+
+    @Test
+    void priceDecreaseRecomputesDiscount() {
+        CategoryResponse category = createCategory();
+        ProductResponse product = createProduct(category.getId(), true, 0, 0);
+
+        adjust(category, "-50");
+
+        ProductRow row = productReadRepository.findById(product.getId()).orElseThrow();
+        assertThat(row.sellingPrice()).isEqualByComparingTo("45.00");
+        assertThat(row.discountPercentage()).isEqualTo(55);
+    }
+
+    private BulkProductUpdateResponse adjust(CategoryResponse category, String percent) {
+        return productBulkService.update(BulkProductUpdateRequest.builder()
+                .action(BulkProductAction.ADJUST_SELLING_PRICE)
+                .percent(new BigDecimal(percent))
+                .categoryId(category.getId())
+                .build());
+    }
+}
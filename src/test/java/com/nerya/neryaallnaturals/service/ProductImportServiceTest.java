@@ -0,0 +1,76 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.dto.CategoryResponse;
+import com.nerya.neryaallnaturals.dto.ProductImportEvent;
+import com.nerya.neryaallnaturals.entity.Product;
+import com.nerya.neryaallnaturals.repository.ProductReadRepository;
+import com.nerya.neryaallnaturals.repository.ProductRepository;
+import com.nerya.neryaallnaturals.repository.ProductRow;
+import com.nerya.neryaallnaturals.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductImportServiceTest extends MySqlIntegrationTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductReadRepository productReadRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void badRowsAreReportedIndividuallyAndTheRestIsImported() {
+        CategoryResponse category = createCategory();
+        String good = unique("IMP");
+        String longBrand = unique("IMP");
+        String longImage = unique("IMP");
+        String collidingTags = unique("IMP");
+        String csv = "name,sku,price,sellingPrice,categoryId,brand,tags,imageUrls\n"
+                + row("Good", good, category, "Nerya", "organic", "https://img.example.com/a.jpg")
+                + row("Long brand", longBrand, category, "b".repeat(101), "", "")
+                + row("Long image", longImage, category, "Nerya", "", "https://img.example.com/" + "x".repeat(500))
+                + row("Tags", collidingTags, category, "Nerya", "Organic|organic|ORGANIC", "");
+
+        List<ProductImportEvent> events = new ArrayList<>();
+        productImportService.importProducts(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                ProductImportService.Format.CSV, events::add);
+
+        List<ProductImportEvent> errors = events.stream()
+                .filter(event -> event.getType() == ProductImportEvent.Type.ERROR)
+                .toList();
+        assertThat(errors).extracting(ProductImportEvent::getLine).containsExactly(3L, 4L);
+        assertThat(errors.get(0).getMessage()).startsWith("brand:");
+        assertThat(errors.get(1).getMessage()).startsWith("imageUrls[0]");
+
+        ProductImportEvent summary = events.get(events.size() - 1);
+        assertThat(summary.getType()).isEqualTo(ProductImportEvent.Type.SUMMARY);
+        assertThat(summary.getImported()).isEqualTo(2L);
+        assertThat(summary.getFailed()).isEqualTo(2L);
+
+        List<ProductRow> imported = productReadRepository.findByIds(List.of(idOf(good), idOf(collidingTags)));
+        assertThat(imported).hasSize(2);
+        ProductRow tagged = imported.stream().filter(row -> row.sku().equals(collidingTags)).findFirst().orElseThrow();
+        assertThat(tagged.tags()).hasSize(1);
+        assertThat(productRepository.findBySku(longBrand)).isEmpty();
+    }
+
+    private Long idOf(String sku) {
+        return productRepository.findBySku(sku).map(Product::getId).orElseThrow();
+    }
+
+    private static String row(String name, String sku, CategoryResponse category, String brand, String tags,
+                              String imageUrls) {
+        return String.join(",", name, sku, "100.00", "90.00", category.getId().toString(), brand, tags, imageUrls)
+                + "\n";
+    }
+}
@@ -0,0 +1,89 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nerya.neryaallnaturals.config.CacheConfig;
+import com.nerya.neryaallnaturals.dto.CategoryResponse;
+import com.nerya.neryaallnaturals.dto.ProductCard;
+import com.nerya.neryaallnaturals.dto.ProductImageResponse;
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.dto.ProductSort;
+import com.nerya.neryaallnaturals.event.CategoryChangedEvent;
+import com.nerya.neryaallnaturals.repository.ProductImageRow;
+import com.nerya.neryaallnaturals.repository.ProductReadRepository;
+import com.nerya.neryaallnaturals.repository.ProductRow;
+import com.nerya.neryaallnaturals.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductServiceTest extends MySqlIntegrationTest {
+
+    @Autowired
+    private ProductReadRepository productReadRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void reorderedImagesAreReadInDisplayOrder() throws Exception {
+        CategoryResponse category = createCategory();
+        ProductResponse product = createProduct(category.getId(), true, 3, 0);
+        List<String> reversed = product.getImages().stream()
+                .map(ProductImageResponse::getImageUrl)
+                .toList()
+                .reversed();
+
+        ProductResponse patched = patch(product.getId(), Map.of("imageUrls", reversed));
+
+        assertThat(patched.getImages()).extracting(ProductImageResponse::getImageUrl)
+                .containsExactlyElementsOf(reversed);
+        assertThat(patched.getPrimaryImageUrl()).isEqualTo(reversed.get(0));
+        ProductRow row = productReadRepository.findById(product.getId()).orElseThrow();
+        assertThat(row.images()).extracting(ProductImageRow::imageUrl).containsExactlyElementsOf(reversed);
+        assertThat(productService.getProductById(product.getId()).orElseThrow().getImages())
+                .extracting(ProductImageResponse::getImageUrl).containsExactlyElementsOf(reversed);
+        List<ProductCard> cards = productService.getProductCardsByCategory(category.getId(), null, 10,
+                ProductSort.NEWEST).getItems();
+        assertThat(cards).extracting(ProductCard::getPrimaryImageUrl).containsExactly(reversed.get(0));
+    }
+
+    @Test
+    void tagOnlyChangeMovesUpdatedAt() throws Exception {
+        ProductResponse product = createProduct(createCategory().getId(), true, 1, 1);
+        Thread.sleep(5);
+
+        ProductResponse patched = patch(product.getId(), Map.of("tags", List.of("tag0", "seasonal")));
+
+        assertThat(patched.getTags()).containsExactlyInAnyOrder("tag0", "seasonal");
+        assertThat(patched.getUpdatedAt()).isAfter(product.getUpdatedAt());
+        assertThat(productReadRepository.findById(product.getId()).orElseThrow().updatedAt())
+                .isAfter(product.getUpdatedAt());
+    }
+
+    @Test
+    void categoryChangeEvictsCachedProducts() {
+        ProductResponse product = createProduct(createCategory().getId(), true, 0, 0);
+        productService.getProductById(product.getId());
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTS).get(product.getId())).isNotNull();
+
+        eventPublisher.publishEvent(new CategoryChangedEvent(product.getCategoryId()));
+
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTS).get(product.getId())).isNull();
+    }
+
+    private ProductResponse patch(Long id, Map<String, ?> members) {
+        return productService.patchProduct(id, objectMapper.valueToTree(members)).orElseThrow();
+    }
+}
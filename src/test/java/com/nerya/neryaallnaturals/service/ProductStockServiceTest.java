@@ -0,0 +1,66 @@
+package com.nerya.neryaallnaturals.service;
+
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.entity.User;
+import com.nerya.neryaallnaturals.support.MySqlIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProductStockServiceTest extends MySqlIntegrationTest {
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Test
+    void quantityChangesSwapInPatchedCopiesAndRefreshListings() throws Exception {
+        Long categoryId = createCategory().getId();
+        ProductResponse product = createProduct(categoryId, true, 0, 0);
+        createInventory(product.getId(), 3);
+        awaitSnapshotProduct(product.getId(), 3, true);
+
+        String listing = "/api/products/category/" + categoryId;
+        String customer = bearer(User.Role.ROLE_CUSTOMER);
+        String eTag = mockMvc.perform(get(listing).header(HttpHeaders.AUTHORIZATION, customer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].quantity").value(3))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        CatalogSnapshot before = catalogSnapshotService.getSnapshot();
+        ProductResponse patchedFrom = before.findProduct(product.getId()).orElseThrow();
+
+        inventoryService.reserve(product.getId(), 1);
+        awaitSnapshotProduct(product.getId(), 2, true);
+
+        // The new quantity lives in a copy; the previous snapshot is left as it was
+        assertThat(catalogSnapshotService.getSnapshot().getVersion()).isGreaterThan(before.getVersion());
+        assertThat(patchedFrom.getQuantity()).isEqualTo(3);
+        assertThat(catalogSnapshotService.getSnapshot().getProductListValidators())
+                .isNotEqualTo(before.getProductListValidators());
+        mockMvc.perform(get(listing).header(HttpHeaders.AUTHORIZATION, customer)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].quantity").value(2));
+
+        long version = catalogSnapshotService.getSnapshot().getVersion();
+        inventoryService.reserve(product.getId(), 2);
+        awaitSnapshotProduct(product.getId(), 0, false);
+
+        assertThat(catalogSnapshotService.getSnapshot().getVersion()).isGreaterThan(version);
+    }
+
+    private void awaitSnapshotProduct(Long productId, int quantity, boolean inStock) {
+        await().atMost(Duration.ofSeconds(30)).until(() -> Optional.ofNullable(catalogSnapshotService.getSnapshot())
+                .flatMap(snapshot -> snapshot.findProduct(productId))
+                .filter(product -> product.getQuantity() == quantity && product.getInStock() == inStock)
+                .isPresent());
+    }
+}
@@ -0,0 +1,190 @@
+package com.nerya.neryaallnaturals.stock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StockJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsSurviveReopening() throws IOException {
+        try (StockJournal journal = StockJournal.open(directory, 0)) {
+            journal.append(1, 2).join();
+            journal.append(2, 3).join();
+            assertThat(journal.drainDurable()).extracting(StockJournal.Entry::quantity).containsExactly(2, 3);
+        }
+
+        try (StockJournal journal = StockJournal.open(directory, 0)) {
+            assertThat(journal.recovered()).containsExactly(new StockJournal.Entry(1, 1, 2),
+                    new StockJournal.Entry(2, 2, 3));
+            assertThat(journal.append(1, 1).join()).isEqualTo(3L);
+        }
+    }
+
+    @Test
+    void tornBatchIsCutOffSoLaterRecordsSurvive() throws IOException {
+        FailingChannel[] channel = new FailingChannel[1];
+        try (StockJournal journal = StockJournal.open(directory, 0,
+                delegate -> channel[0] = new FailingChannel(delegate))) {
+            journal.append(1, 2).join();
+            channel[0].failWrites = true;
+            assertThatThrownBy(() -> journal.append(1, 3).join()).isInstanceOf(CompletionException.class);
+            channel[0].failWrites = false;
+            long sequence = journal.append(1, 4).join();
+
+            assertThat(journal.isFailed()).isFalse();
+            assertThat(sequence).isEqualTo(3L);
+        }
+
+        try (StockJournal journal = StockJournal.open(directory, 0)) {
+            assertThat(journal.recovered()).containsExactly(new StockJournal.Entry(1, 1, 2),
+                    new StockJournal.Entry(3, 1, 4));
+        }
+    }
+
+    @Test
+    void journalFailsForGoodWhenATornBatchCannotBeCut() throws IOException {
+        FailingChannel[] channel = new FailingChannel[1];
+        try (StockJournal journal = StockJournal.open(directory, 0,
+                delegate -> channel[0] = new FailingChannel(delegate))) {
+            journal.append(1, 2).join();
+            channel[0].failWrites = true;
+            channel[0].failTruncates = true;
+            assertThatThrownBy(() -> journal.append(1, 3).join()).isInstanceOf(CompletionException.class);
+            channel[0].failWrites = false;
+            channel[0].failTruncates = false;
+
+            assertThat(journal.isFailed()).isTrue();
+            assertThatThrownBy(() -> journal.append(1, 4).join()).isInstanceOf(CompletionException.class);
+        }
+
+        try (StockJournal journal = StockJournal.open(directory, 0)) {
+            assertThat(journal.recovered()).containsExactly(new StockJournal.Entry(1, 1, 2));
+        }
+    }
+
+    /**
+     * Segment channel that can fail writes half-way through and refuse truncation
+     */
+    private static final class FailingChannel extends FileChannel {
+
+        private final FileChannel delegate;
+        private volatile boolean failWrites;
+        private volatile boolean failTruncates;
+
+        FailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (!failWrites) {
+                return delegate.write(src);
+            }
+            ByteBuffer half = src.duplicate();
+            half.limit(src.position() + src.remaining() / 2 + 1);
+            delegate.write(half);
+            throw new IOException("No space left on device");
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failTruncates) {
+                throw new IOException("Input/output error");
+            }
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
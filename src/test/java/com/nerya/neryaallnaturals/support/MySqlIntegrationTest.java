@@ -0,0 +1,151 @@
+package com.nerya.neryaallnaturals.support;
+
+import com.nerya.neryaallnaturals.dto.CategoryRequest;
+import com.nerya.neryaallnaturals.dto.CategoryResponse;
+import com.nerya.neryaallnaturals.dto.InventoryRequest;
+import com.nerya.neryaallnaturals.dto.InventoryResponse;
+import com.nerya.neryaallnaturals.dto.ProductRequest;
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import com.nerya.neryaallnaturals.entity.User;
+import com.nerya.neryaallnaturals.service.CategoryService;
+import com.nerya.neryaallnaturals.service.InventoryService;
+import com.nerya.neryaallnaturals.service.ProductService;
+import com.nerya.neryaallnaturals.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Base class of tests that run the whole application against a real MySQL.
+ *
+ * One container is started for the test run and shared by every subclass, and since all
+ * subclasses use the same configuration they share one application context too. Tests
+ * therefore never assume an empty database: everything they create gets a unique name or
+ * SKU, and assertions only look at their own rows.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(StatementCounter.Config.class)
+public abstract class MySqlIntegrationTest {
+
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUrlParam("serverTimezone", "UTC")
+            .withUrlParam("useCursorFetch", "true")
+            .withUrlParam("rewriteBatchedStatements", "true");
+
+    private static final Path JOURNAL_DIRECTORY;
+
+    static {
+        MYSQL.start();
+        try {
+            JOURNAL_DIRECTORY = Files.createTempDirectory("stock-journal");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("app.stock.hot.journal-dir", JOURNAL_DIRECTORY::toString);
+    }
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected CategoryService categoryService;
+
+    @Autowired
+    protected ProductService productService;
+
+    @Autowired
+    protected InventoryService inventoryService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    protected static String unique(String prefix) {
+        return prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    protected String bearer(User.Role role) {
+        User user = User.builder()
+                .username(unique("test"))
+                .email(unique("test") + "@example.com")
+                .roles(Set.of(role))
+                .build();
+        return "Bearer " + jwtUtil.generateToken(user);
+    }
+
+    protected CategoryResponse createCategory() {
+        return categoryService.createCategory(CategoryRequest.builder()
+                .name(unique("Category"))
+                .description("Test category")
+                .isActive(true)
+                .build());
+    }
+
+    /**
+     * Create a product with the given number of images and tags
+     */
+    protected ProductResponse createProduct(Long categoryId, boolean active, int images, int tags) {
+        String sku = unique("SKU");
+        List<String> imageUrls = new ArrayList<>();
+        for (int i = 0; i < images; i++) {
+            imageUrls.add("https://img.example.com/" + sku + "/" + i + ".jpg");
+        }
+        Set<String> tagSet = new LinkedHashSet<>();
+        for (int i = 0; i < tags; i++) {
+            tagSet.add("tag" + i);
+        }
+        return productService.createProduct(ProductRequest.builder()
+                .name("Product " + sku)
+                .sku(sku)
+                .shortDescription("Test product")
+                .price(new BigDecimal("100.00"))
+                .sellingPrice(new BigDecimal("90.00"))
+                .discountPercentage(10)
+                .brand("Nerya")
+                .inStock(true)
+                .quantity(0)
+                .minQuantity(0)
+                .isActive(active)
+                .isFeatured(false)
+                .categoryId(categoryId)
+                .tags(tagSet)
+                .imageUrls(imageUrls)
+                .isPrimaryImage(true)
+                .build());
+    }
+
+    protected InventoryResponse createInventory(Long productId, int quantityOnHand) {
+        return inventoryService.createInventory(InventoryRequest.builder()
+                .productId(productId)
+                .quantityOnHand(quantityOnHand)
+                .quantityReserved(0)
+                .quantitySold(0)
+                .minStockLevel(0)
+                .maxStockLevel(Math.max(1000, quantityOnHand))
+                .reorderQuantity(50)
+                .build());
+    }
+}
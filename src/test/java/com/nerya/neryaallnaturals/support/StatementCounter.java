@@ -0,0 +1,110 @@
+package com.nerya.neryaallnaturals.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Counts the SQL statements the current thread executes through the application's
+ * DataSource, whether they come from Hibernate or from JdbcClient. A JDBC batch counts once,
+ * since it is one round trip.
+ *
+ * Counts are per thread, so background jobs (snapshot rebuilds, stock syncs) never leak into
+ * the count of the request under test.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private StatementCounter() {
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static long count() {
+        return COUNT.get()[0];
+    }
+
+    /**
+     * Run the action and return the number of statements it executed on this thread
+     */
+    public static long countStatements(ThrowingRunnable action) throws Exception {
+        reset();
+        action.run();
+        return count();
+    }
+
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    /**
+     * Wraps the application DataSource in a counting proxy
+     */
+    @TestConfiguration(proxyBeanMethods = false)
+    public static class Config {
+
+        @Bean
+        public static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    static DataSource wrap(DataSource target) {
+        return proxy(DataSource.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection connection && method.getName().equals("getConnection")
+                    ? wrap(connection)
+                    : result;
+        });
+    }
+
+    private static Connection wrap(Connection target) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement statement && !method.getName().equals("unwrap")) {
+                return wrap(statement, method.getReturnType());
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Statement wrap(Statement target, Class<?> type) {
+        return proxy((Class<Statement>) type, target, (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                COUNT.get()[0]++;
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(target.getClass().getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.nerya.neryaallnaturals.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nerya.neryaallnaturals.config.JacksonConfig;
+import com.nerya.neryaallnaturals.dto.ProductImageResponse;
+import com.nerya.neryaallnaturals.dto.ProductResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Round trip and size of a product listing page in each wire format, using the
+ * application's own mappers
+ */
+@JsonTest
+@Import({JacksonConfig.class, WireFormatMappers.class})
+class WireFormatEncodingTest {
+
+    private static final int PRODUCTS = 100;
+
+    @Autowired
+    private WireFormatMappers wireFormatMappers;
+
+    @Test
+    void binaryFormatsRoundTripAndAreSmallerThanJson() throws Exception {
+        List<ProductResponse> page = productPage();
+        Map<WireFormat, Integer> sizes = new EnumMap<>(WireFormat.class);
+
+        for (WireFormat format : WireFormat.values()) {
+            ObjectMapper mapper = wireFormatMappers.forFormat(format);
+            byte[] encoded = mapper.writeValueAsBytes(page);
+            List<ProductResponse> decoded = mapper.readValue(encoded, new TypeReference<>() {
+            });
+
+            assertThat(decoded)
+                    .usingRecursiveComparison()
+                    .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                    .isEqualTo(page);
+            sizes.put(format, encoded.length);
+        }
+
+        // Smile back-references repeated property names, so a page of objects shrinks the most
+        assertThat(sizes.get(WireFormat.SMILE)).isLessThan(sizes.get(WireFormat.JSON));
+        assertThat(sizes.get(WireFormat.CBOR)).isLessThan(sizes.get(WireFormat.JSON));
+    }
+
+    /**
+     * A full listing page: descriptions, prices, tags and a few images per product
+     */
+    private static List<ProductResponse> productPage() {
+        LocalDateTime created = LocalDateTime.of(2024, 3, 1, 10, 15, 30);
+        List<ProductResponse> page = new ArrayList<>(PRODUCTS);
+        for (long id = 1; id <= PRODUCTS; id++) {
+            List<ProductImageResponse> images = new ArrayList<>();
+            for (int order = 0; order < 3; order++) {
+                images.add(ProductImageResponse.builder()
+                        .id(id * 10 + order)
+                        .imageUrl("https://cdn.neryaallnaturals.com/products/" + id + "/" + order + ".jpg")
+                        .altText("Organic turmeric powder, view " + (order + 1))
+                        .isPrimary(order == 0)
+                        .displayOrder(order)
+                        .createdAt(created)
+                        .updatedAt(created)
+                        .build());
+            }
+            page.add(ProductResponse.builder()
+                    .id(id)
+                    .name("Organic Turmeric Powder " + id)
+                    .sku("NAT-TUR-" + (1000 + id))
+                    .shortDescription("Stone-ground Lakadong turmeric with high curcumin content")
+                    .longDescription("Sourced from smallholder farms in Meghalaya, sun-dried and stone-ground "
+                            + "in small batches to keep its colour, aroma and curcumin content. No additives.")
+                    .price(new BigDecimal("349.00"))
+                    .sellingPrice(new BigDecimal("299.00"))
+                    .discountPercentage(14)
+                    .brand("Nerya")
+                    .weight("200g")
+                    .inStock(true)
+                    .quantity((int) (id * 7 % 120))
+                    .minQuantity(10)
+                    .isActive(true)
+                    .isFeatured(id % 5 == 0)
+                    .averageRating(new BigDecimal("4.50"))
+                    .totalReviews((int) (id * 13 % 400))
+                    .tags(new LinkedHashSet<>(List.of("organic", "spices", "immunity")))
+                    .metaTitle("Organic Turmeric Powder | Nerya All Naturals")
+                    .metaDescription("Buy stone-ground organic turmeric powder online")
+                    .createdAt(created.plusMinutes(id))
+                    .updatedAt(created.plusDays(1).plusMinutes(id))
+                    .categoryId(1 + id % 8)
+                    .categoryName("Spices & Herbs")
+                    .images(images)
+                    .primaryImageUrl(images.get(0).getImageUrl())
+                    .build());
+        }
+        return page;
+    }
+}